@@ -0,0 +1,53 @@
+package com.reservas.backend.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.reservas.backend.model.Court;
+import com.reservas.backend.model.Reservation;
+import com.reservas.backend.model.Role;
+import com.reservas.backend.model.User;
+
+/** Datos de prueba compartidos por los benchmarks (sin BD) */
+final class BenchmarkData {
+
+    static final LocalDate DATE = LocalDate.of(2030, 6, 1);
+
+    private BenchmarkData() {}
+
+    static Court court() {
+        Court court = new Court("Cancha de Fútbol 1", "Grass sintético", "Fútbol", new BigDecimal("50.00"));
+        court.setId(UUID.randomUUID());
+        court.setCode("C-BENCH001");
+        return court;
+    }
+
+    static User user(long id) {
+        User user = new User("Juan", "Pérez", "juan" + id + "@email.com", "$2a$10$hash", "12345678");
+        user.setId(id);
+        Role role = new Role("CLIENTE");
+        role.setId(2L);
+        user.addRole(role);
+        return user;
+    }
+
+    /** Reservas de 90 minutos consecutivas en la misma cancha y día */
+    static List<Reservation> reservations(int count) {
+        Court court = court();
+        User user = user(1L);
+        List<Reservation> reservations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalTime start = LocalTime.of(0, 0).plusMinutes(90L * (i % 16));
+            Reservation reservation = new Reservation(DATE.plusDays(i / 16), start, start.plusMinutes(90), user, court);
+            reservation.setId(UUID.randomUUID());
+            reservation.setCode("R-" + String.format("%08d", i));
+            reservation.setStatus("PENDING");
+            reservations.add(reservation);
+        }
+        return reservations;
+    }
+}
@@ -0,0 +1,109 @@
+package com.reservas.backend.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.reservas.backend.BackendApplication;
+import com.reservas.backend.model.User;
+import com.reservas.backend.service.BulkWriteService;
+
+/**
+ * Inserción masiva de usuarios con BulkWriteService: ids IDENTITY (una ida y vuelta por fila,
+ * sin lotes) frente a la secuencia pooled de User (INSERT en lotes JDBC).
+ *
+ * Por defecto usa H2 en memoria; para medir contra PostgreSQL:
+ * {@code -Dbench.jdbc.url=jdbc:postgresql://localhost:5432/reservas -Dbench.jdbc.user=... -Dbench.jdbc.password=...
+ * -Dbench.dialect=org.hibernate.dialect.PostgreSQLDialect}
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class BulkInsertBenchmark {
+
+    private static final String PASSWORD_HASH = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWxz5Y2J3Qz1uY5h1Ow4q6Gq7y1e";
+
+    @Param({"identity", "sequence"})
+    private String ids;
+
+    @Param({"100000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private BulkWriteService bulkWriteService;
+    private JdbcTemplate jdbcTemplate;
+    private List<Object> entities;
+    private int iteration;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(BackendApplication.class)
+                .web(WebApplicationType.NONE)
+                // Como argumentos: tienen prioridad sobre application.properties
+                .run(
+                        "--spring.datasource.url=" + System.getProperty("bench.jdbc.url", "jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1"),
+                        "--spring.datasource.username=" + System.getProperty("bench.jdbc.user", "sa"),
+                        "--spring.datasource.password=" + System.getProperty("bench.jdbc.password", ""),
+                        "--spring.jpa.database-platform=" + System.getProperty("bench.dialect", "org.hibernate.dialect.H2Dialect"),
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.flyway.enabled=false",
+                        "--spring.sql.init.mode=always",
+                        "--spring.jpa.defer-datasource-initialization=true",
+                        "--spring.sql.init.schema-locations=classpath:db/code-sequences.sql",
+                        "--reservas.booking.shards=1",
+                        "--logging.level.root=WARN");
+        bulkWriteService = context.getBean(BulkWriteService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    /** Las entidades se arman fuera de la medición */
+    @Setup(Level.Iteration)
+    public void prepareRows() {
+        iteration++;
+        entities = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            String email = "bulk-" + iteration + "-" + i + "@email.com";
+            entities.add("identity".equals(ids)
+                    ? new IdentityUserRow("Usuario", "Carga", email, PASSWORD_HASH, "12345678")
+                    : new User("Usuario", "Carga", email, PASSWORD_HASH, "12345678"));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteRows() {
+        jdbcTemplate.update("DELETE FROM bench_identity_user");
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE 'bulk-%'");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public int insertRows() {
+        return bulkWriteService.persistAll(entities);
+    }
+}
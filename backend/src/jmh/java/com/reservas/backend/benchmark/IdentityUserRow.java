@@ -0,0 +1,48 @@
+package com.reservas.backend.benchmark;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Copia de las columnas de User con el id IDENTITY anterior, solo para comparar en
+ * BulkInsertBenchmark (existe únicamente en el classpath del perfil jmh).
+ */
+@Entity
+@Table(name = "bench_identity_user")
+public class IdentityUserRow {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String firstName;
+
+    @Column(nullable = false)
+    private String lastName;
+
+    @Column(unique = true, nullable = false)
+    private String email;
+
+    @Column(nullable = false)
+    private String password;
+
+    private String phoneNumber;
+    private String status = "ACTIVE";
+
+    protected IdentityUserRow() {}
+
+    public IdentityUserRow(String firstName, String lastName, String email, String password, String phoneNumber) {
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.password = password;
+        this.phoneNumber = phoneNumber;
+    }
+
+    public Long getId() { return id; }
+}
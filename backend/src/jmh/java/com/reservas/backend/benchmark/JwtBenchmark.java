@@ -0,0 +1,61 @@
+package com.reservas.backend.benchmark;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.reservas.backend.model.User;
+import com.reservas.backend.security.TokenClaims;
+import com.reservas.backend.security.TokenService;
+
+/**
+ * Creación del JWT de login y su verificación por petición, con y sin el caché de tokens
+ * verificados de TokenService (cache-size 0 obliga a verificar la firma cada vez).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private TokenService cached;
+    private TokenService uncached;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setup() {
+        String ring = "k1:" + Base64.getEncoder().encodeToString(new byte[32]);
+        cached = new TokenService(ring, "k1", 3600000, 10000);
+        uncached = new TokenService(ring, "k1", 3600000, 0);
+        user = BenchmarkData.user(1L);
+        token = cached.createToken(user);
+    }
+
+    @Benchmark
+    public String createLoginToken() {
+        return cached.createToken(user);
+    }
+
+    @Benchmark
+    public TokenClaims verifyCached() {
+        return cached.verify(token);
+    }
+
+    @Benchmark
+    public TokenClaims verifyUncached() {
+        return uncached.verify(token);
+    }
+}
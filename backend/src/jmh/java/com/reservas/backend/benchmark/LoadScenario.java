@@ -0,0 +1,155 @@
+package com.reservas.backend.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Escenario de carga contra un backend ya levantado, para comparar el modo de hilos de
+ * plataforma con el de hilos virtuales (VIRTUAL_THREADS=false / true).
+ *
+ * Modelo cerrado: {@code concurrency} clientes piden sin pausa, alternando
+ * {@code GET /api/reservations} y {@code GET /api/courts}. Tras el calentamiento mide durante
+ * {@code seconds} segundos y reporta, por endpoint, throughput, p50, p99 y errores; también
+ * los guarda en {@code target/load-<label>.json}.
+ *
+ * <pre>
+ *   VIRTUAL_THREADS=false java -jar target/backend-*.jar   # en otra terminal
+ *   mvn -Pjmh test-compile exec:exec@load -Dload.label=platform
+ *   VIRTUAL_THREADS=true java -jar target/backend-*.jar
+ *   mvn -Pjmh test-compile exec:exec@load -Dload.label=virtual
+ * </pre>
+ */
+public final class LoadScenario {
+
+    private static final String[] PATHS = { "/api/reservations", "/api/courts" };
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        String label = args.length > 3 ? args[3] : "run";
+        Path output = Path.of(args.length > 4 ? args[4] : "target", "load-" + label + ".json");
+        int warmupSeconds = Math.max(5, seconds / 6);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        System.out.printf("Carga '%s': %d clientes contra %s, %ds de calentamiento + %ds de medición%n",
+                label, concurrency, baseUrl, warmupSeconds, seconds);
+
+        long warmupEnd = System.nanoTime() + Duration.ofSeconds(warmupSeconds).toNanos();
+        long end = warmupEnd + Duration.ofSeconds(seconds).toNanos();
+        List<Recorder> recorders = new ArrayList<>();
+
+        // Un hilo por cliente (el proyecto compila para Java 17, sin hilos virtuales aquí)
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Recorder recorder = new Recorder();
+            recorders.add(recorder);
+            int offset = i;
+            workers.submit(() -> run(client, baseUrl, offset, warmupEnd, end, recorder));
+        }
+        workers.shutdown();
+        workers.awaitTermination(warmupSeconds + seconds + 60L, TimeUnit.SECONDS);
+
+        StringBuilder json = new StringBuilder("{\n  \"label\": \"" + label + "\",\n  \"concurrency\": " + concurrency
+                + ",\n  \"seconds\": " + seconds + ",\n  \"endpoints\": [\n");
+        for (int p = 0; p < PATHS.length; p++) {
+            int path = p;
+            long[] latencies = merge(recorders, path);
+            long errors = recorders.stream().mapToLong(r -> r.errors[path].get()).sum();
+            Arrays.sort(latencies);
+            double throughput = latencies.length / (double) seconds;
+            double p50 = percentileMs(latencies, 0.50);
+            double p99 = percentileMs(latencies, 0.99);
+
+            System.out.printf(Locale.ROOT, "%-20s %10.1f req/s   p50 %8.2f ms   p99 %8.2f ms   errores %d%n",
+                    PATHS[p], throughput, p50, p99, errors);
+            json.append(String.format(Locale.ROOT,
+                    "    {\"path\": \"%s\", \"requests\": %d, \"throughput\": %.1f, \"p50Ms\": %.2f, \"p99Ms\": %.2f, \"errors\": %d}%s%n",
+                    PATHS[p], latencies.length, throughput, p50, p99, errors, p + 1 < PATHS.length ? "," : ""));
+        }
+        json.append("  ]\n}\n");
+
+        Files.createDirectories(output.getParent());
+        Files.writeString(output, json);
+        System.out.println("Resultado en " + output);
+    }
+
+    private static void run(HttpClient client, String baseUrl, int offset, long warmupEnd, long end, Recorder recorder) {
+        HttpRequest[] requests = new HttpRequest[PATHS.length];
+        for (int p = 0; p < PATHS.length; p++) {
+            requests[p] = HttpRequest.newBuilder(URI.create(baseUrl + PATHS[p]))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+        }
+        for (long n = offset; ; n++) {
+            int p = (int) (n % PATHS.length);
+            long start = System.nanoTime();
+            if (start >= end) return;
+            boolean ok;
+            try {
+                HttpResponse<Void> response = client.send(requests[p], HttpResponse.BodyHandlers.discarding());
+                ok = response.statusCode() < 400;
+            } catch (IOException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long elapsed = System.nanoTime() - start;
+            if (start >= warmupEnd) {
+                if (ok) recorder.add(p, elapsed);
+                else recorder.errors[p].incrementAndGet();
+            }
+        }
+    }
+
+    private static long[] merge(List<Recorder> recorders, int path) {
+        int size = recorders.stream().mapToInt(r -> r.counts[path]).sum();
+        long[] all = new long[size];
+        int i = 0;
+        for (Recorder r : recorders) {
+            System.arraycopy(r.latencies[path], 0, all, i, r.counts[path]);
+            i += r.counts[path];
+        }
+        return all;
+    }
+
+    private static double percentileMs(long[] sorted, double percentile) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    /** Latencias de un cliente (solo lo escribe su propio hilo) */
+    private static final class Recorder {
+        private final long[][] latencies = new long[PATHS.length][1024];
+        private final int[] counts = new int[PATHS.length];
+        private final AtomicLong[] errors = { new AtomicLong(), new AtomicLong() };
+
+        void add(int path, long nanos) {
+            if (counts[path] == latencies[path].length) {
+                latencies[path] = Arrays.copyOf(latencies[path], counts[path] * 2);
+            }
+            latencies[path][counts[path]++] = nanos;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.reservas.backend.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.reservas.backend.model.Reservation;
+import com.reservas.backend.repository.ReservationRepository;
+import com.reservas.backend.service.AvailabilityIndex;
+
+/**
+ * Validación de solapamientos: índice de disponibilidad (bitset + confirmación exacta)
+ * frente a recorrer la lista de reservas del día, que es lo que haría la BD sin índices.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OverlapCheckBenchmark {
+
+    @Param({"1", "15"})
+    private int slotMinutes;
+
+    private AvailabilityIndex index;
+    private List<Reservation> day;
+    private UUID courtId;
+    private final LocalTime freeStart = LocalTime.of(23, 30);
+    private final LocalTime busyStart = LocalTime.of(10, 0);
+
+    @Setup
+    public void setup() {
+        day = BenchmarkData.reservations(15);
+        courtId = day.get(0).getCourt().getId();
+        ReservationRepository repository = (ReservationRepository) Proxy.newProxyInstance(
+                ReservationRepository.class.getClassLoader(),
+                new Class<?>[] { ReservationRepository.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findWithDetailsByCourtIdAndDate")) return day;
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        index = new AvailabilityIndex(repository, slotMinutes, 1000);
+        index.isOverlapping(courtId, BenchmarkData.DATE, freeStart, freeStart.plusMinutes(20), null); // carga el día
+    }
+
+    @Benchmark
+    public boolean indexFreeSlot() {
+        return index.isOverlapping(courtId, BenchmarkData.DATE, freeStart, freeStart.plusMinutes(20), null);
+    }
+
+    @Benchmark
+    public boolean indexBusySlot() {
+        return index.isOverlapping(courtId, BenchmarkData.DATE, busyStart, busyStart.plusMinutes(60), null);
+    }
+
+    @Benchmark
+    public boolean linearScanBusySlot() {
+        LocalTime end = busyStart.plusMinutes(60);
+        for (Reservation r : day) {
+            if (!"CANCELLED".equals(r.getStatus()) && busyStart.isBefore(r.getEndTime()) && end.isAfter(r.getStartTime())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,82 @@
+package com.reservas.backend.benchmark;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.reservas.backend.dto.ReservationDTO;
+import com.reservas.backend.dto.UserDTO;
+import com.reservas.backend.model.Court;
+import com.reservas.backend.model.Reservation;
+import com.reservas.backend.model.User;
+
+/**
+ * Mapeo de entidades a DTO: ReservationDTO (incluye calculateTotalPrice, un BigDecimal.divide
+ * por fila) y UserDTO con sus roles. Las variantes "projection" y "longArithmetic" sirven
+ * para comparar con implementaciones alternativas.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReservationMappingBenchmark {
+
+    private Reservation reservation;
+    private User user;
+
+    @Setup
+    public void setup() {
+        reservation = BenchmarkData.reservations(1).get(0);
+        user = BenchmarkData.user(1L);
+    }
+
+    @Benchmark
+    public ReservationDTO reservationDtoFromEntity() {
+        return new ReservationDTO(reservation);
+    }
+
+    @Benchmark
+    public ReservationDTO reservationDtoFromProjection() {
+        Court court = reservation.getCourt();
+        User owner = reservation.getUser();
+        return new ReservationDTO(reservation.getId(), reservation.getCode(), reservation.getDate(),
+                reservation.getStartTime(), reservation.getEndTime(), reservation.getStatus(),
+                court.getId(), court.getCode(), court.getName(), court.getPricePerHour(),
+                owner.getId(), owner.getFirstName(), owner.getLastName());
+    }
+
+    /** Misma regla que ReservationDTO.calculateTotalPrice */
+    @Benchmark
+    public BigDecimal totalPriceBigDecimal() {
+        long minutes = Duration.between(reservation.getStartTime(), reservation.getEndTime()).toMinutes();
+        BigDecimal hours = BigDecimal.valueOf(minutes).divide(BigDecimal.valueOf(60), 2, RoundingMode.HALF_UP);
+        return reservation.getCourt().getPricePerHour().multiply(hours);
+    }
+
+    /** Alternativa: horas redondeadas a centésimas con aritmética entera */
+    @Benchmark
+    public BigDecimal totalPriceLongArithmetic() {
+        long minutes = Duration.between(reservation.getStartTime(), reservation.getEndTime()).toMinutes();
+        long hundredthsOfHour = (minutes * 100 + 30) / 60;
+        return reservation.getCourt().getPricePerHour().multiply(BigDecimal.valueOf(hundredthsOfHour, 2));
+    }
+
+    @Benchmark
+    public UserDTO userDtoWithRoles() {
+        return new UserDTO(user);
+    }
+}
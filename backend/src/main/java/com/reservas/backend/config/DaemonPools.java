@@ -0,0 +1,40 @@
+package com.reservas.backend.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pools de hilos propios de los servicios (BCrypt, SSE, facturas, cobros).
+ *
+ * Tamaño fijo, hilos daemon con nombre {@code <prefijo>-N} para reconocerlos en un thread dump
+ * y cola acotada: si se llena, {@code execute} lanza RejectedExecutionException y el servicio
+ * decide (429, 503, reintentar después) en lugar de acumular espera.
+ */
+public final class DaemonPools {
+
+    private DaemonPools() {
+    }
+
+    public static ThreadPoolExecutor fixed(String prefix, int threads, int queueCapacity) {
+        return fixed(prefix, threads, new ArrayBlockingQueue<>(queueCapacity));
+    }
+
+    /** Con una cola dada, p. ej. sin límite cuando otra estructura ya acota lo que se encola */
+    public static ThreadPoolExecutor fixed(String prefix, int threads, BlockingQueue<Runnable> queue) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, queue,
+                threadFactory(prefix), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -73,14 +73,9 @@ public class DataInitializer {
                 reserva.setEndTime(LocalTime.of(16, 0));
                 reserva.setStatus("PENDING");
 
-                // Guardamos primero para generar UUID
+                // El UUID y el código legible se asignan al insertar
                 reserva = reservationRepo.save(reserva);
 
-                // Generar código legible tipo "R-XXXXXX"
-                String code = "R-" + reserva.getId().toString().substring(0, 6).toUpperCase();
-                reserva.setCode(code);
-                reservationRepo.save(reserva); // actualizar con el código
-
                 // --- Opcional: crear un pago simulado ---
                 Payment pago = new Payment(
                         cancha.getPricePerHour(),
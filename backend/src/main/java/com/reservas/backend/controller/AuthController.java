@@ -1,16 +1,17 @@
 package com.reservas.backend.controller;
 
 import java.time.LocalDate;
-import java.util.Date;
 import java.util.Optional;
-
-import javax.crypto.SecretKey;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -18,14 +19,17 @@ import org.springframework.web.server.ResponseStatusException;
 
 import com.reservas.backend.dto.AuthRequest;
 import com.reservas.backend.dto.JwtResponse;
+import com.reservas.backend.dto.RefreshRequest;
 import com.reservas.backend.model.Role;
 import com.reservas.backend.model.User;
-import com.reservas.backend.repository.RoleRepository;
 import com.reservas.backend.repository.UserRepository;
+import com.reservas.backend.security.JwtAuthenticationFilter;
+import com.reservas.backend.security.LoginAttemptLimiter;
+import com.reservas.backend.security.PasswordHashingService;
+import com.reservas.backend.security.RefreshTokenService;
+import com.reservas.backend.service.RoleRegistry;
 
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.http.HttpServletRequest;
 
 
 @RestController
@@ -37,15 +41,28 @@ public class AuthController {
     private UserRepository userRepository;
 
     @Autowired
-    private RoleRepository roleRepository;
+    private RoleRegistry roleRegistry;
+
+    // BCrypt corre en un pool propio y acotado; la petición se completa de forma asíncrona
+    @Autowired
+    private PasswordHashingService passwordHashing;
+
+    @Autowired
+    private LoginAttemptLimiter loginAttemptLimiter;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor taskExecutor;
 
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-    private final long jwtExpirationMs = 3600000; // 1 hora
-    private final SecretKey jwtKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+    // Access token (JWT del anillo reservas.jwt.*) + refresh token opaco
+    @Autowired
+    private RefreshTokenService refreshTokenService;
 
     // ------------------ LOGIN ------------------
     @PostMapping("/login")
-    public JwtResponse login(@RequestBody AuthRequest request) {
+    public CompletableFuture<JwtResponse> login(@RequestBody AuthRequest request, HttpServletRequest httpRequest) {
+        throttle(request.getEmail(), httpRequest.getRemoteAddr());
+
         Optional<User> optionalUser = userRepository.findByEmail(request.getEmail());
 
         if (optionalUser.isEmpty()) {
@@ -54,26 +71,20 @@ public class AuthController {
 
         User user = optionalUser.get(); 
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Contraseña incorrecta");
-        }
-
-        String token = Jwts.builder()
-                .setSubject(user.getEmail())
-                .claim("id", user.getId())
-                .claim("role", user.getRoles().stream().findFirst().get().getName())
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(jwtKey)
-                .compact();
-
-        return new JwtResponse(token);
+        return hashing(() -> passwordHashing.matches(request.getPassword(), user.getPassword()))
+                .thenApplyAsync(matches -> {
+                    if (!matches) {
+                        throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Contraseña incorrecta");
+                    }
+                    loginAttemptLimiter.onSuccess(request.getEmail());
+                    return refreshTokenService.issue(user);
+                }, taskExecutor);
     }
 
     // ------------------ REGISTER -----------------
 
     @PostMapping("/register")
-    public JwtResponse register(@RequestBody AuthRequest request) {
+    public CompletableFuture<JwtResponse> register(@RequestBody AuthRequest request, HttpServletRequest httpRequest) {
 
         if (request.getFirstName() == null || request.getFirstName().isEmpty() ||
             request.getLastName() == null || request.getLastName().isEmpty() ||
@@ -82,18 +93,19 @@ public class AuthController {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Todos los campos obligatorios deben completarse");
         }
 
+        throttle(null, httpRequest.getRemoteAddr());
+
         if (userRepository.findByEmail(request.getEmail()).isPresent()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El correo ya está registrado");
         }
 
-        Role clienteRole = roleRepository.findByName("CLIENTE")
+        Role clienteRole = roleRegistry.find("CLIENTE")
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Rol CLIENTE no encontrado"));
 
         User newUser = new User();
         newUser.setFirstName(request.getFirstName());
         newUser.setLastName(request.getLastName());
         newUser.setEmail(request.getEmail());
-        newUser.setPassword(passwordEncoder.encode(request.getPassword()));
         newUser.setPhoneNumber(request.getPhoneNumber());
 
         if (request.getDateOfBirth() != null && !request.getDateOfBirth().isEmpty()) {
@@ -101,18 +113,50 @@ public class AuthController {
         }
 
         newUser.addRole(clienteRole);
-        userRepository.save(newUser);
-        
-        String token = Jwts.builder()
-                .setSubject(newUser.getEmail())
-                .claim("id", newUser.getId())
-                .claim("role", newUser.getRoles().stream().findFirst().get().getName())
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(jwtKey)
-                .compact();
-
-
-        return new JwtResponse(token);
-    }    
+
+        // El INSERT se hace fuera del pool de BCrypt para no retener sus hilos
+        return hashing(() -> passwordHashing.encode(request.getPassword()))
+                .thenApplyAsync(hash -> {
+                    newUser.setPassword(hash);
+                    userRepository.save(newUser);
+                    return refreshTokenService.issue(newUser);
+                }, taskExecutor);
+    }
+
+    // ------------------ REFRESH ------------------
+
+    /** Nuevo par de tokens a partir del refresh token, sin contraseña ni BCrypt */
+    @PostMapping("/refresh")
+    public JwtResponse refresh(@RequestBody RefreshRequest request) {
+        try {
+            return refreshTokenService.refresh(request.getRefreshToken());
+        } catch (RefreshTokenService.InvalidRefreshTokenException e) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
+        }
+    }
+
+    /** Revoca todos los refresh tokens del usuario del access token */
+    @PostMapping("/logout")
+    public void logout(@RequestAttribute(name = JwtAuthenticationFilter.USER_ID, required = false) Long userId) {
+        if (userId == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Se requiere el token de acceso");
+        }
+        refreshTokenService.revokeAll(userId);
+    }
+
+    private void throttle(String email, String ip) {
+        if (!loginAttemptLimiter.tryAcquire(email, ip)) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Demasiados intentos, espera " + loginAttemptLimiter.getRetryAfterSeconds() + " segundos.");
+        }
+    }
+
+    /** Encola el hash; si el pool está saturado responde 429 sin esperar */
+    private static <T> CompletableFuture<T> hashing(Supplier<CompletableFuture<T>> task) {
+        try {
+            return task.get();
+        } catch (PasswordHashingService.HashingRejectedException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+        }
+    }
 }
@@ -6,16 +6,20 @@ import java.util.UUID;
 
 import org.springframework.stereotype.Service;
 
+import com.reservas.backend.dto.CourtDTO;
 import com.reservas.backend.model.Court;
 import com.reservas.backend.repository.CourtRepository;
+import com.reservas.backend.service.CourtCatalogSnapshot;
 
 @Service
 public class CourtController {
 
     private final CourtRepository courtRepository;
+    private final CourtCatalogSnapshot catalogSnapshot;
 
-    public CourtController(CourtRepository courtRepository) {
+    public CourtController(CourtRepository courtRepository, CourtCatalogSnapshot catalogSnapshot) {
         this.courtRepository = courtRepository;
+        this.catalogSnapshot = catalogSnapshot;
     }
 
     public List<Court> findAllCourts() {
@@ -23,15 +27,37 @@ public class CourtController {
     }
 
     public Court saveCourt(Court court) {
-        return courtRepository.save(court);
+        Court saved = courtRepository.save(court);
+        catalogSnapshot.invalidate();
+        return saved;
+    }
+
+    /** Catálogo completo ya serializado (se reconstruye solo si cambió alguna cancha) */
+    public CourtCatalogSnapshot.Snapshot getCatalogSnapshot() {
+        return catalogSnapshot.get();
+    }
+
+    /** Datos de la cancha desde el catálogo en memoria, sin consultar la BD */
+    public Optional<CourtDTO> findCachedCourt(UUID id) {
+        return catalogSnapshot.find(id);
     }
 
     public Optional<Court> findCourtById(UUID id) {
         return courtRepository.findById(id);
     }
 
+    public boolean courtExists(UUID id) {
+        return courtRepository.existsById(id);
+    }
+
+    /** Referencia a la cancha sin consultarla (para asociarla a una reserva) */
+    public Court getCourtReference(UUID id) {
+        return courtRepository.getReferenceById(id);
+    }
+
     public void deleteCourt(UUID id) {
         courtRepository.deleteById(id);
+        catalogSnapshot.invalidate();
     }
 
     public List<Court> findCourtsBySport(String sportType) {
@@ -1,10 +1,13 @@
 package com.reservas.backend.controller;
 
-import java.util.List;
+import java.time.LocalDate;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -14,10 +17,15 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.reservas.backend.dto.CourtDTO;
 import com.reservas.backend.model.Court;
+import com.reservas.backend.service.AvailabilityStream;
+import com.reservas.backend.service.CourtAvailabilityService;
+import com.reservas.backend.service.CourtCatalogSnapshot;
 
 @RestController
 @RequestMapping("/api/courts")
@@ -25,16 +33,32 @@ import com.reservas.backend.model.Court;
 public class CourtRestController {
 
     private final CourtController courtService;
+    private final CourtAvailabilityService availabilityService;
+    private final AvailabilityStream availabilityStream;
 
-    public CourtRestController(CourtController courtService) {
+    public CourtRestController(CourtController courtService,
+                               CourtAvailabilityService availabilityService,
+                               AvailabilityStream availabilityStream) {
         this.courtService = courtService;
+        this.availabilityService = availabilityService;
+        this.availabilityStream = availabilityStream;
     }
 
+    /**
+     * Catálogo de canchas. Se sirven los bytes precalculados con su ETag; si el cliente
+     * envía un If-None-Match que coincide se responde 304 sin consultar ni serializar.
+     */
     @GetMapping
-    public List<CourtDTO> getAllCourts() {
-        return courtService.findAllCourts().stream()
-                .map(CourtDTO::new)
-                .collect(Collectors.toList());
+    public ResponseEntity<byte[]> getAllCourts(WebRequest request) {
+        CourtCatalogSnapshot.Snapshot catalog = courtService.getCatalogSnapshot();
+        if (request.checkNotModified(catalog.etag())) {
+            return null; // Spring ya respondió 304 con el ETag
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(catalog.etag())
+                .body(catalog.body());
     }
 
     @GetMapping("/{id}")
@@ -44,6 +68,44 @@ public class CourtRestController {
                    .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Horarios libres de la cancha entre dos fechas (inclusive), unidos y alineados a bloques
+     * de {@code slotMinutes}. Ignora las reservas canceladas.
+     */
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<Object> getAvailability(
+            @PathVariable UUID id,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "slotMinutes", defaultValue = "30") int slotMinutes) {
+        if (!courtService.courtExists(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(availabilityService.findFreeIntervals(id, from, to, slotMinutes));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Cambios de reservas de la cancha en una fecha, por Server-Sent Events (booked, changed,
+     * released, resync). Conviene suscribirse antes de pedir las reservas del día.
+     */
+    @GetMapping(value = "/{id}/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Object> streamAvailability(
+            @PathVariable UUID id,
+            @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        if (!courtService.courtExists(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(availabilityStream.subscribe(id, date));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
+    }
+
     @PostMapping
     public ResponseEntity<CourtDTO> createCourt(@RequestBody Court newCourt) {
         Court savedCourt = courtService.saveCourt(newCourt);
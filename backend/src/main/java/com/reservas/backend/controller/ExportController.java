@@ -0,0 +1,79 @@
+package com.reservas.backend.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Locale;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.reservas.backend.service.ExportService;
+import com.reservas.backend.service.ExportService.Format;
+
+@RestController
+@RequestMapping("/api/exports")
+@CrossOrigin(origins = "http://localhost:4200")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    /**
+     * Exporta todas las reservas. format = ndjson | csv; gzip=true comprime la salida.
+     */
+    @GetMapping("/reservations")
+    public ResponseEntity<StreamingResponseBody> exportReservations(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        Format parsed = parseFormat(format);
+        return stream("reservas", parsed, gzip, out -> exportService.exportReservations(out, parsed, gzip));
+    }
+
+    /**
+     * Exporta todos los pagos junto con los datos de su reserva (un solo archivo para contabilidad).
+     */
+    @GetMapping("/payments")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        Format parsed = parseFormat(format);
+        return stream("pagos", parsed, gzip, out -> exportService.exportPayments(out, parsed, gzip));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> stream(String name, Format format, boolean gzip,
+                                                                StreamingResponseBody body) {
+        String extension = format == Format.CSV ? ".csv" : ".ndjson";
+        MediaType type = format == Format.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.parseMediaType("application/x-ndjson");
+        if (gzip) {
+            extension += ".gz";
+            type = MediaType.parseMediaType("application/gzip");
+        }
+        return ResponseEntity.ok()
+                .contentType(type)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + name + "-" + LocalDate.now() + extension + "\"")
+                .body(body);
+    }
+
+    private static Format parseFormat(String format) {
+        try {
+            return Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Formato no soportado: " + format);
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.reservas.backend.controller;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.UUID;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -10,22 +15,46 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.reservas.backend.dto.InvoiceDTO;
 import com.reservas.backend.dto.PaymentRequest;
+import com.reservas.backend.dto.PaymentStatusDTO;
+import com.reservas.backend.model.Payment;
+import com.reservas.backend.service.IdempotencyService;
+import com.reservas.backend.service.InvoiceDocumentService;
+import com.reservas.backend.service.PaymentProcessingService;
+import com.reservas.backend.service.PaymentProcessingService.GatewayUnavailableException;
 import com.reservas.backend.service.PaymentService;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
 @RestController
 @RequestMapping("/api/payments")
 @CrossOrigin(origins = "http://localhost:4200")
 public class PaymentController {
 
+    // Atributos de Tomcat para enviar un archivo con sendfile(2) (los mismos que usa su DefaultServlet)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     private final PaymentService paymentService;
+    private final PaymentProcessingService paymentProcessingService;
+    private final IdempotencyService idempotencyService;
+    private final InvoiceDocumentService invoiceDocumentService;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, PaymentProcessingService paymentProcessingService,
+                             IdempotencyService idempotencyService, InvoiceDocumentService invoiceDocumentService) {
         this.paymentService = paymentService;
+        this.paymentProcessingService = paymentProcessingService;
+        this.idempotencyService = idempotencyService;
+        this.invoiceDocumentService = invoiceDocumentService;
     }
 
     /**
@@ -42,16 +71,102 @@ public class PaymentController {
     }
 
     /**
-     * Procesa el pago de una reserva y genera la factura
+     * Documento descargable de la factura. Redirige (303) a su URL inmutable; si todavía se
+     * está generando responde 202 con Retry-After.
+     */
+    @GetMapping("/invoice/{reservationId}/document")
+    public ResponseEntity<Object> getInvoiceDocument(@PathVariable UUID reservationId) {
+        try {
+            return invoiceDocumentService.findReadyDocument(reservationId)
+                    .<ResponseEntity<Object>>map(hash -> ResponseEntity.status(HttpStatus.SEE_OTHER)
+                            .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                                    .path("/api/payments/invoices/{hash}")
+                                    .buildAndExpand(hash)
+                                    .toUri())
+                            .build())
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.ACCEPTED)
+                            .header(HttpHeaders.RETRY_AFTER, "2")
+                            .body("La factura se está generando, intenta de nuevo en unos segundos."));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+    }
+
+    /**
+     * Documento de factura por su hash. El contenido nunca cambia para una URL dada, así que se
+     * cachea como inmutable; el archivo se envía con sendfile cuando Tomcat lo permite.
+     */
+    @GetMapping("/invoices/{hash}")
+    public void downloadInvoiceDocument(@PathVariable String hash,
+                                        HttpServletRequest request,
+                                        HttpServletResponse response) throws IOException {
+        Path file = invoiceDocumentService.findDocument(hash).orElse(null);
+        if (file == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        String etag = "\"" + hash + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=31536000, immutable");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+        long length = Files.size(file);
+        response.setContentType("text/html;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "inline; filename=\"factura-" + hash.substring(0, 12) + ".html\"");
+        response.setContentLengthLong(length);
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat copia el archivo al socket al terminar la solicitud, sin pasar por la JVM
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return;
+        }
+        Files.copy(file, response.getOutputStream());
+    }
+
+    /**
+     * Inicia el pago de una reserva: responde 202 con el estado PENDING y la URL de consulta
+     * (Location). El cobro corre en segundo plano; al confirmarse se genera la factura.
+     * Con Idempotency-Key, un reintento devuelve la misma respuesta sin volver a cobrar.
      */
     @PostMapping("/{reservationId}")
-    public ResponseEntity<InvoiceDTO> payReservation(@PathVariable UUID reservationId,
-                                                     @RequestBody PaymentRequest request) {
+    public ResponseEntity<Object> payReservation(@PathVariable UUID reservationId,
+                                                 @RequestBody PaymentRequest request,
+                                                 @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("payments:" + reservationId, idempotencyKey, request, () -> {
+            try {
+                Payment payment = paymentProcessingService.start(reservationId, request);
+                return ResponseEntity.accepted()
+                        .location(ServletUriComponentsBuilder.fromCurrentRequest().path("/status").build().toUri())
+                        .body(PaymentService.toStatus(payment));
+            } catch (GatewayUnavailableException e) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (e.getRetryAfterMs() + 999) / 1000)))
+                        .body(e.getMessage());
+            } catch (IllegalStateException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+            } catch (RuntimeException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+            }
+        });
+    }
+
+    /**
+     * Estado del pago de la reserva: PENDING mientras la pasarela procesa o no se conoce el
+     * resultado, luego CONFIRMED (con la factura), FAILED (con el motivo) o, si la reserva se
+     * canceló durante el cobro, REFUND_PENDING y REFUNDED.
+     */
+    @GetMapping("/{reservationId}/status")
+    public ResponseEntity<PaymentStatusDTO> getPaymentStatus(@PathVariable UUID reservationId) {
         try {
-            InvoiceDTO invoice = paymentService.processPayment(reservationId, request);
-            return ResponseEntity.ok(invoice);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    .body(paymentService.getPaymentStatus(reservationId));
         } catch (RuntimeException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
     }
 
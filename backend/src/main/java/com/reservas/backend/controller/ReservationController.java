@@ -7,47 +7,87 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import com.reservas.backend.dto.ReservationDTO;
 import com.reservas.backend.model.Court;
 import com.reservas.backend.model.Reservation;
 import com.reservas.backend.model.User;
 import com.reservas.backend.repository.ReservationRepository;
+import com.reservas.backend.service.AvailabilityIndex;
+import com.reservas.backend.service.BookingEngine;
+import com.reservas.backend.service.CodeGenerator;
+import com.reservas.backend.service.DatabaseBookingService;
+import com.reservas.backend.service.HoldExpiryService;
+import com.reservas.backend.service.ReservationChangedEvent;
 
 @Service
 public class ReservationController {
 
     private final ReservationRepository reservationRepository;
-
-    public ReservationController(ReservationRepository reservationRepository) {
+    private final AvailabilityIndex availabilityIndex;
+    private final BookingEngine bookingEngine;
+    private final DatabaseBookingService databaseBooking;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HoldExpiryService holdExpiryService;
+    private final CodeGenerator codeGenerator;
+    // "database": la BD valida solapamientos (varias réplicas); "sequencer": motor en memoria
+    private final boolean databaseMode;
+
+    public ReservationController(ReservationRepository reservationRepository,
+                                 AvailabilityIndex availabilityIndex,
+                                 BookingEngine bookingEngine,
+                                 DatabaseBookingService databaseBooking,
+                                 ApplicationEventPublisher eventPublisher,
+                                 HoldExpiryService holdExpiryService,
+                                 CodeGenerator codeGenerator,
+                                 @Value("${reservas.booking.mode:sequencer}") String bookingMode) {
         this.reservationRepository = reservationRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.bookingEngine = bookingEngine;
+        this.databaseBooking = databaseBooking;
+        this.eventPublisher = eventPublisher;
+        this.holdExpiryService = holdExpiryService;
+        this.codeGenerator = codeGenerator;
+        this.databaseMode = "database".equalsIgnoreCase(bookingMode);
     }
 
-    /** Obtiene todas las reservas y actualiza estados automáticamente */
+    /** Obtiene todas las reservas (los estados vencidos los actualiza ReservationStatusScheduler) */
     public List<Reservation> findAllReservations() {
-        List<Reservation> reservations = reservationRepository.findAll();
-        LocalDateTime now = LocalDateTime.now();
-        for (Reservation r : reservations) {
-            if ("PENDING".equals(r.getStatus()) &&
-                LocalDateTime.of(r.getDate(), r.getEndTime()).isBefore(now)) {
-                r.setStatus("FINISHED");
-                reservationRepository.save(r);
-            }
-        }
-        return reservations;
+        return reservationRepository.findAll();
     }
 
+    /** Listado completo como DTO, en una sola consulta */
+    public List<ReservationDTO> findAllReservationDetails() {
+        return reservationRepository.findAllDetails();
+    }
+
+    /** Reserva con cancha y usuario cargados, para modificarla y armar su DTO fuera de la sesión */
     public Optional<Reservation> findReservationById(UUID id) {
-        return reservationRepository.findById(id);
+        return reservationRepository.findWithDetailsById(id);
+    }
+
+    public Optional<ReservationDTO> findReservationDetailById(UUID id) {
+        return reservationRepository.findDetailById(id);
     }
 
-    public List<Reservation> findReservationsByCourtAndDate(UUID courtId, LocalDate date) {
-        return reservationRepository.findByCourtIdAndDate(courtId, date);
+    /** Reservas de la cancha en la fecha, servidas desde el índice de disponibilidad */
+    public List<ReservationDTO> findReservationsByCourtAndDate(UUID courtId, LocalDate date) {
+        if (databaseMode) {
+            // Con varias réplicas el índice local no ve las reservas de las demás
+            return reservationRepository.findDetailsByCourtIdAndDate(courtId, date);
+        }
+        return availabilityIndex.findByCourtAndDate(courtId, date);
     }
 
-    /** Intenta crear una nueva reserva validando conflictos y fechas */
+    /**
+     * Intenta crear una nueva reserva validando conflictos y fechas. Con {@code hold} (checkout
+     * del cliente) una reserva PENDING vence si no se paga a tiempo; sin él queda PENDING.
+     */
     public Reservation attemptReservation(Court court, User user, LocalDate date,
-                                          LocalTime startTime, LocalTime endTime) {
+                                          LocalTime startTime, LocalTime endTime, boolean hold) {
         if (date.isBefore(LocalDate.now())) {
             throw new IllegalArgumentException("La fecha no puede ser anterior al día de hoy.");
         }
@@ -55,40 +95,34 @@ public class ReservationController {
             throw new IllegalArgumentException("La hora de inicio debe ser menor que la hora de fin.");
         }
 
-        boolean overlapExists = reservationRepository.existsOverlappingReservation(
-                court.getId(), date, startTime, endTime
-        );
-
-        if (overlapExists) {
-            throw new IllegalStateException("Ya existe una reserva en ese horario.");
-        }
-
         Reservation newReservation = new Reservation(date, startTime, endTime, user, court);
+        // Código antes de la transacción del guardado: si hay que pedir un bloque nuevo, el
+        // nextval no toma otra conexión mientras el shard guarda
+        newReservation.setCode(codeGenerator.nextReservationCode());
 
         // Estado inicial según fecha/hora
         if (LocalDateTime.of(date, startTime).isAfter(LocalDateTime.now())) {
             newReservation.setStatus("PENDING");
+            if (hold) newReservation.setHoldExpiresAt(holdExpiryService.newHoldDeadline());
         } else {
             newReservation.setStatus("CONFIRMED");
         }
 
-        return reservationRepository.save(newReservation);
+        Reservation saved = book(newReservation, "Ya existe una reserva en ese horario.");
+        eventPublisher.publishEvent(ReservationChangedEvent.created(saved));
+        return saved;
     }
 
-    /** Guarda reserva existente validando conflictos */
+    /** Guarda reserva existente validando conflictos (sin contar la propia reserva) */
     public Reservation saveReservation(Reservation reservation) {
-        boolean overlapExists = reservationRepository.existsOverlappingReservation(
-                reservation.getCourt().getId(),
-                reservation.getDate(),
-                reservation.getStartTime(),
-                reservation.getEndTime()
-        );
-
-        if (overlapExists) {
-            throw new IllegalStateException("El horario seleccionado entra en conflicto con otra reserva.");
-        }
+        return saveReservation(reservation, reservation.getCourt().getId(), reservation.getDate());
+    }
 
-        return reservationRepository.save(reservation);
+    /** Igual, indicando la cancha y fecha que tenía antes del cambio (para avisar a esa ventana) */
+    public Reservation saveReservation(Reservation reservation, UUID previousCourtId, LocalDate previousDate) {
+        Reservation saved = book(reservation, "El horario seleccionado entra en conflicto con otra reserva.");
+        eventPublisher.publishEvent(ReservationChangedEvent.updated(saved, previousCourtId, previousDate));
+        return saved;
     }
 
     /** Cancela reserva (cambiar estado a CANCELLED) */
@@ -96,16 +130,39 @@ public class ReservationController {
         Optional<Reservation> reservation = reservationRepository.findById(reservationId);
         reservation.ifPresent(res -> {
             res.setStatus("CANCELLED");
-            reservationRepository.save(res);
+            Reservation saved = book(res, null);
+            eventPublisher.publishEvent(ReservationChangedEvent.updated(saved, saved.getCourt().getId(), saved.getDate()));
         });
     }
 
     /** Elimina físicamente la reserva */
     public void deleteReservation(UUID reservationId) {
+        Optional<Reservation> reservation = reservationRepository.findById(reservationId);
         reservationRepository.deleteById(reservationId);
+        availabilityIndex.onDeleted(reservationId);
+        reservation.ifPresent(res -> eventPublisher.publishEvent(ReservationChangedEvent.deleted(res)));
+    }
+
+    /** Valida el solapamiento y guarda según el modo configurado */
+    private Reservation book(Reservation reservation, String conflictMessage) {
+        if (databaseMode) {
+            return databaseBooking.book(reservation, conflictMessage);
+        }
+        // El motor valida contra el índice y guarda en el hilo escritor de la cancha
+        return bookingEngine.book(reservation, conflictMessage);
+    }
+
+    /** Compara el índice de disponibilidad con la tabla y corrige los días desalineados */
+    public List<String> checkAvailabilityIndex() {
+        return availabilityIndex.checkConsistency();
     }
 
     public List<Reservation> findReservationsByUser(User user) {
         return reservationRepository.findByUser(user);
     }
+
+    /** Reservas del usuario como DTO, en una sola consulta */
+    public List<ReservationDTO> findReservationDetailsByUser(Long userId) {
+        return reservationRepository.findDetailsByUserId(userId);
+    }
 }
@@ -3,9 +3,9 @@ package com.reservas.backend.controller;
 import java.net.URI;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
@@ -16,19 +16,28 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.reservas.backend.dto.ReservationDTO;
+import com.reservas.backend.dto.ReservationPageDTO;
 import com.reservas.backend.dto.ReservationRequest;
+import com.reservas.backend.dto.ReservationSearchCriteria;
 import com.reservas.backend.dto.ReservationUserUpdateDTO;
+import com.reservas.backend.dto.SeriesReservationRequest;
 import com.reservas.backend.model.Court;
 import com.reservas.backend.model.Reservation;
 import com.reservas.backend.model.User;
 import com.reservas.backend.repository.UserRepository;
+import com.reservas.backend.security.JwtAuthenticationFilter;
+import com.reservas.backend.service.IdempotencyService;
+import com.reservas.backend.service.ReservationSearchService;
+import com.reservas.backend.service.SeriesBookingService;
 
 @RestController
 @RequestMapping("/api/reservations")
@@ -38,27 +47,68 @@ public class ReservationRestController {
     private final ReservationController reservationService;
     private final CourtController courtService;
     private final UserRepository userRepository;
+    private final ReservationSearchService searchService;
+    private final SeriesBookingService seriesBookingService;
+    private final IdempotencyService idempotencyService;
 
     public ReservationRestController(ReservationController reservationService,
                                      CourtController courtService,
-                                     UserRepository userRepository) {
+                                     UserRepository userRepository,
+                                     ReservationSearchService searchService,
+                                     SeriesBookingService seriesBookingService,
+                                     IdempotencyService idempotencyService) {
         this.reservationService = reservationService;
         this.courtService = courtService;
         this.userRepository = userRepository;
+        this.searchService = searchService;
+        this.seriesBookingService = seriesBookingService;
+        this.idempotencyService = idempotencyService;
     }
 
     @GetMapping
     public List<ReservationDTO> getAllReservations() {
-        return reservationService.findAllReservations()
-                                 .stream()
-                                 .map(ReservationDTO::new)
-                                 .collect(Collectors.toList());
+        return reservationService.findAllReservationDetails();
+    }
+
+    /**
+     * Búsqueda paginada por cursor. Filtros opcionales: from, to, status, courtId, userId, codePrefix;
+     * orden: sort=date|code y direction=asc|desc. Para la página siguiente se envía el nextCursor recibido.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Object> searchReservations(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "courtId", required = false) UUID courtId,
+            @RequestParam(value = "userId", required = false) Long userId,
+            @RequestParam(value = "codePrefix", required = false) String codePrefix,
+            @RequestParam(value = "sort", defaultValue = "date") String sort,
+            @RequestParam(value = "direction", defaultValue = "asc") String direction,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        ReservationSearchCriteria criteria = new ReservationSearchCriteria();
+        criteria.setFrom(from);
+        criteria.setTo(to);
+        criteria.setStatus(status);
+        criteria.setCourtId(courtId);
+        criteria.setUserId(userId);
+        criteria.setCodePrefix(codePrefix);
+        criteria.setSort(sort);
+        criteria.setDirection(direction);
+        criteria.setSize(size);
+        criteria.setCursor(cursor);
+        try {
+            ReservationPageDTO page = searchService.search(criteria);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<ReservationDTO> getReservationById(@PathVariable UUID id) {
-        return reservationService.findReservationById(id)
-                                 .map(res -> ResponseEntity.ok(new ReservationDTO(res)))
+        return reservationService.findReservationDetailById(id)
+                                 .map(ResponseEntity::ok)
                                  .orElse(ResponseEntity.notFound().build());
     }
 
@@ -66,26 +116,42 @@ public class ReservationRestController {
     public List<ReservationDTO> getReservationsByCourtAndDate(
             @PathVariable UUID courtId,
             @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        return reservationService.findReservationsByCourtAndDate(courtId, date)
-                                 .stream()
-                                 .map(ReservationDTO::new)
-                                 .collect(Collectors.toList());
+        return reservationService.findReservationsByCourtAndDate(courtId, date);
+    }
+
+    /** Verifica que el índice de disponibilidad coincida con la tabla de reservas */
+    @GetMapping("/availability-index/check")
+    public Map<String, Object> checkAvailabilityIndex() {
+        List<String> mismatches = reservationService.checkAvailabilityIndex();
+        return Map.of(
+                "consistent", mismatches.isEmpty(),
+                "mismatches", mismatches
+        );
     }
 
     @PostMapping
-    public ResponseEntity<Object> createReservation(@RequestBody ReservationRequest request) {
-        Optional<Court> court = courtService.findCourtById(request.getCourtId());
-        Optional<User> user = userRepository.findById(request.getUserId());
-        if (court.isEmpty() || user.isEmpty())
+    public ResponseEntity<Object> createReservation(@RequestBody ReservationRequest request,
+                                                    @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                                    @RequestAttribute(name = JwtAuthenticationFilter.ROLE, required = false) String tokenRole) {
+        // Checkout del cliente: la reserva es un hold que vence sin pago. La del admin para un cliente, no
+        boolean hold = !"ADMIN".equals(tokenRole);
+        // Un reintento con la misma clave devuelve la reserva ya creada en vez de otro 400 por solapamiento
+        return idempotencyService.execute("reservations", idempotencyKey, request, () -> book(request, hold));
+    }
+
+    private ResponseEntity<Object> book(ReservationRequest request, boolean hold) {
+        if (request.getCourtId() == null || request.getUserId() == null)
             return ResponseEntity.badRequest().body("Usuario o cancha no existe.");
 
         try {
+            // Referencias sin SELECT: si no existen, la FK del INSERT lo detecta
             Reservation newReservation = reservationService.attemptReservation(
-                    court.get(),
-                    user.get(),
+                    courtService.getCourtReference(request.getCourtId()),
+                    userRepository.getReferenceById(request.getUserId()),
                     request.getDate(),
                     request.getStartTime(),
-                    request.getEndTime()
+                    request.getEndTime(),
+                    hold
             );
 
             URI location = ServletUriComponentsBuilder.fromCurrentRequest()
@@ -93,14 +159,42 @@ public class ReservationRestController {
                                                      .buildAndExpand(newReservation.getId())
                                                      .toUri();
 
+            // Sin tocar los proxies de cancha y usuario: la cancha sale del catálogo y el nombre
+            // de una proyección por PK
+            String userFullName = userRepository.findFullNameById(request.getUserId()).orElse(null);
+            ReservationDTO body = courtService.findCachedCourt(request.getCourtId())
+                    .map(court -> ReservationDTO.ofNew(newReservation, court, request.getUserId(), userFullName))
+                    .or(() -> reservationService.findReservationDetailById(newReservation.getId()))
+                    .orElseThrow();
             return ResponseEntity.created(location)
-                                 .body(new ReservationDTO(newReservation));
+                                 .body(body);
 
         } catch (IllegalStateException | IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    /**
+     * Reserva recurrente (semanal o quincenal) del mismo horario. Responde el resultado de cada
+     * ocurrencia: BOOKED o CONFLICT si el horario ya estaba ocupado ese día.
+     */
+    @PostMapping("/series")
+    public ResponseEntity<Object> createSeries(@RequestBody SeriesReservationRequest request) {
+        if (request.getCourtId() == null || request.getUserId() == null
+                || !courtService.courtExists(request.getCourtId())
+                || !userRepository.existsById(request.getUserId()))
+            return ResponseEntity.badRequest().body("Usuario o cancha no existe.");
+
+        try {
+            return ResponseEntity.ok(seriesBookingService.bookSeries(
+                    request,
+                    courtService.getCourtReference(request.getCourtId()),
+                    userRepository.getReferenceById(request.getUserId())));
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ReservationDTO> updateReservation(@PathVariable UUID id,
                                                             @RequestBody ReservationRequest request) {
@@ -108,6 +202,8 @@ public class ReservationRestController {
         if (existingOpt.isEmpty()) return ResponseEntity.notFound().build();
 
         Reservation reservation = existingOpt.get();
+        UUID previousCourtId = reservation.getCourt().getId();
+        LocalDate previousDate = reservation.getDate();
 
         if (request.getCourtId() != null) {
             Optional<Court> court = courtService.findCourtById(request.getCourtId());
@@ -127,7 +223,7 @@ public class ReservationRestController {
         if (request.getStatus() != null) reservation.setStatus(request.getStatus());
 
         try {
-            Reservation updated = reservationService.saveReservation(reservation);
+            Reservation updated = reservationService.saveReservation(reservation, previousCourtId, previousDate);
             return ResponseEntity.ok(new ReservationDTO(updated));
         } catch (IllegalStateException | IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(null);
@@ -153,15 +249,9 @@ public class ReservationRestController {
 
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<ReservationDTO>> getReservationsByUser(@PathVariable Long userId) {
-        Optional<User> userOpt = userRepository.findById(userId);
-        if (userOpt.isEmpty()) return ResponseEntity.notFound().build();
-
-        List<ReservationDTO> reservations = reservationService.findReservationsByUser(userOpt.get())
-                                                              .stream()
-                                                              .map(ReservationDTO::new)
-                                                              .collect(Collectors.toList());
+        if (!userRepository.existsById(userId)) return ResponseEntity.notFound().build();
 
-        return ResponseEntity.ok(reservations);
+        return ResponseEntity.ok(reservationService.findReservationDetailsByUser(userId));
     }
 
     @DeleteMapping("/{id}")
@@ -17,6 +17,8 @@ import org.springframework.web.bind.annotation.RestController;
 import com.reservas.backend.dto.RoleDTO;
 import com.reservas.backend.model.Role;
 import com.reservas.backend.repository.RoleRepository;
+import com.reservas.backend.service.RoleRegistry;
+import com.reservas.backend.service.RoleService;
 
 @RestController
 @RequestMapping("/api/roles")
@@ -26,6 +28,13 @@ public class RoleController {
     @Autowired
     private RoleRepository roleRepository;
 
+    // Las escrituras pasan por RoleService para que RoleRegistry se recargue
+    @Autowired
+    private RoleService roleService;
+
+    @Autowired
+    private RoleRegistry roleRegistry;
+
     @GetMapping
     public List<RoleDTO> getAllRoles() {
         return roleRepository.findAll()
@@ -43,7 +52,7 @@ public class RoleController {
 
     @PostMapping
     public RoleDTO createRole(@RequestBody Role role) {
-        Role savedRole = roleRepository.save(role);
+        Role savedRole = roleService.saveRole(role);
         return new RoleDTO(savedRole);
     }
 
@@ -53,13 +62,23 @@ public class RoleController {
                 .orElseThrow(() -> new RuntimeException("Rol no encontrado con id: " + id));
 
         role.setName(updatedRole.getName());
-        Role savedRole = roleRepository.save(role);
+        Role savedRole = roleService.saveRole(role);
 
         return new RoleDTO(savedRole);
     }
 
     @DeleteMapping("/{id}")
     public void deleteRole(@PathVariable Long id) {
-        roleRepository.deleteById(id);
+        roleService.deleteRole(id);
+    }
+
+    /** Recarga los roles en memoria; lo llaman las otras réplicas tras un cambio de roles */
+    @PostMapping("/refresh")
+    public List<RoleDTO> refreshRoles() {
+        roleRegistry.refresh();
+        return roleRegistry.findAll()
+                .stream()
+                .map(RoleDTO::new)
+                .collect(Collectors.toList());
     }
 }
@@ -1,27 +1,43 @@
 package com.reservas.backend.controller;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.reservas.backend.dto.BulkImportResultDTO;
 import com.reservas.backend.dto.UserDTO;
+import com.reservas.backend.dto.UserLookupDTO;
+import com.reservas.backend.dto.UserPageDTO;
 import com.reservas.backend.dto.UserRequestDTO;
+import com.reservas.backend.dto.UserSearchCriteria;
 import com.reservas.backend.model.Role;
 import com.reservas.backend.model.User;
-import com.reservas.backend.repository.RoleRepository;
 import com.reservas.backend.repository.UserRepository;
+import com.reservas.backend.security.JwtAuthenticationFilter;
+import com.reservas.backend.security.PasswordHashingService;
+import com.reservas.backend.security.RefreshTokenService;
+import com.reservas.backend.service.BulkWriteService;
+import com.reservas.backend.service.RoleRegistry;
+import com.reservas.backend.service.UserSearchService;
 
 @RestController
 @RequestMapping("/api/users")
@@ -32,9 +48,23 @@ public class UserController {
     private UserRepository userRepository;
 
     @Autowired
-    private RoleRepository roleRepository;
+    private RoleRegistry roleRegistry;
 
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Autowired
+    private BulkWriteService bulkWriteService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserSearchService userSearchService;
+
+    @Autowired
+    private PasswordHashingService passwordHashing;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor taskExecutor;
 
     @GetMapping
     public List<UserDTO> getAllUsers() {
@@ -44,6 +74,38 @@ public class UserController {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Directorio paginado por cursor. Filtros opcionales: q (prefijo de nombre, apellido o email),
+     * role y status. Para la página siguiente se envía el nextCursor recibido.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Object> searchUsers(
+            @RequestParam(value = "q", required = false) String q,
+            @RequestParam(value = "role", required = false) String role,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        UserSearchCriteria criteria = new UserSearchCriteria();
+        criteria.setQuery(q);
+        criteria.setRole(role);
+        criteria.setStatus(status);
+        criteria.setSize(size);
+        criteria.setCursor(cursor);
+        try {
+            UserPageDTO page = userSearchService.search(criteria);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /** Id y nombre para selectores (máximo 100), sin roles ni datos de contacto */
+    @GetMapping("/lookup")
+    public List<UserLookupDTO> lookupUsers(@RequestParam(value = "q", required = false) String q,
+                                           @RequestParam(value = "limit", required = false) Integer limit) {
+        return userSearchService.lookup(q, limit);
+    }
+
     @GetMapping("/{id}")
     public UserDTO getUserById(@PathVariable Long id) {
         User user = userRepository.findById(id)
@@ -52,7 +114,7 @@ public class UserController {
     }
 
     @PostMapping
-    public UserDTO createUser(@RequestBody UserRequestDTO request) {
+    public CompletableFuture<UserDTO> createUser(@RequestBody UserRequestDTO request) {
         // Validar email único
         if(userRepository.findByEmail(request.getEmail()).isPresent()) {
             throw new RuntimeException("El email ya está registrado: " + request.getEmail());
@@ -64,50 +126,86 @@ public class UserController {
         user.setEmail(request.getEmail());
         user.setPhoneNumber(request.getPhoneNumber());
 
-        // Hash de contraseña
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-
         // Asignar rol
-        Role role = roleRepository.findByName(request.getRoleName())
+        Role role = roleRegistry.find(request.getRoleName())
                 .orElseThrow(() -> new RuntimeException("Rol no encontrado: " + request.getRoleName()));
         user.getRoles().clear();
         user.getRoles().add(role);
 
-        User savedUser = userRepository.save(user);
-        return new UserDTO(savedUser);
+        // Hash de contraseña en el pool de BCrypt; el INSERT fuera de él, como en AuthController
+        return hashing(() -> passwordHashing.encode(request.getPassword()))
+                .thenApplyAsync(hash -> {
+                    user.setPassword(hash);
+                    return new UserDTO(userRepository.save(user));
+                }, taskExecutor);
+    }
+
+    /** Importación masiva: inserta en lotes e informa las filas omitidas */
+    @PostMapping("/import")
+    public BulkImportResultDTO importUsers(@RequestBody List<UserRequestDTO> requests) {
+        return bulkWriteService.importUsers(requests);
     }
 
     @PutMapping("/{id}")
-    public UserDTO updateUser(@PathVariable Long id, @RequestBody UserRequestDTO request) {
+    public CompletableFuture<UserDTO> updateUser(@PathVariable Long id, @RequestBody UserRequestDTO request) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado con id: " + id));
 
+        boolean emailChanged = !user.getEmail().equals(request.getEmail());
         user.setFirstName(request.getFirstName());
         user.setLastName(request.getLastName());
         user.setEmail(request.getEmail());
         user.setPhoneNumber(request.getPhoneNumber());
 
-        // Actualizar contraseña solo si se envía
-        if(request.getPassword() != null && !request.getPassword().isEmpty()) {
-            user.setPassword(passwordEncoder.encode(request.getPassword()));
-        }
-
         // Actualizar rol
+        boolean roleChanged = false;
         if(request.getRoleName() != null && !request.getRoleName().isEmpty()) {
-            Role role = roleRepository.findByName(request.getRoleName())
+            Role role = roleRegistry.find(request.getRoleName())
                     .orElseThrow(() -> new RuntimeException("Rol no encontrado: " + request.getRoleName()));
             user.getRoles().clear();
             user.getRoles().add(role);
+            roleChanged = true;
         }
+        boolean credentialsChanged = emailChanged || roleChanged;
 
+        // Actualizar contraseña solo si se envía (hash en el pool de BCrypt)
+        if(request.getPassword() != null && !request.getPassword().isEmpty()) {
+            return hashing(() -> passwordHashing.encode(request.getPassword()))
+                    .thenApplyAsync(hash -> {
+                        user.setPassword(hash);
+                        return saveUser(user, true);
+                    }, taskExecutor);
+        }
+        return CompletableFuture.completedFuture(saveUser(user, credentialsChanged));
+    }
+
+    private UserDTO saveUser(User user, boolean credentialsChanged) {
         User savedUser = userRepository.save(user);
+        // Los refresh tokens guardan email y rol: se invalidan para que el próximo login tome los nuevos
+        if (credentialsChanged) {
+            refreshTokenService.revokeAll(savedUser.getId());
+        }
         return new UserDTO(savedUser);
     }
 
+    /** Encola el hash; si el pool está saturado responde 429 sin esperar */
+    private static <T> CompletableFuture<T> hashing(Supplier<CompletableFuture<T>> task) {
+        try {
+            return task.get();
+        } catch (PasswordHashingService.HashingRejectedException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+        }
+    }
+
     @DeleteMapping("/{id}")
-    public void deleteUser(@PathVariable Long id, @RequestHeader("userRole") String userRole) {
-        if (!"ADMIN".equals(userRole)) {
-            throw new RuntimeException("No tienes permisos para eliminar usuarios.");
+    public void deleteUser(@PathVariable Long id,
+                           @RequestAttribute(name = JwtAuthenticationFilter.ROLE, required = false) String tokenRole) {
+        // Solo vale el rol del token verificado por JwtAuthenticationFilter, nunca una cabecera del cliente
+        if (tokenRole == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Se requiere el token de acceso");
+        }
+        if (!"ADMIN".equals(tokenRole)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "No tienes permisos para eliminar usuarios.");
         }
         userRepository.deleteById(id);
     }
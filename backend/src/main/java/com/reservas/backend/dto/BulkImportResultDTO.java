@@ -0,0 +1,20 @@
+package com.reservas.backend.dto;
+
+import java.util.List;
+
+public class BulkImportResultDTO {
+    private int imported;
+    private List<String> skipped; // Motivo por cada fila no importada
+
+    public BulkImportResultDTO(int imported, List<String> skipped) {
+        this.imported = imported;
+        this.skipped = skipped;
+    }
+
+    // Getters y Setters
+    public int getImported() { return imported; }
+    public void setImported(int imported) { this.imported = imported; }
+
+    public List<String> getSkipped() { return skipped; }
+    public void setSkipped(List<String> skipped) { this.skipped = skipped; }
+}
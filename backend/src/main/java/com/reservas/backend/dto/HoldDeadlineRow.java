@@ -0,0 +1,11 @@
+package com.reservas.backend.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.UUID;
+
+/** Hold del checkout PENDING sin pago: lo necesario para vencerlo y avisar a su ventana */
+public record HoldDeadlineRow(UUID id, UUID courtId, LocalDate date, LocalTime startTime, LocalTime endTime,
+                              LocalDateTime holdExpiresAt) {
+}
@@ -2,7 +2,11 @@ package com.reservas.backend.dto;
 
 public class JwtResponse {
     private String token;
+    private String refreshToken;
     public JwtResponse(String token) { this.token = token; }
+    public JwtResponse(String token, String refreshToken) { this.token = token; this.refreshToken = refreshToken; }
     public String getToken() { return token; }
     public void setToken(String token) { this.token = token; }
+    public String getRefreshToken() { return refreshToken; }
+    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
 }
@@ -0,0 +1,74 @@
+package com.reservas.backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.UUID;
+
+import com.reservas.backend.model.PaymentMethod;
+
+/** Fila de exportación contable: pago junto con su reserva, cancha y usuario */
+public class PaymentExportRow {
+    private Long paymentId;
+    private BigDecimal amount;
+    private String method;
+    private String paymentStatus;
+    private LocalDateTime paymentDate;
+    private String customerName;
+    private String customerEmail;
+    private String customerPhone;
+    private UUID reservationId;
+    private String reservationCode;
+    private LocalDate reservationDate;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private String reservationStatus;
+    private String courtCode;
+    private String courtName;
+    private Long userId;
+
+    // Usado por la consulta JPQL (SELECT new ...) de PaymentRepository
+    public PaymentExportRow(Long paymentId, BigDecimal amount, PaymentMethod method, String paymentStatus,
+                            LocalDateTime paymentDate, String customerName, String customerEmail,
+                            String customerPhone, UUID reservationId, String reservationCode,
+                            LocalDate reservationDate, LocalTime startTime, LocalTime endTime,
+                            String reservationStatus, String courtCode, String courtName, Long userId) {
+        this.paymentId = paymentId;
+        this.amount = amount;
+        this.method = method != null ? method.name() : null;
+        this.paymentStatus = paymentStatus;
+        this.paymentDate = paymentDate;
+        this.customerName = customerName;
+        this.customerEmail = customerEmail;
+        this.customerPhone = customerPhone;
+        this.reservationId = reservationId;
+        this.reservationCode = reservationCode;
+        this.reservationDate = reservationDate;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.reservationStatus = reservationStatus;
+        this.courtCode = courtCode;
+        this.courtName = courtName;
+        this.userId = userId;
+    }
+
+    // Getters
+    public Long getPaymentId() { return paymentId; }
+    public BigDecimal getAmount() { return amount; }
+    public String getMethod() { return method; }
+    public String getPaymentStatus() { return paymentStatus; }
+    public LocalDateTime getPaymentDate() { return paymentDate; }
+    public String getCustomerName() { return customerName; }
+    public String getCustomerEmail() { return customerEmail; }
+    public String getCustomerPhone() { return customerPhone; }
+    public UUID getReservationId() { return reservationId; }
+    public String getReservationCode() { return reservationCode; }
+    public LocalDate getReservationDate() { return reservationDate; }
+    public LocalTime getStartTime() { return startTime; }
+    public LocalTime getEndTime() { return endTime; }
+    public String getReservationStatus() { return reservationStatus; }
+    public String getCourtCode() { return courtCode; }
+    public String getCourtName() { return courtName; }
+    public Long getUserId() { return userId; }
+}
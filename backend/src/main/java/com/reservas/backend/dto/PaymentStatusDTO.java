@@ -0,0 +1,36 @@
+package com.reservas.backend.dto;
+
+import java.util.UUID;
+
+/** Estado del cobro de una reserva, para consultar mientras la pasarela procesa el pago */
+public class PaymentStatusDTO {
+    private UUID reservationId;
+    private Long paymentId;
+    private String status;      // PENDING, CONFIRMED, FAILED, REFUND_PENDING, REFUNDED
+    private String message;     // motivo del rechazo, la falla o el reembolso
+    private InvoiceDTO invoice; // solo CONFIRMED
+
+    public PaymentStatusDTO(UUID reservationId, Long paymentId, String status, String message, InvoiceDTO invoice) {
+        this.reservationId = reservationId;
+        this.paymentId = paymentId;
+        this.status = status;
+        this.message = message;
+        this.invoice = invoice;
+    }
+
+    // Getters y Setters
+    public UUID getReservationId() { return reservationId; }
+    public void setReservationId(UUID reservationId) { this.reservationId = reservationId; }
+
+    public Long getPaymentId() { return paymentId; }
+    public void setPaymentId(Long paymentId) { this.paymentId = paymentId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public InvoiceDTO getInvoice() { return invoice; }
+    public void setInvoice(InvoiceDTO invoice) { this.invoice = invoice; }
+}
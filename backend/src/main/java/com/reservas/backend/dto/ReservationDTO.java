@@ -30,6 +30,25 @@ public class ReservationDTO {
         // Constructor vacío necesario para Jackson u otros frameworks
     }
 
+    // Usado por las consultas JPQL (SELECT new ...) que traen cancha y usuario en un solo JOIN
+    public ReservationDTO(UUID id, String code, LocalDate date, LocalTime startTime, LocalTime endTime,
+                          String status, UUID courtId, String courtCode, String courtName,
+                          BigDecimal pricePerHour, Long userId, String userFirstName, String userLastName) {
+        this.id = id;
+        this.code = code;
+        this.date = date;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.status = status;
+        this.courtId = courtId;
+        this.courtCode = courtCode;
+        this.courtName = courtName;
+        this.pricePerHour = pricePerHour;
+        this.userId = userId;
+        this.userFullName = (userFirstName != null ? userFirstName : "") + " " + (userLastName != null ? userLastName : "");
+        this.totalPrice = calculateTotalPrice();
+    }
+
     public ReservationDTO(Reservation reservation) {
         this.id = reservation.getId();
         this.code = reservation.getCode();
@@ -56,6 +75,29 @@ public class ReservationDTO {
         this.totalPrice = calculateTotalPrice();
     }
 
+    /**
+     * Vista de una reserva recién creada sin inicializar sus referencias a cancha y usuario:
+     * la cancha sale del catálogo en memoria y el nombre del usuario de una proyección por PK,
+     * así la creación no carga entidades además del INSERT.
+     */
+    public static ReservationDTO ofNew(Reservation reservation, CourtDTO court, Long userId, String userFullName) {
+        ReservationDTO dto = new ReservationDTO();
+        dto.id = reservation.getId();
+        dto.code = reservation.getCode();
+        dto.date = reservation.getDate();
+        dto.startTime = reservation.getStartTime();
+        dto.endTime = reservation.getEndTime();
+        dto.status = reservation.getStatus();
+        dto.courtId = court.getId();
+        dto.courtCode = court.getCode();
+        dto.courtName = court.getName();
+        dto.pricePerHour = court.getPricePerHour();
+        dto.userId = userId;
+        dto.userFullName = userFullName;
+        dto.totalPrice = dto.calculateTotalPrice();
+        return dto;
+    }
+
     private BigDecimal calculateTotalPrice() {
         if (startTime == null || endTime == null || pricePerHour == null) return BigDecimal.ZERO;
         long minutes = Duration.between(startTime, endTime).toMinutes();
@@ -0,0 +1,20 @@
+package com.reservas.backend.dto;
+
+import java.util.List;
+
+public class ReservationPageDTO {
+    private List<ReservationDTO> items;
+    private String nextCursor; // null si no hay más resultados
+
+    public ReservationPageDTO(List<ReservationDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters y Setters
+    public List<ReservationDTO> getItems() { return items; }
+    public void setItems(List<ReservationDTO> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
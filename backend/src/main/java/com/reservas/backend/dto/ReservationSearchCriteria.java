@@ -0,0 +1,39 @@
+package com.reservas.backend.dto;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public class ReservationSearchCriteria {
+    private LocalDate from;
+    private LocalDate to;
+    private String status;
+    private UUID courtId;
+    private Long userId;
+    private String codePrefix;
+    private String sort = "date";   // "date" (fecha, hora de inicio) o "code"
+    private String direction = "asc";
+    private Integer size;
+    private String cursor;         // token opaco devuelto en la página anterior
+
+    // Getters y setters
+    public LocalDate getFrom() { return from; }
+    public void setFrom(LocalDate from) { this.from = from; }
+    public LocalDate getTo() { return to; }
+    public void setTo(LocalDate to) { this.to = to; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public UUID getCourtId() { return courtId; }
+    public void setCourtId(UUID courtId) { this.courtId = courtId; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public String getCodePrefix() { return codePrefix; }
+    public void setCodePrefix(String codePrefix) { this.codePrefix = codePrefix; }
+    public String getSort() { return sort; }
+    public void setSort(String sort) { this.sort = sort; }
+    public String getDirection() { return direction; }
+    public void setDirection(String direction) { this.direction = direction; }
+    public Integer getSize() { return size; }
+    public void setSize(Integer size) { this.size = size; }
+    public String getCursor() { return cursor; }
+    public void setCursor(String cursor) { this.cursor = cursor; }
+}
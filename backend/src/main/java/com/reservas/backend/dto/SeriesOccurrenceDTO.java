@@ -0,0 +1,31 @@
+package com.reservas.backend.dto;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public class SeriesOccurrenceDTO {
+    private LocalDate date;
+    private String result;      // "BOOKED" o "CONFLICT"
+    private UUID reservationId; // Solo si se reservó
+    private String code;        // Solo si se reservó
+
+    public SeriesOccurrenceDTO(LocalDate date, String result, UUID reservationId, String code) {
+        this.date = date;
+        this.result = result;
+        this.reservationId = reservationId;
+        this.code = code;
+    }
+
+    // Getters y Setters
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+
+    public String getResult() { return result; }
+    public void setResult(String result) { this.result = result; }
+
+    public UUID getReservationId() { return reservationId; }
+    public void setReservationId(UUID reservationId) { this.reservationId = reservationId; }
+
+    public String getCode() { return code; }
+    public void setCode(String code) { this.code = code; }
+}
@@ -0,0 +1,44 @@
+package com.reservas.backend.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class SeriesReservationRequest {
+
+    private Long userId;
+    private UUID courtId;
+    private LocalDate startDate;          // Primera ocurrencia
+    private LocalDate endDate;            // Última fecha posible (inclusive)
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private String frequency = "WEEKLY";  // "WEEKLY" o "BIWEEKLY"
+    private List<LocalDate> exceptions = new ArrayList<>(); // Fechas a omitir (feriados, etc.)
+
+    // Getters y Setters
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public UUID getCourtId() { return courtId; }
+    public void setCourtId(UUID courtId) { this.courtId = courtId; }
+
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+
+    public LocalDate getEndDate() { return endDate; }
+    public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+
+    public LocalTime getStartTime() { return startTime; }
+    public void setStartTime(LocalTime startTime) { this.startTime = startTime; }
+
+    public LocalTime getEndTime() { return endTime; }
+    public void setEndTime(LocalTime endTime) { this.endTime = endTime; }
+
+    public String getFrequency() { return frequency; }
+    public void setFrequency(String frequency) { this.frequency = frequency; }
+
+    public List<LocalDate> getExceptions() { return exceptions; }
+    public void setExceptions(List<LocalDate> exceptions) { this.exceptions = exceptions; }
+}
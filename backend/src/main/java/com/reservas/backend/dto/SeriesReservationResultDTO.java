@@ -0,0 +1,25 @@
+package com.reservas.backend.dto;
+
+import java.util.List;
+
+public class SeriesReservationResultDTO {
+    private int booked;
+    private int conflicts;
+    private List<SeriesOccurrenceDTO> occurrences;
+
+    public SeriesReservationResultDTO(List<SeriesOccurrenceDTO> occurrences) {
+        this.occurrences = occurrences;
+        this.booked = (int) occurrences.stream().filter(o -> "BOOKED".equals(o.getResult())).count();
+        this.conflicts = occurrences.size() - booked;
+    }
+
+    // Getters y Setters
+    public int getBooked() { return booked; }
+    public void setBooked(int booked) { this.booked = booked; }
+
+    public int getConflicts() { return conflicts; }
+    public void setConflicts(int conflicts) { this.conflicts = conflicts; }
+
+    public List<SeriesOccurrenceDTO> getOccurrences() { return occurrences; }
+    public void setOccurrences(List<SeriesOccurrenceDTO> occurrences) { this.occurrences = occurrences; }
+}
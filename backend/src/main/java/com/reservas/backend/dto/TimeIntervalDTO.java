@@ -0,0 +1,27 @@
+package com.reservas.backend.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+public class TimeIntervalDTO {
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    public TimeIntervalDTO(LocalDateTime start, LocalDateTime end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    // Usado por las consultas JPQL (SELECT new ...) sobre reservas
+    public TimeIntervalDTO(LocalDate date, LocalTime startTime, LocalTime endTime) {
+        this(date.atTime(startTime), date.atTime(endTime));
+    }
+
+    // Getters y Setters
+    public LocalDateTime getStart() { return start; }
+    public void setStart(LocalDateTime start) { this.start = start; }
+
+    public LocalDateTime getEnd() { return end; }
+    public void setEnd(LocalDateTime end) { this.end = end; }
+}
@@ -0,0 +1,23 @@
+package com.reservas.backend.dto;
+
+/** Entrada liviana para selectores: solo id, nombre visible y email */
+public class UserLookupDTO {
+    private Long id;
+    private String displayName;
+    private String email;
+
+    public UserLookupDTO(Long id, String firstName, String lastName, String email) {
+        this.id = id;
+        this.displayName = firstName + " " + lastName;
+        this.email = email;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getDisplayName() { return displayName; }
+    public void setDisplayName(String displayName) { this.displayName = displayName; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+}
@@ -0,0 +1,20 @@
+package com.reservas.backend.dto;
+
+import java.util.List;
+
+public class UserPageDTO {
+    private List<UserDTO> items;
+    private String nextCursor; // null si no hay más resultados
+
+    public UserPageDTO(List<UserDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters y Setters
+    public List<UserDTO> getItems() { return items; }
+    public void setItems(List<UserDTO> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,21 @@
+package com.reservas.backend.dto;
+
+public class UserSearchCriteria {
+    private String query;    // prefijo de nombre, apellido o email
+    private String role;
+    private String status;
+    private Integer size;
+    private String cursor;   // token opaco devuelto en la página anterior
+
+    // Getters y setters
+    public String getQuery() { return query; }
+    public void setQuery(String query) { this.query = query; }
+    public String getRole() { return role; }
+    public void setRole(String role) { this.role = role; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public Integer getSize() { return size; }
+    public void setSize(Integer size) { this.size = size; }
+    public String getCursor() { return cursor; }
+    public void setCursor(String cursor) { this.cursor = cursor; }
+}
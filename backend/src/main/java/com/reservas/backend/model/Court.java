@@ -6,15 +6,18 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 
+import com.reservas.backend.service.CodeAssignmentListener;
+
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
-import jakarta.persistence.PrePersist;
 
 @Entity
+@EntityListeners(CodeAssignmentListener.class)
 public class Court {
 
     @Id
@@ -22,7 +25,7 @@ public class Court {
     private UUID id; // ID único alfanumérico
 
     @Column(nullable = false, unique = true, length = 10)
-    private String code; // Código legible (ej: C-AB12CD34)
+    private String code; // Código legible (ej: C-0Q3ZK81~), lo asigna CodeAssignmentListener
 
     @Column(nullable = false)
     private String name;
@@ -47,13 +50,6 @@ public class Court {
         this.pricePerHour = pricePerHour;
     }
 
-    @PrePersist
-    public void generateCode() {
-        if (this.code == null) {
-            this.code = "C-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        }
-    }
-
     // Getters y Setters
     public UUID getId() { return id; }
     public void setId(UUID id) { this.id = id; }
@@ -0,0 +1,66 @@
+package com.reservas.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/** Resultado de una solicitud con Idempotency-Key (ver IdempotencyService) */
+@Entity
+@Table(name = "idempotency_key")
+public class IdempotencyRecord {
+
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String COMPLETED = "COMPLETED";
+
+    @Id
+    @Column(length = 320)
+    private String id; // alcance + ":" + clave enviada por el cliente
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash; // SHA-256 del cuerpo: la misma clave con otro cuerpo se rechaza
+
+    @Column(nullable = false, length = 16)
+    private String status;
+
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(length = 512)
+    private String location;
+
+    @Column(name = "response_body", columnDefinition = "text")
+    private String responseBody;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public IdempotencyRecord() {}
+
+    public IdempotencyRecord(String id, String requestHash, LocalDateTime expiresAt) {
+        this.id = id;
+        this.requestHash = requestHash;
+        this.status = IN_PROGRESS;
+        this.expiresAt = expiresAt;
+    }
+
+    public void complete(int responseStatus, String contentType, String location, String responseBody,
+                         LocalDateTime expiresAt) {
+        this.status = COMPLETED;
+        this.responseStatus = responseStatus;
+        this.contentType = contentType;
+        this.location = location;
+        this.responseBody = responseBody;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getId() { return id; }
+    public String getRequestHash() { return requestHash; }
+    public String getStatus() { return status; }
+    public Integer getResponseStatus() { return responseStatus; }
+    public String getContentType() { return contentType; }
+    public String getLocation() { return location; }
+    public String getResponseBody() { return responseBody; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+}
@@ -8,7 +8,8 @@ import java.time.LocalDateTime;
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_seq")
+    @SequenceGenerator(name = "payment_seq", sequenceName = "payment_seq", allocationSize = 50)
     private Long id;
 
     private BigDecimal amount;
@@ -16,7 +17,7 @@ public class Payment {
     @Enumerated(EnumType.STRING)
     private PaymentMethod method;
 
-    private String status; // PENDING, CONFIRMED, FAILED
+    private String status; // PENDING, CONFIRMED, FAILED, REFUND_PENDING, REFUNDED (PaymentProcessingService)
 
     private LocalDateTime paymentDate;
 
@@ -28,6 +29,20 @@ public class Payment {
     @JoinColumn(name = "reservation_id")
     private Reservation reservation;
 
+    // SHA-256 del documento de factura generado (InvoiceDocumentService); null mientras se genera
+    @Column(name = "invoice_hash", length = 64)
+    private String invoiceHash;
+
+    @Column(name = "gateway_reference", length = 100)
+    private String gatewayReference;
+
+    @Column(name = "failure_reason")
+    private String failureReason;
+
+    // Intento de cobro: cada reintento tras un rechazo usa una referencia nueva en la pasarela
+    @Column(name = "charge_attempt", nullable = false)
+    private int chargeAttempt = 1;
+
     public Payment() {}
 
     public Payment(BigDecimal amount, PaymentMethod method, Reservation reservation,
@@ -59,4 +74,11 @@ public class Payment {
     public void setCustomerPhone(String customerPhone) { this.customerPhone = customerPhone; }
     public Reservation getReservation() { return reservation; }
     public void setReservation(Reservation reservation) { this.reservation = reservation; }
+    public String getInvoiceHash() { return invoiceHash; }
+    public String getGatewayReference() { return gatewayReference; }
+    public void setGatewayReference(String gatewayReference) { this.gatewayReference = gatewayReference; }
+    public String getFailureReason() { return failureReason; }
+    public void setFailureReason(String failureReason) { this.failureReason = failureReason; }
+    public int getChargeAttempt() { return chargeAttempt; }
+    public void setChargeAttempt(int chargeAttempt) { this.chargeAttempt = chargeAttempt; }
 }
@@ -0,0 +1,47 @@
+package com.reservas.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/** Refresh token de un solo uso; se guarda el hash, nunca el valor entregado al cliente */
+@Entity
+@Table(name = "refresh_token")
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_token_seq")
+    @SequenceGenerator(name = "refresh_token_seq", sequenceName = "refresh_token_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private String email;
+
+    @Column(nullable = false)
+    private String role;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public RefreshToken() {}
+
+    public RefreshToken(String tokenHash, Long userId, String email, String role, LocalDateTime expiresAt) {
+        this.tokenHash = tokenHash;
+        this.userId = userId;
+        this.email = email;
+        this.role = role;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() { return id; }
+    public String getTokenHash() { return tokenHash; }
+    public Long getUserId() { return userId; }
+    public String getEmail() { return email; }
+    public String getRole() { return role; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+}
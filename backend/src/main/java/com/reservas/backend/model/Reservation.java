@@ -1,12 +1,16 @@
 package com.reservas.backend.model;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Objects;
 import java.util.UUID;
 
+import com.reservas.backend.service.CodeAssignmentListener;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
@@ -14,13 +18,14 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 
 @Entity
+@EntityListeners(CodeAssignmentListener.class)
 public class Reservation {
 
     @Id
     private UUID id; // ID interno único
 
     @Column(nullable = false, unique = true, length = 10)
-    private String code; // Código legible de reserva (ej: R-AB12CD34)
+    private String code; // Código legible de reserva (ej: R-4K7QZ2M*), lo asigna CodeAssignmentListener
 
     @Column(nullable = false)
     private LocalDate date;
@@ -33,6 +38,12 @@ public class Reservation {
 
     private String status = "PENDING"; // "PENDING", "CONFIRMED", "CANCELLED"
 
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "hold_expires_at")
+    private LocalDateTime holdExpiresAt; // Solo reservas del checkout del cliente: plazo de pago (HoldExpiryService)
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -56,8 +67,8 @@ public class Reservation {
         if (this.id == null) {
             this.id = UUID.randomUUID(); // UUID interno
         }
-        if (this.code == null) {
-            this.code = "R-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase(); // Código legible
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
         }
     }
 
@@ -77,6 +88,11 @@ public class Reservation {
     public LocalTime getEndTime() { return endTime; }
     public void setEndTime(LocalTime endTime) { this.endTime = endTime; }
 
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public LocalDateTime getHoldExpiresAt() { return holdExpiresAt; }
+    public void setHoldExpiresAt(LocalDateTime holdExpiresAt) { this.holdExpiresAt = holdExpiresAt; }
+
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
 
@@ -1,12 +1,57 @@
 package com.reservas.backend.repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import com.reservas.backend.dto.PaymentExportRow;
 import com.reservas.backend.model.Payment;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findByReservationId(UUID reservationId);
+
+    // El resultado de la pasarela se aplica una sola vez aunque dos réplicas procesen el mismo pago
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.id = :id")
+    Optional<Payment> lockById(@Param("id") Long id);
+
+    // Cobros sin resultado conocido (PENDING) o reembolsos por hacer (REFUND_PENDING); índice parcial payment_unresolved_idx
+    @Query("SELECT p.id FROM Payment p WHERE p.status = :status ORDER BY p.id")
+    List<Long> findIdsByStatus(@Param("status") String status);
+
+    // Pago junto con su reserva, cancha y usuario en un solo JOIN
+    String EXPORT_SELECT = "SELECT new com.reservas.backend.dto.PaymentExportRow(" +
+                           "p.id, p.amount, p.method, p.status, p.paymentDate, p.customerName, p.customerEmail, p.customerPhone, " +
+                           "r.id, r.code, r.date, r.startTime, r.endTime, r.status, c.code, c.name, u.id) " +
+                           "FROM Payment p LEFT JOIN p.reservation r LEFT JOIN r.court c LEFT JOIN r.user u ";
+
+    // Exportación: cursor del lado del servidor (fetch size), sin entidades en el contexto de persistencia
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(EXPORT_SELECT + "ORDER BY p.id")
+    Stream<PaymentExportRow> streamAllForExport();
+
+    // Datos de un pago para generar su factura
+    @Query(EXPORT_SELECT + "WHERE p.id = :id")
+    Optional<PaymentExportRow> findInvoiceRow(@Param("id") Long id);
+
+    // Pagos confirmados cuya factura aún no se generó (índice parcial payment_invoice_pending_idx)
+    @Query("SELECT p.id FROM Payment p WHERE p.status = 'CONFIRMED' AND p.invoiceHash IS NULL ORDER BY p.id")
+    List<Long> findPendingInvoices(Limit limit);
+
+    @Modifying
+    @Query("UPDATE Payment p SET p.invoiceHash = :hash WHERE p.id = :id")
+    int setInvoiceHash(@Param("id") Long id, @Param("hash") String hash);
 }
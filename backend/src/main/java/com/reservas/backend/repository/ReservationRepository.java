@@ -1,23 +1,87 @@
 package com.reservas.backend.repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.reservas.backend.dto.HoldDeadlineRow;
+import com.reservas.backend.dto.ReservationDTO;
+import com.reservas.backend.dto.TimeIntervalDTO;
 import com.reservas.backend.model.Reservation;
 import com.reservas.backend.model.User;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
-public interface ReservationRepository extends JpaRepository<Reservation, UUID> {
+public interface ReservationRepository extends JpaRepository<Reservation, UUID>,
+                                               JpaSpecificationExecutor<Reservation> {
+
+    // Proyección a ReservationDTO con cancha y usuario en el mismo JOIN (una sola sentencia por listado)
+    String DTO_SELECT = "SELECT new com.reservas.backend.dto.ReservationDTO(" +
+                        "r.id, r.code, r.date, r.startTime, r.endTime, r.status, " +
+                        "c.id, c.code, c.name, c.pricePerHour, u.id, u.firstName, u.lastName) " +
+                        "FROM Reservation r JOIN r.court c JOIN r.user u ";
+
+    @Query(DTO_SELECT + "ORDER BY r.date, r.startTime")
+    List<ReservationDTO> findAllDetails();
+
+    // Exportación: cursor del lado del servidor (fetch size), sin entidades en el contexto de persistencia
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(DTO_SELECT + "ORDER BY r.date, r.startTime, r.id")
+    Stream<ReservationDTO> streamAllDetails();
+
+    @Query(DTO_SELECT + "WHERE c.id = :courtId AND r.date = :date ORDER BY r.startTime")
+    List<ReservationDTO> findDetailsByCourtIdAndDate(@Param("courtId") UUID courtId,
+                                                     @Param("date") LocalDate date);
+
+    @Query(DTO_SELECT + "WHERE u.id = :userId ORDER BY r.date, r.startTime")
+    List<ReservationDTO> findDetailsByUserId(@Param("userId") Long userId);
+
+    @Query(DTO_SELECT + "WHERE r.id = :id")
+    Optional<ReservationDTO> findDetailById(@Param("id") UUID id);
 
     List<Reservation> findByCourtIdAndDate(UUID courtId, LocalDate date);
 
+    // Reservas del día con cancha y usuario ya cargados (para armar DTOs sin N+1)
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.court JOIN FETCH r.user " +
+           "WHERE r.court.id = :courtId AND r.date = :date " +
+           "ORDER BY r.startTime")
+    List<Reservation> findWithDetailsByCourtIdAndDate(@Param("courtId") UUID courtId,
+                                                      @Param("date") LocalDate date);
+
+    // Sin open-in-view la sesión se cierra al volver del repositorio: cancha y usuario van en el JOIN
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.court JOIN FETCH r.user WHERE r.id = :id")
+    Optional<Reservation> findWithDetailsById(@Param("id") UUID id);
+
+    // Horarios ocupados (no cancelados) de la cancha en el rango, ordenados para recorrerlos en una pasada
+    @Query("SELECT new com.reservas.backend.dto.TimeIntervalDTO(r.date, r.startTime, r.endTime) " +
+           "FROM Reservation r " +
+           "WHERE r.court.id = :courtId " +
+           "AND r.date BETWEEN :from AND :to " +
+           "AND r.status <> 'CANCELLED' " +
+           "ORDER BY r.date, r.startTime")
+    List<TimeIntervalDTO> findOccupiedIntervals(@Param("courtId") UUID courtId,
+                                                @Param("from") LocalDate from,
+                                                @Param("to") LocalDate to);
+
     List<Reservation> findByUserId(Long userId);
 
     List<Reservation> findByUser(User user);
@@ -32,8 +96,47 @@ public interface ReservationRepository extends JpaRepository<Reservation, UUID>
                                         @Param("startTime") LocalTime startTime,
                                         @Param("endTime") LocalTime endTime);
 
+    // Bloque de reservas PENDING ya terminadas; SKIP LOCKED (timeout -2) evita choques entre réplicas
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT r.id FROM Reservation r WHERE r.status = 'PENDING' " +
+           "AND (r.date < :today OR (r.date = :today AND r.endTime < :now))")
+    List<UUID> lockElapsedPending(@Param("today") LocalDate today,
+                                  @Param("now") LocalTime now,
+                                  Limit limit);
+
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = 'FINISHED' WHERE r.id IN :ids")
+    int finishByIds(@Param("ids") Collection<UUID> ids);
+
     boolean existsByUserAndStatus(User user, String status);
 
-    // Nuevo método para validar que el código no se repita
-    boolean existsByCode(String code);
+    // Holds: reservas del checkout (con hold_expires_at) PENDING sin pago en curso ni confirmado
+    // (índice parcial reservation_hold_expiry_idx); un pago FAILED no retiene el horario
+    String HOLD_SELECT = "SELECT new com.reservas.backend.dto.HoldDeadlineRow(" +
+                         "r.id, r.court.id, r.date, r.startTime, r.endTime, r.holdExpiresAt) " +
+                         "FROM Reservation r WHERE r.status = 'PENDING' AND r.holdExpiresAt IS NOT NULL " +
+                         "AND NOT EXISTS (SELECT p.id FROM Payment p WHERE p.reservation = r AND p.status <> 'FAILED') ";
+
+    @Query(HOLD_SELECT)
+    List<HoldDeadlineRow> findUnpaidHolds();
+
+    @Query(HOLD_SELECT + "AND r.id = :id")
+    Optional<HoldDeadlineRow> findUnpaidHold(@Param("id") UUID id);
+
+    @Query(HOLD_SELECT + "AND r.holdExpiresAt < :now")
+    List<HoldDeadlineRow> findExpiredUnpaidHolds(@Param("now") LocalDateTime now);
+
+    // Pago de una reserva: serializa con otro pago simultáneo y con el vencimiento del hold
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Reservation r WHERE r.id = :id")
+    Optional<Reservation> lockById(@Param("id") UUID id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(HOLD_SELECT + "AND r.id IN :ids")
+    List<HoldDeadlineRow> lockUnpaidHolds(@Param("ids") Collection<UUID> ids);
+
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = 'CANCELLED' WHERE r.id IN :ids")
+    int cancelByIds(@Param("ids") Collection<UUID> ids);
 }
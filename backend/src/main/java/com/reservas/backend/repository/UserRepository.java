@@ -1,13 +1,36 @@
 package com.reservas.backend.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.reservas.backend.dto.UserLookupDTO;
 import com.reservas.backend.model.User;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
     Optional<User> findByEmail(String email);
+
+    /** Cuáles de estos emails ya están registrados (una consulta por bloque en importaciones) */
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // Selectores: proyección directa, sin entidades ni roles
+    @Query("SELECT new com.reservas.backend.dto.UserLookupDTO(u.id, u.firstName, u.lastName, u.email) " +
+           "FROM User u " +
+           "WHERE lower(u.firstName) LIKE :prefix ESCAPE '\\' OR lower(u.lastName) LIKE :prefix ESCAPE '\\' " +
+           "OR lower(u.email) LIKE :prefix ESCAPE '\\' " +
+           "ORDER BY u.lastName, u.id")
+    List<UserLookupDTO> lookup(@Param("prefix") String prefix, Limit limit);
+
+    /** Nombre completo por PK (dos columnas, sin entidad ni roles) para la respuesta de una reserva nueva */
+    @Query("SELECT concat(coalesce(u.firstName, ''), ' ', coalesce(u.lastName, '')) FROM User u WHERE u.id = :id")
+    Optional<String> findFullNameById(@Param("id") Long id);
 }
@@ -0,0 +1,60 @@
+package com.reservas.backend.security;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Verifica el token {@code Authorization: Bearer ...} y deja sus datos como atributos de la
+ * petición, para leerlos con {@code @RequestAttribute(JwtAuthenticationFilter.USER_ID)} etc.
+ *
+ * Sin cabecera la petición sigue igual (los endpoints públicos no cambian); con un token
+ * inválido o vencido se responde 401.
+ */
+@Component
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String CLAIMS = "auth.claims";
+    public static final String USER_ID = "auth.userId";
+    public static final String ROLE = "auth.role";
+
+    private static final String BEARER = "Bearer ";
+
+    private final TokenService tokenService;
+
+    public JwtAuthenticationFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        TokenClaims claims;
+        try {
+            claims = tokenService.verify(header.substring(BEARER.length()).trim());
+        } catch (JwtException | IllegalArgumentException e) {
+            response.sendError(HttpStatus.UNAUTHORIZED.value(), "Token inválido o expirado");
+            return;
+        }
+
+        request.setAttribute(CLAIMS, claims);
+        request.setAttribute(USER_ID, claims.userId());
+        request.setAttribute(ROLE, claims.role());
+        chain.doFilter(request, response);
+    }
+}
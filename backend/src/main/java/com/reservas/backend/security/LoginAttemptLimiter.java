@@ -0,0 +1,114 @@
+package com.reservas.backend.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Límite de intentos de autenticación por email y por IP con ventana deslizante, en memoria.
+ *
+ * Cada clave guarda dos contadores (ventana actual y anterior); la estimación pondera la
+ * anterior según cuánto falta para que salga de la ventana. Es O(1) en memoria por clave y
+ * las claves inactivas se eliminan periódicamente.
+ */
+@Service
+public class LoginAttemptLimiter {
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final long windowMs;
+    private final int maxPerEmail;
+    private final int maxPerIp;
+    private final Counter emailThrottled;
+    private final Counter ipThrottled;
+
+    public LoginAttemptLimiter(MeterRegistry meterRegistry,
+                               @Value("${reservas.auth.window-seconds:60}") long windowSeconds,
+                               @Value("${reservas.auth.max-attempts-per-email:5}") int maxPerEmail,
+                               @Value("${reservas.auth.max-attempts-per-ip:30}") int maxPerIp) {
+        this.windowMs = windowSeconds * 1000;
+        this.maxPerEmail = maxPerEmail;
+        this.maxPerIp = maxPerIp;
+        this.emailThrottled = Counter.builder("reservas.auth.throttled").tag("key", "email").register(meterRegistry);
+        this.ipThrottled = Counter.builder("reservas.auth.throttled").tag("key", "ip").register(meterRegistry);
+    }
+
+    /**
+     * Registra un intento si ni el email ni la IP superaron su límite.
+     * Devuelve {@code false} (sin registrar) si alguno lo superó.
+     */
+    public boolean tryAcquire(String email, String ip) {
+        long now = System.currentTimeMillis();
+        if (email != null && estimate("email:" + email, now) >= maxPerEmail) {
+            emailThrottled.increment();
+            return false;
+        }
+        if (ip != null && estimate("ip:" + ip, now) >= maxPerIp) {
+            ipThrottled.increment();
+            return false;
+        }
+        if (email != null) record("email:" + email, now);
+        if (ip != null) record("ip:" + ip, now);
+        return true;
+    }
+
+    /** Un login correcto borra los intentos del email (no los de la IP) */
+    public void onSuccess(String email) {
+        if (email != null) windows.remove("email:" + email);
+    }
+
+    public long getRetryAfterSeconds() {
+        return Math.max(1, windowMs / 1000);
+    }
+
+    @Scheduled(fixedDelayString = "${reservas.auth.window-seconds:60}", timeUnit = TimeUnit.SECONDS)
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        windows.entrySet().removeIf(entry -> now - entry.getValue().start >= 2 * windowMs);
+    }
+
+    private double estimate(String key, long now) {
+        Window window = windows.computeIfPresent(key, (k, w) -> w.roll(now, windowMs));
+        return window == null ? 0 : window.estimate(now, windowMs);
+    }
+
+    private void record(String key, long now) {
+        windows.compute(key, (k, w) -> {
+            Window window = w == null ? new Window(now - now % windowMs) : w.roll(now, windowMs);
+            window.current++;
+            return window;
+        });
+    }
+
+    /** Contadores de la ventana actual y la anterior; solo se modifica dentro de compute() */
+    private static final class Window {
+        private long start;
+        private int previous;
+        private int current;
+
+        private Window(long start) {
+            this.start = start;
+        }
+
+        Window roll(long now, long windowMs) {
+            long elapsedWindows = (now - start) / windowMs;
+            if (elapsedWindows >= 1) {
+                previous = elapsedWindows == 1 ? current : 0;
+                current = 0;
+                start += elapsedWindows * windowMs;
+            }
+            return this;
+        }
+
+        double estimate(long now, long windowMs) {
+            double previousWeight = 1.0 - (double) (now - start) / windowMs;
+            return previous * previousWeight + current;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.reservas.backend.security;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.reservas.backend.config.DaemonPools;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Hash y verificación de contraseñas (BCrypt) en un pool propio y acotado.
+ *
+ * BCrypt tarda decenas de milisegundos de CPU por llamada; hecho en el hilo de la petición,
+ * una ráfaga de logins ocupa todos los hilos de Tomcat y frena las reservas. Aquí se usan
+ * pocos hilos y una cola corta: si la cola está llena la tarea se rechaza de inmediato con
+ * {@link HashingRejectedException} (el controlador responde 429) en lugar de acumular espera.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final ThreadPoolExecutor executor;
+    private final Timer encodeTimer;
+    private final Timer verifyTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashingService(MeterRegistry meterRegistry,
+                                  @Value("${reservas.auth.hash-threads:0}") int threads,
+                                  @Value("${reservas.auth.hash-queue:32}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.executor = DaemonPools.fixed("bcrypt", poolSize, queueCapacity);
+
+        Gauge.builder("reservas.auth.hash.queue", executor, e -> e.getQueue().size())
+                .description("Hashes de contraseña esperando un hilo")
+                .register(meterRegistry);
+        Gauge.builder("reservas.auth.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashes de contraseña en ejecución")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("reservas.auth.hash").tag("op", "encode")
+                .description("Duración de BCrypt (sin la espera en cola)")
+                .register(meterRegistry);
+        this.verifyTimer = Timer.builder("reservas.auth.hash").tag("op", "verify")
+                .description("Duración de BCrypt (sin la espera en cola)")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("reservas.auth.hash.rejected")
+                .description("Hashes rechazados por cola llena")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(verifyTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(() -> timer.record(work), executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new HashingRejectedException();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** La cola de hashing está llena; el llamador debe responder 429 */
+    public static class HashingRejectedException extends RuntimeException {
+        public HashingRejectedException() {
+            super("Demasiados inicios de sesión en curso, intenta nuevamente en unos segundos.");
+        }
+    }
+}
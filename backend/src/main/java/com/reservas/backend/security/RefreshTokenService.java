@@ -0,0 +1,116 @@
+package com.reservas.backend.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.reservas.backend.dto.JwtResponse;
+import com.reservas.backend.model.RefreshToken;
+import com.reservas.backend.model.User;
+import com.reservas.backend.repository.RefreshTokenRepository;
+
+/**
+ * Refresh tokens opacos y de un solo uso.
+ *
+ * Al cliente se le entrega un valor aleatorio de 256 bits; en la base solo queda su SHA-256
+ * (índice único), junto con el id, email y rol del usuario. Renovar es una búsqueda por ese
+ * índice y un DELETE: no hay BCrypt ni lectura de la fila de users. Cada uso entrega un par
+ * nuevo (rotación), y un token ya usado o revocado deja de servir.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final SecureRandom random = new SecureRandom();
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenService tokenService;
+    private final Duration lifetime;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               TokenService tokenService,
+                               @Value("${reservas.auth.refresh-days:30}") long refreshDays) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.tokenService = tokenService;
+        this.lifetime = Duration.ofDays(refreshDays);
+    }
+
+    /** Par access + refresh después de un login o registro correcto */
+    @Transactional
+    public JwtResponse issue(User user) {
+        String role = TokenService.roleOf(user);
+        return new JwtResponse(tokenService.createToken(user.getId(), user.getEmail(), role),
+                               newRefreshToken(user.getId(), user.getEmail(), role));
+    }
+
+    /**
+     * Consume el refresh token y entrega un par nuevo.
+     * Lanza {@link InvalidRefreshTokenException} si no existe, ya se usó o venció.
+     */
+    @Transactional
+    public JwtResponse refresh(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) throw new InvalidRefreshTokenException();
+
+        RefreshToken stored = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(InvalidRefreshTokenException::new);
+        // Otra petición concurrente pudo consumirlo entre la búsqueda y el borrado
+        if (refreshTokenRepository.consume(stored.getId()) == 0
+                || !stored.getExpiresAt().isAfter(LocalDateTime.now())) {
+            throw new InvalidRefreshTokenException();
+        }
+
+        return new JwtResponse(tokenService.createToken(stored.getUserId(), stored.getEmail(), stored.getRole()),
+                               newRefreshToken(stored.getUserId(), stored.getEmail(), stored.getRole()));
+    }
+
+    /** Cierra todas las sesiones del usuario (los access tokens vigentes vencen solos) */
+    @Transactional
+    public int revokeAll(Long userId) {
+        return refreshTokenRepository.deleteByUser(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${reservas.auth.refresh-sweep-ms:3600000}",
+               initialDelayString = "${reservas.auth.refresh-sweep-ms:3600000}")
+    @Transactional
+    public void sweepExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("{} refresh tokens vencidos eliminados", deleted);
+        }
+    }
+
+    private String newRefreshToken(Long userId, String email, String role) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String raw = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(new RefreshToken(hash(raw), userId, email, role, LocalDateTime.now().plus(lifetime)));
+        return raw;
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static class InvalidRefreshTokenException extends RuntimeException {
+        public InvalidRefreshTokenException() {
+            super("Refresh token inválido o expirado");
+        }
+    }
+}
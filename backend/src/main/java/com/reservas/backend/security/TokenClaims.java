@@ -0,0 +1,11 @@
+package com.reservas.backend.security;
+
+import java.time.Instant;
+
+/** Datos del usuario autenticado tomados de un JWT ya verificado */
+public record TokenClaims(Long userId, String email, String role, Instant expiresAt) {
+
+    boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
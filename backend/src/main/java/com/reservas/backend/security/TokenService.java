@@ -0,0 +1,147 @@
+package com.reservas.backend.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.crypto.SecretKey;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.reservas.backend.model.User;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Emisión y verificación de los JWT de sesión (HS256) con un anillo de claves.
+ *
+ * {@code reservas.jwt.keys} lista las claves como {@code kid:base64,kid:base64}; los tokens se
+ * firman con {@code reservas.jwt.active-kid} y llevan el kid en la cabecera, así que para rotar
+ * se agrega la clave nueva, se la marca activa y la anterior se quita cuando vencen sus tokens.
+ * Todas las réplicas deben tener el mismo anillo.
+ *
+ * Los tokens ya verificados se guardan en un caché acotado por su SHA-256, para no repetir el
+ * HMAC y el parseo JSON en cada petición de la misma sesión.
+ */
+@Service
+public class TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+
+    private final Map<String, SecretKey> keys = new LinkedHashMap<>();
+    private final String activeKid;
+    private final long expirationMs;
+    private final int cacheSize;
+    private final JwtParser parser;
+    private final Map<String, TokenClaims> verified = new ConcurrentHashMap<>();
+
+    public TokenService(@Value("${reservas.jwt.keys:}") String keyRing,
+                        @Value("${reservas.jwt.active-kid:}") String activeKid,
+                        @Value("${reservas.jwt.expiration-ms:3600000}") long expirationMs,
+                        @Value("${reservas.jwt.cache-size:10000}") int cacheSize) {
+        for (String entry : keyRing.split(",")) {
+            if (entry.isBlank()) continue;
+            int colon = entry.indexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("reservas.jwt.keys debe tener el formato kid:base64[,kid:base64]");
+            }
+            keys.put(entry.substring(0, colon).trim(),
+                     Keys.hmacShaKeyFor(Decoders.BASE64.decode(entry.substring(colon + 1).trim())));
+        }
+        if (keys.isEmpty()) {
+            // Solo para desarrollo: los tokens no sobreviven un reinicio ni sirven en otra réplica
+            log.warn("reservas.jwt.keys no está configurado; se usa una clave temporal");
+            keys.put("dev", Keys.secretKeyFor(SignatureAlgorithm.HS256));
+        }
+        this.activeKid = activeKid.isBlank() ? keys.keySet().iterator().next() : activeKid;
+        if (!keys.containsKey(this.activeKid)) {
+            throw new IllegalArgumentException("reservas.jwt.active-kid no está en el anillo: " + this.activeKid);
+        }
+        this.expirationMs = expirationMs;
+        this.cacheSize = cacheSize;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public SecretKey resolveSigningKey(JwsHeader header, Claims claims) {
+                        SecretKey key = header.getKeyId() == null ? null : keys.get(header.getKeyId());
+                        if (key == null) throw new JwtException("Clave de firma desconocida: " + header.getKeyId());
+                        return key;
+                    }
+                })
+                .build();
+    }
+
+    /** Token de sesión con id, email y rol del usuario */
+    public String createToken(User user) {
+        return createToken(user.getId(), user.getEmail(), roleOf(user));
+    }
+
+    /** Igual que {@link #createToken(User)} pero sin necesitar la entidad (renovación con refresh token) */
+    public String createToken(Long userId, String email, String role) {
+        return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, activeKid)
+                .setSubject(email)
+                .claim("id", userId)
+                .claim("role", role)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
+                .signWith(keys.get(activeKid))
+                .compact();
+    }
+
+    /**
+     * Verifica firma y vencimiento. Lanza {@link JwtException} si el token no es válido.
+     */
+    public TokenClaims verify(String token) {
+        Instant now = Instant.now();
+        String digest = digest(token);
+        TokenClaims cached = verified.get(digest);
+        if (cached != null) {
+            if (!cached.isExpired(now)) return cached;
+            verified.remove(digest);
+            throw new JwtException("Token expirado");
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Number id = claims.get("id", Number.class);
+        TokenClaims parsed = new TokenClaims(id == null ? null : id.longValue(), claims.getSubject(),
+                claims.get("role", String.class), claims.getExpiration().toInstant());
+
+        if (verified.size() >= cacheSize) {
+            verified.values().removeIf(c -> c.isExpired(now));
+            if (verified.size() >= cacheSize) verified.clear(); // caso raro: se vuelve a llenar con las sesiones activas
+        }
+        verified.put(digest, parsed);
+        return parsed;
+    }
+
+    public static String roleOf(User user) {
+        return user.getRoles().stream().findFirst().map(r -> r.getName()).orElse("USER");
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.reservas.backend.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.reservas.backend.dto.ReservationDTO;
+import com.reservas.backend.model.Reservation;
+import com.reservas.backend.repository.ReservationRepository;
+
+/**
+ * Índice en memoria de la ocupación de cada cancha por día.
+ *
+ * Cada par (cancha, fecha) guarda un bitset de slots ocupados (por defecto de 1 minuto)
+ * y la lista de reservas del día. Se carga de la BD la primera vez que se consulta y
+ * luego se mantiene con {@link #onSaved(Reservation)} y {@link #onDeleted(UUID)}, de modo
+ * que la validación de solapamientos y el listado por cancha/fecha no vayan a la BD.
+ *
+ * El índice está acotado: a lo sumo {@code reservas.availability.max-days} días cargados (se
+ * descartan los menos consultados) y los días ya pasados se descartan periódicamente. Un día
+ * descartado se vuelve a cargar de la BD si se consulta otra vez.
+ */
+@Service
+public class AvailabilityIndex {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final ReservationRepository reservationRepository;
+    private final int slotMinutes;
+    private final int slotsPerDay;
+    private final int maxDays;
+
+    private final Map<DayKey, DaySlots> days = new ConcurrentHashMap<>();
+    // Solo reservas de días cargados: al descartar un día se quitan también de aquí
+    private final Map<UUID, DayKey> locations = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    public AvailabilityIndex(ReservationRepository reservationRepository,
+                             @Value("${reservas.availability.slot-minutes:1}") int slotMinutes,
+                             @Value("${reservas.availability.max-days:20000}") int maxDays) {
+        if (slotMinutes <= 0 || MINUTES_PER_DAY % slotMinutes != 0) {
+            throw new IllegalArgumentException("reservas.availability.slot-minutes debe dividir 1440: " + slotMinutes);
+        }
+        this.reservationRepository = reservationRepository;
+        this.slotMinutes = slotMinutes;
+        this.slotsPerDay = MINUTES_PER_DAY / slotMinutes;
+        this.maxDays = maxDays;
+    }
+
+    /** Indica si el horario choca con alguna reserva activa, ignorando la reserva {@code excludeId} */
+    public boolean isOverlapping(UUID courtId, LocalDate date, LocalTime startTime, LocalTime endTime, UUID excludeId) {
+        DaySlots day = load(new DayKey(courtId, date));
+        int start = startMinute(startTime);
+        int end = endMinute(endTime);
+        day.lock.lock();
+        try {
+            return day.overlaps(start, end, excludeId);
+        } finally {
+            day.lock.unlock();
+        }
+    }
+
+    /** Reservas (de cualquier estado) de la cancha en la fecha indicada */
+    public List<ReservationDTO> findByCourtAndDate(UUID courtId, LocalDate date) {
+        DaySlots day = load(new DayKey(courtId, date));
+        day.lock.lock();
+        try {
+            if (day.stale) {
+                day.reload(reservationRepository.findWithDetailsByCourtIdAndDate(courtId, date));
+            }
+            return day.views();
+        } finally {
+            day.lock.unlock();
+        }
+    }
+
+    /** Registra una reserva recién guardada (creación, modificación o cancelación) */
+    public void onSaved(Reservation reservation) {
+        DayKey key = new DayKey(reservation.getCourt().getId(), reservation.getDate());
+        DayKey previous = locations.remove(reservation.getId());
+        if (previous != null && !previous.equals(key)) {
+            remove(previous, reservation.getId());
+        }
+
+        DaySlots day = days.get(key);
+        if (day == null) return; // se cargará desde la BD cuando se consulte
+        day.lock.lock();
+        try {
+            if (day.loaded && days.get(key) == day) {
+                day.put(reservation);
+                locations.put(reservation.getId(), key);
+            }
+        } finally {
+            day.lock.unlock();
+        }
+    }
+
+    /** Quita del índice una reserva eliminada físicamente */
+    public void onDeleted(UUID reservationId) {
+        DayKey key = locations.remove(reservationId);
+        if (key != null) remove(key, reservationId);
+    }
+
+    /** Descarta un día (p. ej. si la BD rechazó una reserva que el índice daba por libre) */
+    public void invalidate(UUID courtId, LocalDate date) {
+        evict(new DayKey(courtId, date));
+    }
+
+    /** Descarta los días anteriores a hoy: ya no se reservan ni se validan */
+    @Scheduled(fixedDelayString = "${reservas.availability.evict-interval-ms:3600000}")
+    public void evictPastDays() {
+        LocalDate today = LocalDate.now();
+        for (DayKey key : new ArrayList<>(days.keySet())) {
+            if (key.date().isBefore(today)) evict(key);
+        }
+    }
+
+    /** Días cargados en memoria */
+    public int size() {
+        return days.size();
+    }
+
+    /**
+     * Reservas que solo cambiaron de estado en la BD sin pasar por {@link #onSaved} (p. ej.
+     * PENDING → FINISHED en bloque): no se mueven ni liberan horario, así que basta con que su
+     * día recargue el listado en la próxima lectura.
+     */
+    public void onStatusChanged(Collection<UUID> reservationIds) {
+        for (UUID id : reservationIds) {
+            DayKey key = locations.get(id);
+            DaySlots day = key == null ? null : days.get(key);
+            if (day == null) continue;
+            day.lock.lock();
+            try {
+                day.stale = true;
+            } finally {
+                day.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Compara cada día cargado con la tabla de reservas y recarga los que no coinciden.
+     * Devuelve la lista de días con diferencias (vacía si el índice está al día).
+     */
+    public List<String> checkConsistency() {
+        List<String> mismatches = new ArrayList<>();
+        for (Map.Entry<DayKey, DaySlots> entry : days.entrySet()) {
+            DayKey key = entry.getKey();
+            DaySlots day = entry.getValue();
+            day.lock.lock();
+            try {
+                if (!day.loaded) continue;
+                List<Reservation> actual = reservationRepository.findWithDetailsByCourtIdAndDate(key.courtId(), key.date());
+                DaySlots expected = new DaySlots();
+                expected.reload(actual);
+                if (!day.sameOccupancy(expected)) {
+                    mismatches.add("Cancha " + key.courtId() + " fecha " + key.date()
+                            + ": índice=" + day.active.size() + " reservas activas, tabla=" + expected.active.size());
+                    day.reload(actual);
+                    actual.forEach(r -> locations.put(r.getId(), key));
+                }
+            } finally {
+                day.lock.unlock();
+            }
+        }
+        return mismatches;
+    }
+
+    public int getSlotMinutes() { return slotMinutes; }
+
+    private DaySlots load(DayKey key) {
+        DaySlots day = days.get(key);
+        if (day == null) {
+            day = days.computeIfAbsent(key, k -> new DaySlots());
+            if (days.size() > maxDays) evictLeastRecentlyUsed();
+        }
+        day.lastAccess = System.nanoTime();
+        day.lock.lock();
+        try {
+            if (!day.loaded) {
+                List<Reservation> reservations = reservationRepository.findWithDetailsByCourtIdAndDate(key.courtId(), key.date());
+                day.reload(reservations);
+                if (days.get(key) == day) reservations.forEach(r -> locations.put(r.getId(), key));
+            }
+        } finally {
+            day.lock.unlock();
+        }
+        return day;
+    }
+
+    /**
+     * Descarta los días consultados hace más tiempo hasta quedar en el 90% del máximo. Recorre
+     * todo el mapa, pero solo cuando se supera el máximo y con un margen para no repetirlo enseguida.
+     */
+    private void evictLeastRecentlyUsed() {
+        if (!evictionLock.tryLock()) return; // otro hilo ya está descartando
+        try {
+            int excess = days.size() - maxDays * 9 / 10;
+            if (excess <= 0) return;
+            days.entrySet().stream()
+                    .sorted(Map.Entry.comparingByValue((a, b) -> Long.compare(a.lastAccess, b.lastAccess)))
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(this::evict);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void evict(DayKey key) {
+        DaySlots day = days.remove(key);
+        if (day == null) return;
+        day.lock.lock();
+        try {
+            day.active.keySet().forEach(id -> locations.remove(id, key));
+            day.views.keySet().forEach(id -> locations.remove(id, key));
+        } finally {
+            day.lock.unlock();
+        }
+    }
+
+    private void remove(DayKey key, UUID reservationId) {
+        DaySlots day = days.get(key);
+        if (day == null) return;
+        day.lock.lock();
+        try {
+            if (day.loaded) day.remove(reservationId);
+        } finally {
+            day.lock.unlock();
+        }
+    }
+
+    private static int startMinute(LocalTime time) {
+        return time.toSecondOfDay() / 60;
+    }
+
+    private static int endMinute(LocalTime time) {
+        return (time.toSecondOfDay() + 59) / 60;
+    }
+
+    private record DayKey(UUID courtId, LocalDate date) {}
+
+    /** Intervalo activo en minutos [start, end) */
+    private record Interval(int start, int end) {}
+
+    /**
+     * Ocupación de una cancha en un día. Se accede siempre con {@code lock} tomado; es un
+     * ReentrantLock y no {@code synchronized} porque la carga consulta la BD con el bloqueo
+     * tomado y, con hilos virtuales, un monitor retendría el hilo portador durante la consulta.
+     */
+    private final class DaySlots {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long[] bits = new long[(slotsPerDay + 63) / 64];
+        private final Map<UUID, Interval> active = new HashMap<>();
+        private final Map<UUID, ReservationDTO> views = new LinkedHashMap<>();
+        private boolean loaded;
+        private boolean stale;
+        private volatile long lastAccess = System.nanoTime();
+
+        void reload(List<Reservation> reservations) {
+            active.clear();
+            views.clear();
+            for (Reservation r : reservations) {
+                put(r);
+            }
+            loaded = true;
+            stale = false;
+        }
+
+        void put(Reservation reservation) {
+            UUID id = reservation.getId();
+            if ("CANCELLED".equals(reservation.getStatus())) {
+                active.remove(id);
+            } else {
+                active.put(id, new Interval(startMinute(reservation.getStartTime()), endMinute(reservation.getEndTime())));
+            }
+            rebuildBits();
+
+            // Sin cargar cancha/usuario no se puede armar el DTO; el listado se recarga en la próxima lectura
+            if (Hibernate.isInitialized(reservation.getCourt()) && Hibernate.isInitialized(reservation.getUser())) {
+                views.put(id, new ReservationDTO(reservation));
+            } else {
+                views.remove(id);
+                stale = true;
+            }
+        }
+
+        void remove(UUID id) {
+            if (active.remove(id) != null) rebuildBits();
+            views.remove(id);
+        }
+
+        boolean overlaps(int start, int end, UUID excludeId) {
+            if (!anyBitSet(start / slotMinutes, (end + slotMinutes - 1) / slotMinutes)) {
+                return false;
+            }
+            // Con slots de más de un minuto el bitset es aproximado: se confirma con los intervalos
+            for (Map.Entry<UUID, Interval> entry : active.entrySet()) {
+                Interval interval = entry.getValue();
+                if (start < interval.end() && end > interval.start() && !entry.getKey().equals(excludeId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean sameOccupancy(DaySlots other) {
+            return active.equals(other.active);
+        }
+
+        List<ReservationDTO> views() {
+            return Collections.unmodifiableList(new ArrayList<>(views.values()));
+        }
+
+        private void rebuildBits() {
+            Arrays.fill(bits, 0L);
+            for (Interval interval : active.values()) {
+                setBits(interval.start() / slotMinutes, (interval.end() + slotMinutes - 1) / slotMinutes);
+            }
+        }
+
+        /** Marca los slots [from, to) */
+        private void setBits(int from, int to) {
+            for (int word = from >>> 6; from < to; word++) {
+                int upto = Math.min(to, (word + 1) << 6);
+                bits[word] |= rangeMask(from, upto);
+                from = upto;
+            }
+        }
+
+        /** Indica si hay algún slot ocupado en [from, to) */
+        private boolean anyBitSet(int from, int to) {
+            to = Math.min(to, slotsPerDay);
+            for (int word = from >>> 6; from < to; word++) {
+                int upto = Math.min(to, (word + 1) << 6);
+                if ((bits[word] & rangeMask(from, upto)) != 0) return true;
+                from = upto;
+            }
+            return false;
+        }
+
+        private long rangeMask(int from, int to) {
+            long high = (to & 63) == 0 ? -1L : (1L << (to & 63)) - 1;
+            return high & (-1L << (from & 63));
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.reservas.backend.service;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.reservas.backend.config.DaemonPools;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Cambios de disponibilidad por SSE, por cancha y fecha.
+ *
+ * Cada suscriptor es un {@link SseEmitter} (petición asíncrona: un cliente inactivo no ocupa
+ * hilo) con una cola acotada. Publicar solo encola y agenda el envío en un pool pequeño, así
+ * que un cliente lento no frena al que reserva ni a los demás. Si la cola de un suscriptor se
+ * llena se descartan sus eventos pendientes y recibe {@code resync}: debe volver a pedir las
+ * reservas del día (GET /api/reservations/court/{courtId}?date=...).
+ *
+ * Cada escritura tiene un plazo ({@code reservas.sse.write-timeout-ms}): un cliente que no lee
+ * llena el buffer del socket y el envío se bloquea hasta el timeout del contenedor. Una revisión
+ * periódica cierra a ese suscriptor y repone el hilo bloqueado (hasta
+ * {@code reservas.sse.max-stalled-writes}), así los demás siguen recibiendo eventos.
+ *
+ * Eventos: {@code booked}/{@code changed} con {"id","start","end","status"} y {@code released}
+ * con {"id"} cuando la reserva se cancela, se elimina o se mueve a otra cancha o día.
+ */
+@Service
+public class AvailabilityStream {
+
+    private static final Message RESYNC = new Message("resync", "{}");
+    private static final Message HEARTBEAT = new Message(null, "hb");
+
+    private final Map<Window, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor senders;
+    private final int threads;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final long writeTimeoutNanos;
+    private final int maxStalledWrites;
+    private final int maxSubscribers;
+    // Hilos del pool bloqueados en una escritura ya vencida (repuestos con hilos extra)
+    private final ReentrantLock poolLock = new ReentrantLock();
+    private int stalledWrites;
+    private final Counter resyncCounter;
+    private final Counter eventCounter;
+    private final Counter stalledCounter;
+
+    public AvailabilityStream(ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${reservas.sse.buffer:32}") int bufferSize,
+                              @Value("${reservas.sse.threads:2}") int threads,
+                              @Value("${reservas.sse.timeout-ms:1800000}") long timeoutMs,
+                              @Value("${reservas.sse.write-timeout-ms:5000}") long writeTimeoutMs,
+                              @Value("${reservas.sse.max-stalled-writes:16}") int maxStalledWrites,
+                              @Value("${reservas.sse.max-subscribers:10000}") int maxSubscribers) {
+        this.objectMapper = objectMapper;
+        this.threads = threads;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs);
+        this.maxStalledWrites = maxStalledWrites;
+        this.maxSubscribers = maxSubscribers;
+        // Cada suscriptor está a lo sumo una vez en la cola (ver Subscriber.schedule)
+        this.senders = DaemonPools.fixed("sse", threads, new LinkedBlockingQueue<>());
+
+        Gauge.builder("reservas.sse.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Clientes suscritos a cambios de disponibilidad")
+                .register(meterRegistry);
+        this.resyncCounter = Counter.builder("reservas.sse.resync")
+                .description("Suscriptores cuya cola se llenó y deben recargar el día")
+                .register(meterRegistry);
+        this.eventCounter = Counter.builder("reservas.sse.events")
+                .description("Eventos de disponibilidad publicados")
+                .register(meterRegistry);
+        this.stalledCounter = Counter.builder("reservas.sse.stalled")
+                .description("Suscriptores cerrados porque un envío superó el plazo de escritura")
+                .register(meterRegistry);
+    }
+
+    /** Lanza IllegalStateException si se alcanzó el máximo de suscriptores */
+    public SseEmitter subscribe(UUID courtId, LocalDate date) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new IllegalStateException("Demasiados suscriptores, intenta más tarde.");
+        }
+        Window window = new Window(courtId, date);
+        Subscriber subscriber = new Subscriber(window, newEmitter(timeoutMs));
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(e -> remove(subscriber));
+        subscribers.computeIfAbsent(window, w -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        // Primer mensaje: confirma la suscripción y envía las cabeceras al cliente
+        subscriber.offer(HEARTBEAT);
+        return subscriber.emitter;
+    }
+
+    // Después del commit si se publicó dentro de una transacción: no se anuncia un cambio que se revierte
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        if (event.moved()) {
+            publish(new Window(event.previousCourtId(), event.previousDate()),
+                    new Message("released", json(new Released(event.reservationId()))));
+        }
+        Window window = new Window(event.courtId(), event.date());
+        if (event.releasesSlot()) {
+            publish(window, new Message("released", json(new Released(event.reservationId()))));
+        } else {
+            String name = event.isCreation() || event.moved() ? "booked" : "changed";
+            publish(window, new Message(name, json(new Slot(event.reservationId(),
+                    event.startTime().toString(), event.endTime().toString(), event.status()))));
+        }
+    }
+
+    /** Mantiene viva la conexión a través de proxies y detecta clientes que se fueron */
+    @Scheduled(fixedDelayString = "${reservas.sse.heartbeat-ms:25000}")
+    public void heartbeat() {
+        subscribers.values().forEach(set -> set.forEach(s -> {
+            if (s.queue.isEmpty()) s.offer(HEARTBEAT);
+        }));
+    }
+
+    /** Cierra a los suscriptores con un envío en curso más largo que el plazo de escritura */
+    @Scheduled(fixedDelayString = "${reservas.sse.write-check-ms:1000}")
+    public void closeStalledWrites() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(set -> set.forEach(s -> s.closeIfStalled(now)));
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    SseEmitter newEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(set -> set.forEach(s -> s.emitter.complete()));
+        senders.shutdownNow();
+    }
+
+    private void publish(Window window, Message message) {
+        Set<Subscriber> set = subscribers.get(window);
+        if (set == null) return;
+        eventCounter.increment();
+        set.forEach(s -> s.offer(message));
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) return;
+        subscriberCount.decrementAndGet();
+        subscribers.computeIfPresent(subscriber.window, (w, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    // El hilo bloqueado no vuelve hasta que el contenedor corta la escritura: otro atiende a los demás
+    private boolean replaceStalledThread() {
+        poolLock.lock();
+        try {
+            if (stalledWrites >= maxStalledWrites) return false;
+            stalledWrites++;
+            senders.setMaximumPoolSize(threads + stalledWrites);
+            senders.setCorePoolSize(threads + stalledWrites);
+            return true;
+        } finally {
+            poolLock.unlock();
+        }
+    }
+
+    private void releaseStalledThread() {
+        poolLock.lock();
+        try {
+            stalledWrites--;
+            senders.setCorePoolSize(threads + stalledWrites);
+            senders.setMaximumPoolSize(threads + stalledWrites);
+        } finally {
+            poolLock.unlock();
+        }
+    }
+
+    // Se serializa una vez por evento, no una vez por suscriptor
+    private String json(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Window(UUID courtId, LocalDate date) {}
+
+    private record Message(String name, String data) {}
+
+    private record Slot(UUID id, String start, String end, String status) {}
+
+    private record Released(UUID id) {}
+
+    private final class Subscriber {
+        private final Window window;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Message> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean overflowed = new AtomicBoolean();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // Envío en curso, para que closeIfStalled no interrumpa a un hilo que ya pasó a otro suscriptor
+        private final ReentrantLock sendLock = new ReentrantLock();
+        private Thread sendingThread;
+        private long sendStartedNanos;
+        private boolean stalled;
+        private boolean replaced;
+
+        Subscriber(Window window, SseEmitter emitter) {
+            this.window = window;
+            this.emitter = emitter;
+        }
+
+        void offer(Message message) {
+            if (closed.get()) return;
+            if (!queue.offer(message) && overflowed.compareAndSet(false, true)) {
+                resyncCounter.increment();
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (!closed.get()) {
+                    Message message;
+                    if (overflowed.getAndSet(false)) {
+                        // Lo descartado queda cubierto por la recarga que hace el cliente
+                        queue.clear();
+                        message = RESYNC;
+                    } else {
+                        message = queue.poll();
+                    }
+                    if (message == null) {
+                        draining.set(false);
+                        // Algo pudo llegar entre poll() y set(false)
+                        if ((queue.isEmpty() && !overflowed.get()) || !draining.compareAndSet(false, true)) return;
+                        continue;
+                    }
+                    send(message);
+                }
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+                remove(this);
+            }
+        }
+
+        private void send(Message message) throws IOException {
+            sendLock.lock();
+            try {
+                sendingThread = Thread.currentThread();
+                sendStartedNanos = System.nanoTime();
+            } finally {
+                sendLock.unlock();
+            }
+            try {
+                if (message.name() == null) {
+                    emitter.send(SseEmitter.event().comment(message.data()));
+                } else {
+                    emitter.send(SseEmitter.event().name(message.name()).data(message.data()));
+                }
+            } finally {
+                sendLock.lock();
+                try {
+                    sendingThread = null;
+                    if (stalled) {
+                        Thread.interrupted(); // la interrupción era para este envío
+                        if (replaced) releaseStalledThread();
+                    }
+                } finally {
+                    sendLock.unlock();
+                }
+            }
+            if (stalled) {
+                throw new IOException("El cliente no recibió el evento en el plazo de escritura");
+            }
+        }
+
+        void closeIfStalled(long now) {
+            sendLock.lock();
+            try {
+                if (sendingThread == null || stalled || now - sendStartedNanos < writeTimeoutNanos) return;
+                stalled = true;
+                sendingThread.interrupt();
+                replaced = replaceStalledThread();
+            } finally {
+                sendLock.unlock();
+            }
+            // Deja de recibir eventos ya; el emisor se cierra cuando el envío vuelve (ver drain)
+            stalledCounter.increment();
+            remove(this);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.reservas.backend.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.reservas.backend.model.Reservation;
+import com.reservas.backend.repository.ReservationRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Motor de reservas con un único escritor por cancha.
+ *
+ * Cada cancha se asigna siempre al mismo shard (un hilo con su propia cola). El hilo toma
+ * las solicitudes pendientes en lote, las valida contra la ocupación en memoria
+ * ({@link AvailabilityIndex}) y contra las ya aceptadas del mismo lote, y guarda todas las
+ * aceptadas en una sola transacción. Así no hay carreras entre validar e insertar y
+ * canchas de distintos shards avanzan en paralelo sin bloqueos.
+ */
+@Service
+public class BookingEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingEngine.class);
+
+    private final ReservationRepository reservationRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final long timeoutMs;
+    private final int maxBatch;
+    private final Shard[] shards;
+
+    public BookingEngine(ReservationRepository reservationRepository,
+                         AvailabilityIndex availabilityIndex,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${reservas.booking.shards:0}") int shardCount,
+                         @Value("${reservas.booking.queue-capacity:1024}") int queueCapacity,
+                         @Value("${reservas.booking.max-batch:64}") int maxBatch,
+                         @Value("${reservas.booking.timeout-ms:5000}") long timeoutMs) {
+        this.reservationRepository = reservationRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.timeoutMs = timeoutMs;
+        this.maxBatch = maxBatch;
+
+        int count = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        this.shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard(i, queueCapacity);
+            shards[i].start();
+        }
+    }
+
+    /**
+     * Valida y guarda la reserva en el shard de su cancha, esperando el resultado.
+     * Lanza {@link IllegalStateException} con {@code conflictMessage} si el horario ya está ocupado.
+     */
+    public Reservation book(Reservation reservation, String conflictMessage) {
+        return (Reservation) submit(reservation.getCourt().getId(), new BookingTask(reservation, conflictMessage, null));
+    }
+
+    /**
+     * Ejecuta {@code work} en el hilo escritor de la cancha, sin otras escrituras de esa cancha
+     * en paralelo (por ejemplo, validar y guardar una serie completa de reservas).
+     * El trabajo debe mantener actualizado el {@link AvailabilityIndex}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T runExclusive(UUID courtId, Supplier<T> work) {
+        return (T) submit(courtId, new BookingTask(null, null, work));
+    }
+
+    private Object submit(UUID courtId, BookingTask task) {
+        Shard shard = shards[Math.floorMod(courtId.hashCode(), shards.length)];
+        if (!shard.queue.offer(task)) {
+            throw new IllegalStateException("El sistema de reservas está saturado, intenta nuevamente.");
+        }
+
+        try {
+            try {
+                return task.result.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Solo se informa el timeout si el shard aún no la tomó; si ya la está guardando,
+                // el resultado real llega en breve y el cliente no debe reintentar contra su propia reserva
+                if (task.cancel()) {
+                    throw new IllegalStateException("No se pudo confirmar la reserva a tiempo, intenta nuevamente.");
+                }
+                return task.result.get();
+            }
+        } catch (ExecutionException | CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException("No se pudo guardar la reserva.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reserva interrumpida.");
+        }
+    }
+
+    /** Solicitudes en cola en todos los shards */
+    int queued() {
+        int total = 0;
+        for (Shard shard : shards) total += shard.queue.size();
+        return total;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Shard shard : shards) {
+            shard.interrupt();
+        }
+    }
+
+    /** Procesa el lote en orden: las reservas sueltas se agrupan y los trabajos exclusivos cortan el grupo */
+    private void dispatch(List<BookingTask> batch) {
+        List<BookingTask> pending = new ArrayList<>(batch.size());
+        for (BookingTask task : batch) {
+            if (task.work == null) {
+                pending.add(task);
+                continue;
+            }
+            process(pending);
+            pending.clear();
+            if (!task.claim()) continue; // el llamador ya no espera
+            try {
+                task.result.complete(task.work.get());
+            } catch (RuntimeException e) {
+                task.result.completeExceptionally(e);
+            }
+        }
+        process(pending);
+    }
+
+    private void process(List<BookingTask> batch) {
+        List<BookingTask> accepted = new ArrayList<>();
+        for (BookingTask task : batch) {
+            if (!task.claim()) continue; // el llamador ya no espera
+            try {
+                if (conflicts(task, accepted)) {
+                    task.result.completeExceptionally(new IllegalStateException(task.conflictMessage));
+                } else {
+                    accepted.add(task);
+                }
+            } catch (RuntimeException e) {
+                task.result.completeExceptionally(e);
+            }
+        }
+        if (accepted.isEmpty()) return;
+
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    accepted.forEach(task -> reservationRepository.save(task.reservation)));
+            accepted.forEach(this::complete);
+        } catch (RuntimeException batchFailure) {
+            // Un registro inválido no debe tumbar al resto del lote: se reintenta de a uno
+            log.warn("Falló el guardado en lote de {} reservas, reintentando individualmente", accepted.size(), batchFailure);
+            for (BookingTask task : accepted) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> reservationRepository.save(task.reservation));
+                    complete(task);
+                } catch (RuntimeException e) {
+                    // La restricción de la BD detectó un solapamiento que el índice no veía (otra réplica)
+                    if (DatabaseBookingService.isOverlapViolation(e)) {
+                        availabilityIndex.invalidate(task.reservation.getCourt().getId(), task.reservation.getDate());
+                    }
+                    task.result.completeExceptionally(DatabaseBookingService.translate(e, task.conflictMessage));
+                }
+            }
+        }
+    }
+
+    private boolean conflicts(BookingTask task, List<BookingTask> accepted) {
+        Reservation candidate = task.reservation;
+        if ("CANCELLED".equals(candidate.getStatus())) return false;
+
+        UUID courtId = candidate.getCourt().getId();
+        LocalDate date = candidate.getDate();
+        LocalTime start = candidate.getStartTime();
+        LocalTime end = candidate.getEndTime();
+
+        for (BookingTask other : accepted) {
+            Reservation r = other.reservation;
+            if (!"CANCELLED".equals(r.getStatus())
+                    && r.getCourt().getId().equals(courtId)
+                    && r.getDate().equals(date)
+                    && start.isBefore(r.getEndTime()) && end.isAfter(r.getStartTime())
+                    && (candidate.getId() == null || !candidate.getId().equals(r.getId()))) {
+                return true;
+            }
+        }
+        return availabilityIndex.isOverlapping(courtId, date, start, end, candidate.getId());
+    }
+
+    /**
+     * Se devuelve la instancia del llamador (no la copia que retorna un merge) porque sus
+     * asociaciones son las que el llamador ya cargó y puede seguir navegando.
+     */
+    private void complete(BookingTask task) {
+        availabilityIndex.onSaved(task.reservation);
+        task.result.complete(task.reservation);
+    }
+
+    /**
+     * Una reserva a validar y guardar, o un trabajo exclusivo ({@code work}) sobre la cancha.
+     * El shard la toma (QUEUED → RUNNING) y el llamador que se cansa de esperar la cancela
+     * (QUEUED → CANCELLED); como ambos son CAS sobre el mismo estado, solo uno gana.
+     */
+    private static final class BookingTask {
+        private static final int QUEUED = 0;
+        private static final int RUNNING = 1;
+        private static final int CANCELLED = 2;
+
+        private final Reservation reservation;
+        private final String conflictMessage;
+        private final Supplier<?> work;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        private BookingTask(Reservation reservation, String conflictMessage, Supplier<?> work) {
+            this.reservation = reservation;
+            this.conflictMessage = conflictMessage;
+            this.work = work;
+        }
+
+        boolean claim() {
+            return state.compareAndSet(QUEUED, RUNNING);
+        }
+
+        boolean cancel() {
+            return state.compareAndSet(QUEUED, CANCELLED);
+        }
+    }
+
+    /** Hilo escritor de un grupo de canchas */
+    private final class Shard extends Thread {
+        private final BlockingQueue<BookingTask> queue;
+
+        private Shard(int index, int capacity) {
+            super("booking-shard-" + index);
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<BookingTask> batch = new ArrayList<>(maxBatch);
+            while (!isInterrupted()) {
+                try {
+                    batch.add(queue.take());
+                    queue.drainTo(batch, maxBatch - 1);
+                    dispatch(batch);
+                } catch (InterruptedException e) {
+                    break;
+                } catch (RuntimeException e) {
+                    log.error("Error inesperado en {}", getName(), e);
+                    batch.forEach(task -> task.result.completeExceptionally(e));
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.reservas.backend.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.reservas.backend.dto.BulkImportResultDTO;
+import com.reservas.backend.dto.UserRequestDTO;
+import com.reservas.backend.model.Payment;
+import com.reservas.backend.model.Role;
+import com.reservas.backend.model.User;
+import com.reservas.backend.repository.UserRepository;
+import com.reservas.backend.security.PasswordHashingService;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Escrituras masivas (importación de usuarios, carga de pagos).
+ *
+ * Persiste en bloques de {@code reservas.bulk.chunk-size} filas por transacción y vacía el
+ * contexto cada {@code hibernate.jdbc.batch_size} filas: con ids de secuencia (pooled) Hibernate
+ * agrupa los INSERT en lotes JDBC y la memoria no crece con el tamaño de la carga.
+ */
+@Service
+public class BulkWriteService {
+
+    private static final int EMAIL_LOOKUP_CHUNK = 1000;
+    private static final long HASH_REJECTED_BACKOFF_MS = 50;
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final UserRepository userRepository;
+    private final RoleRegistry roleRegistry;
+    private final int batchSize;
+    private final int chunkSize;
+    private final int hashChunkSize;
+    private final PasswordHashingService passwordHashingService;
+
+    public BulkWriteService(EntityManager entityManager,
+                            TransactionTemplate transactionTemplate,
+                            UserRepository userRepository,
+                            RoleRegistry roleRegistry,
+                            PasswordHashingService passwordHashingService,
+                            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize,
+                            @Value("${reservas.bulk.chunk-size:5000}") int chunkSize,
+                            @Value("${reservas.bulk.hash-chunk-size:4}") int hashChunkSize) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.userRepository = userRepository;
+        this.roleRegistry = roleRegistry;
+        this.batchSize = batchSize;
+        this.chunkSize = chunkSize;
+        this.passwordHashingService = passwordHashingService;
+        this.hashChunkSize = hashChunkSize;
+    }
+
+    /** Inserta entidades nuevas en lotes; devuelve cuántas se guardaron */
+    public <T> int persistAll(List<T> entities) {
+        for (int from = 0; from < entities.size(); from += chunkSize) {
+            List<T> chunk = entities.subList(from, Math.min(from + chunkSize, entities.size()));
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < chunk.size(); i++) {
+                    entityManager.persist(chunk.get(i));
+                    if ((i + 1) % batchSize == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        return entities.size();
+    }
+
+    /** Carga histórica de pagos (las reservas deben existir) */
+    public int backfillPayments(List<Payment> payments) {
+        return persistAll(payments);
+    }
+
+    /**
+     * Importa usuarios. Los emails repetidos (en la carga o ya registrados) y los roles
+     * inexistentes se informan en {@code skipped}; el resto se guarda en lote.
+     */
+    public BulkImportResultDTO importUsers(List<UserRequestDTO> requests) {
+        Map<String, Role> roles = new HashMap<>();
+        roleRegistry.findAll().forEach(role -> roles.put(role.getName(), role));
+        Set<String> taken = existingEmails(requests);
+
+        List<String> skipped = new ArrayList<>();
+        List<UserRequestDTO> accepted = new ArrayList<>();
+        for (UserRequestDTO request : requests) {
+            String email = request.getEmail();
+            if (email == null || request.getPassword() == null || request.getPassword().isEmpty()) {
+                skipped.add(email + ": email y contraseña son obligatorios");
+            } else if (!taken.add(email)) {
+                skipped.add(email + ": el email ya está registrado");
+            } else if (request.getRoleName() != null && !roles.containsKey(request.getRoleName())) {
+                skipped.add(email + ": rol no encontrado " + request.getRoleName());
+            } else {
+                accepted.add(request);
+            }
+        }
+
+        List<String> hashes = hashPasswords(accepted);
+        List<User> users = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            UserRequestDTO request = accepted.get(i);
+            User user = new User(request.getFirstName(), request.getLastName(),
+                    request.getEmail(), hashes.get(i), request.getPhoneNumber());
+            if (request.getRoleName() != null) user.getRoles().add(roles.get(request.getRoleName()));
+            users.add(user);
+        }
+
+        return new BulkImportResultDTO(persistAll(users), skipped);
+    }
+
+    /**
+     * BCrypt es lo más caro de la importación. Va al pool acotado de PasswordHashingService de a
+     * {@code reservas.bulk.hash-chunk-size} contraseñas: la carga nunca ocupa toda su cola y los
+     * inicios de sesión siguen entrando entre tanda y tanda.
+     */
+    private List<String> hashPasswords(List<UserRequestDTO> requests) {
+        List<String> hashes = new ArrayList<>(requests.size());
+        for (int from = 0; from < requests.size(); from += hashChunkSize) {
+            List<CompletableFuture<String>> chunk = new ArrayList<>(hashChunkSize);
+            for (UserRequestDTO request : requests.subList(from, Math.min(from + hashChunkSize, requests.size()))) {
+                chunk.add(encode(request.getPassword()));
+            }
+            chunk.forEach(future -> hashes.add(future.join()));
+        }
+        return hashes;
+    }
+
+    // Si la cola está llena por una ráfaga de logins, la importación espera su turno
+    private CompletableFuture<String> encode(String rawPassword) {
+        while (true) {
+            try {
+                return passwordHashingService.encode(rawPassword);
+            } catch (PasswordHashingService.HashingRejectedException e) {
+                try {
+                    Thread.sleep(HASH_REJECTED_BACKOFF_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Importación interrumpida", interrupted);
+                }
+            }
+        }
+    }
+
+    private Set<String> existingEmails(List<UserRequestDTO> requests) {
+        List<String> emails = requests.stream()
+                .map(UserRequestDTO::getEmail)
+                .filter(email -> email != null)
+                .distinct()
+                .toList();
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < emails.size(); from += EMAIL_LOOKUP_CHUNK) {
+            existing.addAll(userRepository.findExistingEmails(
+                    emails.subList(from, Math.min(from + EMAIL_LOOKUP_CHUNK, emails.size()))));
+        }
+        return existing;
+    }
+}
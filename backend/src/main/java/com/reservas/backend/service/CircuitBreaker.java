@@ -0,0 +1,97 @@
+package com.reservas.backend.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker por fallas consecutivas.
+ *
+ * CLOSED: todo pasa; {@code failureThreshold} fallas seguidas lo abren. OPEN: se rechaza sin
+ * llamar durante {@code openMs}. HALF_OPEN: pasa una sola llamada de prueba; si sale bien se
+ * cierra, si falla vuelve a abrirse por otro {@code openMs}.
+ */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMs;
+    private final LongSupplier clock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private State state = State.CLOSED;
+    private int failures;
+    private long openUntil;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(int failureThreshold, long openMs, LongSupplier clock) {
+        this.failureThreshold = failureThreshold;
+        this.openMs = openMs;
+        this.clock = clock;
+    }
+
+    /** true si la llamada puede hacerse; quien la recibe debe informar onSuccess u onFailure */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (state == State.OPEN && clock.getAsLong() >= openUntil) {
+                state = State.HALF_OPEN;
+                trialInFlight = false;
+            }
+            return switch (state) {
+                case CLOSED -> true;
+                case OPEN -> false;
+                case HALF_OPEN -> {
+                    if (trialInFlight) yield false;
+                    trialInFlight = true;
+                    yield true;
+                }
+            };
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess() {
+        lock.lock();
+        try {
+            state = State.CLOSED;
+            failures = 0;
+            trialInFlight = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onFailure() {
+        lock.lock();
+        try {
+            failures++;
+            if (state == State.HALF_OPEN || failures >= failureThreshold) {
+                state = State.OPEN;
+                openUntil = clock.getAsLong() + openMs;
+                trialInFlight = false;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Milisegundos hasta que se admita una llamada de prueba; 0 si no está abierto */
+    public long retryAfterMs() {
+        lock.lock();
+        try {
+            return state == State.OPEN ? Math.max(0, openUntil - clock.getAsLong()) : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.reservas.backend.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import com.reservas.backend.model.Court;
+import com.reservas.backend.model.Reservation;
+
+import jakarta.persistence.PrePersist;
+
+/**
+ * Asigna el código legible a canchas y reservas nuevas que no traen uno.
+ *
+ * Hibernate lo obtiene del contexto de Spring; el generador se resuelve en el primer uso
+ * porque depende del EntityManagerFactory que está creando este mismo listener.
+ */
+@Component
+public class CodeAssignmentListener {
+
+    private final ObjectProvider<CodeGenerator> codeGenerator;
+
+    public CodeAssignmentListener(ObjectProvider<CodeGenerator> codeGenerator) {
+        this.codeGenerator = codeGenerator;
+    }
+
+    @PrePersist
+    public void assignCode(Object entity) {
+        if (entity instanceof Reservation reservation && reservation.getCode() == null) {
+            reservation.setCode(codeGenerator.getObject().nextReservationCode());
+        } else if (entity instanceof Court court && court.getCode() == null) {
+            court.setCode(codeGenerator.getObject().nextCourtCode());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.reservas.backend.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Genera los códigos legibles de reservas ({@code R-}) y canchas ({@code C-}) sin consultar
+ * si ya existen.
+ *
+ * Cada número sale de una secuencia de la BD que se pide por bloques de {@link #BLOCK_SIZE}
+ * (un nextval por bloque), así que dos réplicas nunca entregan el mismo número. El número se
+ * codifica en 7 caracteres Crockford base32 más un símbolo de control (módulo 37), que detecta
+ * un carácter mal copiado o dos caracteres transpuestos. Con {@code reservas.codes.scramble}
+ * el número se permuta antes de codificarlo para que los códigos no parezcan consecutivos.
+ */
+@Service
+public class CodeGenerator {
+
+    /** Números por nextval; debe coincidir con el INCREMENT BY de las secuencias (migración V1) */
+    public static final int BLOCK_SIZE = 100;
+
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    private static final String CHECK_SYMBOLS = ALPHABET + "*~$=U";
+    private static final int LENGTH = 7;
+    private static final int BITS = 5 * LENGTH;
+    private static final long MASK = (1L << BITS) - 1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final boolean scramble;
+    private final Block reservations = new Block("reservation_code_seq");
+    private final Block courts = new Block("court_code_seq");
+
+    public CodeGenerator(JdbcTemplate jdbcTemplate,
+                         EntityManagerFactory entityManagerFactory,
+                         @Value("${reservas.codes.scramble:true}") boolean scramble) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.scramble = scramble;
+    }
+
+    public String nextReservationCode() {
+        return "R-" + encode(reservations.next());
+    }
+
+    public String nextCourtCode() {
+        return "C-" + encode(courts.next());
+    }
+
+    /** 7 caracteres base32 + símbolo de control */
+    String encode(long number) {
+        long value = scramble ? scramble(number) : number;
+        if (value < 0 || value > MASK) {
+            throw new IllegalStateException("Se agotaron los códigos de " + LENGTH + " caracteres");
+        }
+        char[] chars = new char[LENGTH + 1];
+        long rest = value;
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET.charAt((int) (rest & 31));
+            rest >>>= 5;
+        }
+        chars[LENGTH] = CHECK_SYMBOLS.charAt((int) (value % 37));
+        return new String(chars);
+    }
+
+    /** Verifica el símbolo de control de un código (con o sin prefijo) */
+    public static boolean isValid(String code) {
+        if (code == null) return false;
+        String body = code.length() == LENGTH + 3 && code.charAt(1) == '-' ? code.substring(2) : code;
+        if (body.length() != LENGTH + 1) return false;
+        long value = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            int digit = ALPHABET.indexOf(Character.toUpperCase(body.charAt(i)));
+            if (digit < 0) return false;
+            value = (value << 5) | digit;
+        }
+        return CHECK_SYMBOLS.charAt((int) (value % 37)) == Character.toUpperCase(body.charAt(LENGTH));
+    }
+
+    /**
+     * Permutación biyectiva de los números de 35 bits (multiplicaciones por impares y
+     * xor-shifts, todas invertibles módulo 2^35): no repite códigos y los desordena.
+     */
+    private static long scramble(long x) {
+        x = (x * 0x5DEECE66DL) & MASK;
+        x ^= x >>> 17;
+        x = (x * 0x2545F491L) & MASK;
+        x ^= x >>> 16;
+        return x;
+    }
+
+    private long nextBlockStart(String sequence) {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        String sql = dialect.getSequenceSupport().getSequenceNextValString(sequence);
+        Long start = jdbcTemplate.queryForObject(sql, Long.class);
+        if (start == null) {
+            throw new IllegalStateException("La secuencia " + sequence + " no devolvió valor");
+        }
+        return start;
+    }
+
+    /** Bloque de números reservado en la BD y entregado localmente (el lock no fija hilos virtuales durante el nextval) */
+    private final class Block {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final String sequence;
+        private long next;
+        private long end;
+
+        Block(String sequence) {
+            this.sequence = sequence;
+        }
+
+        long next() {
+            lock.lock();
+            try {
+                if (next == end) {
+                    next = nextBlockStart(sequence);
+                    end = next + BLOCK_SIZE;
+                }
+                return next++;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
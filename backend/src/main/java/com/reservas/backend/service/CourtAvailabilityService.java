@@ -0,0 +1,103 @@
+package com.reservas.backend.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.reservas.backend.dto.TimeIntervalDTO;
+import com.reservas.backend.repository.ReservationRepository;
+
+/**
+ * Calcula los horarios libres de una cancha en un rango de días.
+ *
+ * Trae los horarios ocupados del rango completo en una sola consulta (ya ordenados) y los
+ * recorre una vez, día por día dentro del horario de apertura, uniendo los huecos contiguos.
+ */
+@Service
+public class CourtAvailabilityService {
+
+    public static final int MAX_RANGE_DAYS = 92;
+
+    private final ReservationRepository reservationRepository;
+    private final LocalTime openingTime;
+    private final LocalTime closingTime;
+
+    public CourtAvailabilityService(ReservationRepository reservationRepository,
+                                    @Value("${reservas.courts.opening-time:00:00}") String openingTime,
+                                    @Value("${reservas.courts.closing-time:00:00}") String closingTime) {
+        this.reservationRepository = reservationRepository;
+        this.openingTime = LocalTime.parse(openingTime);
+        this.closingTime = LocalTime.parse(closingTime);
+    }
+
+    /**
+     * Intervalos libres entre {@code from} y {@code to} (inclusive), alineados a bloques de
+     * {@code slotMinutes} desde la apertura y de al menos un bloque de duración.
+     */
+    public List<TimeIntervalDTO> findFreeIntervals(UUID courtId, LocalDate from, LocalDate to, int slotMinutes) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("La fecha final no puede ser anterior a la inicial.");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("El rango no puede superar " + MAX_RANGE_DAYS + " días.");
+        }
+        if (slotMinutes <= 0 || slotMinutes > 24 * 60) {
+            throw new IllegalArgumentException("slotMinutes debe estar entre 1 y 1440.");
+        }
+
+        List<TimeIntervalDTO> occupied = reservationRepository.findOccupiedIntervals(courtId, from, to);
+        List<TimeIntervalDTO> free = new ArrayList<>();
+        int next = 0;
+
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            LocalDateTime open = day.atTime(openingTime);
+            // Cierre a las 00:00 = fin del día
+            LocalDateTime close = closingTime.equals(LocalTime.MIDNIGHT) || !closingTime.isAfter(openingTime)
+                    ? day.plusDays(1).atStartOfDay()
+                    : day.atTime(closingTime);
+
+            while (next < occupied.size() && !occupied.get(next).getEnd().isAfter(open)) next++;
+
+            LocalDateTime cursor = open;
+            while (next < occupied.size() && occupied.get(next).getStart().isBefore(close)) {
+                TimeIntervalDTO busy = occupied.get(next++);
+                if (busy.getStart().isAfter(cursor)) {
+                    addFree(free, open, cursor, busy.getStart(), slotMinutes);
+                }
+                if (busy.getEnd().isAfter(cursor)) {
+                    cursor = busy.getEnd();
+                }
+            }
+            if (cursor.isBefore(close)) {
+                addFree(free, open, cursor, close, slotMinutes);
+            }
+        }
+        return free;
+    }
+
+    /** Alinea el hueco a los bloques del día y lo agrega, uniéndolo al anterior si son contiguos */
+    private static void addFree(List<TimeIntervalDTO> free, LocalDateTime open,
+                                LocalDateTime start, LocalDateTime end, int slotMinutes) {
+        long fromOpen = Duration.between(open, start).toMinutes();
+        long startOffset = (fromOpen + slotMinutes - 1) / slotMinutes * slotMinutes;
+        long endOffset = Duration.between(open, end).toMinutes() / slotMinutes * slotMinutes;
+        if (endOffset - startOffset < slotMinutes) return;
+
+        LocalDateTime alignedStart = open.plusMinutes(startOffset);
+        LocalDateTime alignedEnd = open.plusMinutes(endOffset);
+
+        if (!free.isEmpty() && free.get(free.size() - 1).getEnd().equals(alignedStart)) {
+            free.get(free.size() - 1).setEnd(alignedEnd);
+        } else {
+            free.add(new TimeIntervalDTO(alignedStart, alignedEnd));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.reservas.backend.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reservas.backend.dto.CourtDTO;
+import com.reservas.backend.repository.CourtRepository;
+
+/**
+ * Catálogo de canchas ya serializado a JSON, con su ETag.
+ *
+ * Las canchas casi no cambian, así que {@code GET /api/courts} devuelve siempre los mismos
+ * bytes: se arman una vez y se vuelven a construir solo cuando CourtController guarda o
+ * elimina una cancha. Con el ETag el navegador puede pedir {@code If-None-Match} y recibir 304.
+ * También sirve los datos de una cancha por id sin ir a la BD (p. ej. para responder una reserva).
+ */
+@Service
+public class CourtCatalogSnapshot {
+
+    /** Contenido inmutable del catálogo en un momento dado */
+    public record Snapshot(byte[] body, String etag, long generation, Map<UUID, CourtDTO> byId) {}
+
+    private final CourtRepository courtRepository;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong generation = new AtomicLong();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile Snapshot current;
+
+    public CourtCatalogSnapshot(CourtRepository courtRepository, ObjectMapper objectMapper) {
+        this.courtRepository = courtRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Catálogo vigente; si fue invalidado se reconstruye con una sola consulta */
+    public Snapshot get() {
+        Snapshot snapshot = current;
+        long expected = generation.get();
+        if (snapshot != null && snapshot.generation() == expected) {
+            return snapshot;
+        }
+        rebuildLock.lock();
+        try {
+            snapshot = current;
+            expected = generation.get();
+            if (snapshot != null && snapshot.generation() == expected) {
+                return snapshot;
+            }
+            // La generación se lee antes de consultar: si otra escritura invalida mientras
+            // tanto, este snapshot queda viejo y la próxima llamada lo vuelve a construir
+            snapshot = build(expected);
+            current = snapshot;
+            return snapshot;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /** Cancha del catálogo vigente; vacío si no existe (o se creó en otra réplica y aún no se ve aquí) */
+    public Optional<CourtDTO> find(UUID id) {
+        return Optional.ofNullable(get().byId().get(id));
+    }
+
+    /** Llamar después de crear, modificar o eliminar una cancha (ya confirmada en la BD) */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    private Snapshot build(long generation) {
+        List<CourtDTO> courts = courtRepository.findAll().stream().map(CourtDTO::new).toList();
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(courts);
+            Map<UUID, CourtDTO> byId = courts.stream().collect(Collectors.toUnmodifiableMap(CourtDTO::getId, Function.identity()));
+            return new Snapshot(body, etagOf(body), generation, byId);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el catálogo de canchas", e);
+        }
+    }
+
+    /** ETag fuerte: hash del contenido, igual entre reinicios y réplicas mientras no cambie */
+    private static String etagOf(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return '"' + HexFormat.of().formatHex(hash, 0, 16) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
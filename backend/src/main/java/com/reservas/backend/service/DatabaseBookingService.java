@@ -0,0 +1,74 @@
+package com.reservas.backend.service;
+
+import java.sql.SQLException;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.reservas.backend.model.Reservation;
+import com.reservas.backend.repository.ReservationRepository;
+
+/**
+ * Reserva atómica delegada a PostgreSQL.
+ *
+ * La restricción {@code reservation_no_overlap} (EXCLUDE USING gist sobre cancha y rango
+ * horario de las reservas no canceladas) hace que reservar sea un único INSERT: si el
+ * horario está ocupado la BD lo rechaza y se traduce al mismo error de siempre. Sirve con
+ * varias réplicas del backend, donde un bloqueo dentro de la JVM no alcanza.
+ */
+@Service
+public class DatabaseBookingService {
+
+    /** exclusion_violation */
+    private static final String EXCLUSION_VIOLATION = "23P01";
+    /** foreign_key_violation */
+    private static final String FOREIGN_KEY_VIOLATION = "23503";
+
+    private final ReservationRepository reservationRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public DatabaseBookingService(ReservationRepository reservationRepository,
+                                  TransactionTemplate transactionTemplate) {
+        this.reservationRepository = reservationRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /** Guarda la reserva en una transacción corta; la BD valida el solapamiento */
+    public Reservation book(Reservation reservation, String conflictMessage) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> reservationRepository.saveAndFlush(reservation));
+        } catch (DataIntegrityViolationException e) {
+            throw translate(e, conflictMessage);
+        }
+        return reservation;
+    }
+
+    /**
+     * Convierte una violación de restricción en el error que esperan los controladores:
+     * solapamiento → {@link IllegalStateException}, cancha/usuario inexistente → {@link IllegalArgumentException}.
+     */
+    static RuntimeException translate(RuntimeException e, String conflictMessage) {
+        String sqlState = sqlState(e);
+        if (EXCLUSION_VIOLATION.equals(sqlState)) {
+            return new IllegalStateException(conflictMessage);
+        }
+        if (FOREIGN_KEY_VIOLATION.equals(sqlState)) {
+            return new IllegalArgumentException("Usuario o cancha no existe.");
+        }
+        return e;
+    }
+
+    static boolean isOverlapViolation(Throwable e) {
+        return EXCLUSION_VIOLATION.equals(sqlState(e));
+    }
+
+    private static String sqlState(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql && sql.getSQLState() != null) {
+                return sql.getSQLState();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,155 @@
+package com.reservas.backend.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.reservas.backend.dto.PaymentExportRow;
+import com.reservas.backend.dto.ReservationDTO;
+import com.reservas.backend.repository.PaymentRepository;
+import com.reservas.backend.repository.ReservationRepository;
+
+/**
+ * Exportación de reservas y pagos en NDJSON o CSV (opcionalmente gzip).
+ *
+ * Las filas se leen con un cursor de la BD y se escriben a la respuesta a medida que llegan,
+ * así que la memoria usada no depende del tamaño de la tabla.
+ */
+@Service
+public class ExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final List<Column<ReservationDTO>> RESERVATION_COLUMNS = List.of(
+            new Column<>("id", ReservationDTO::getId),
+            new Column<>("code", ReservationDTO::getCode),
+            new Column<>("date", ReservationDTO::getDate),
+            new Column<>("startTime", ReservationDTO::getStartTime),
+            new Column<>("endTime", ReservationDTO::getEndTime),
+            new Column<>("status", ReservationDTO::getStatus),
+            new Column<>("courtId", ReservationDTO::getCourtId),
+            new Column<>("courtCode", ReservationDTO::getCourtCode),
+            new Column<>("courtName", ReservationDTO::getCourtName),
+            new Column<>("pricePerHour", ReservationDTO::getPricePerHour),
+            new Column<>("totalPrice", ReservationDTO::getTotalPrice),
+            new Column<>("userId", ReservationDTO::getUserId),
+            new Column<>("userFullName", ReservationDTO::getUserFullName));
+
+    private static final List<Column<PaymentExportRow>> PAYMENT_COLUMNS = List.of(
+            new Column<>("paymentId", PaymentExportRow::getPaymentId),
+            new Column<>("amount", PaymentExportRow::getAmount),
+            new Column<>("method", PaymentExportRow::getMethod),
+            new Column<>("paymentStatus", PaymentExportRow::getPaymentStatus),
+            new Column<>("paymentDate", PaymentExportRow::getPaymentDate),
+            new Column<>("customerName", PaymentExportRow::getCustomerName),
+            new Column<>("customerEmail", PaymentExportRow::getCustomerEmail),
+            new Column<>("customerPhone", PaymentExportRow::getCustomerPhone),
+            new Column<>("reservationId", PaymentExportRow::getReservationId),
+            new Column<>("reservationCode", PaymentExportRow::getReservationCode),
+            new Column<>("reservationDate", PaymentExportRow::getReservationDate),
+            new Column<>("startTime", PaymentExportRow::getStartTime),
+            new Column<>("endTime", PaymentExportRow::getEndTime),
+            new Column<>("reservationStatus", PaymentExportRow::getReservationStatus),
+            new Column<>("courtCode", PaymentExportRow::getCourtCode),
+            new Column<>("courtName", PaymentExportRow::getCourtName),
+            new Column<>("userId", PaymentExportRow::getUserId));
+
+    private final ReservationRepository reservationRepository;
+    private final PaymentRepository paymentRepository;
+    private final ObjectWriter jsonWriter;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ExportService(ReservationRepository reservationRepository,
+                         PaymentRepository paymentRepository,
+                         ObjectMapper objectMapper,
+                         PlatformTransactionManager transactionManager) {
+        this.reservationRepository = reservationRepository;
+        this.paymentRepository = paymentRepository;
+        this.jsonWriter = objectMapper.writer();
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void exportReservations(OutputStream out, Format format, boolean gzip) throws IOException {
+        export(out, format, gzip, reservationRepository::streamAllDetails, RESERVATION_COLUMNS);
+    }
+
+    public void exportPayments(OutputStream out, Format format, boolean gzip) throws IOException {
+        export(out, format, gzip, paymentRepository::streamAllForExport, PAYMENT_COLUMNS);
+    }
+
+    private <T> void export(OutputStream out, Format format, boolean gzip,
+                            Supplier<Stream<T>> source, List<Column<T>> columns) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 64 * 1024);
+
+        if (format == Format.CSV) {
+            writeCsvLine(writer, columns.stream().map(Column::name).toList());
+        }
+
+        try {
+            // El Stream debe consumirse dentro de la transacción (cursor abierto en la BD)
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<T> rows = source.get()) {
+                    rows.forEach(row -> writeRow(writer, format, row, columns));
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+        if (gzip) ((GZIPOutputStream) target).finish();
+    }
+
+    private <T> void writeRow(Writer writer, Format format, T row, List<Column<T>> columns) {
+        try {
+            if (format == Format.NDJSON) {
+                writer.write(jsonWriter.writeValueAsString(row));
+                writer.write('\n');
+            } else {
+                writeCsvLine(writer, columns.stream().map(c -> c.value(row)).toList());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeCsvLine(Writer writer, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) writer.write(',');
+            writer.write(csvEscape(values.get(i)));
+        }
+        writer.write("\r\n");
+    }
+
+    private static String csvEscape(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private record Column<T>(String name, Function<T, Object> getter) {
+        String value(T row) {
+            Object value = getter.apply(row);
+            return value == null ? null : value.toString();
+        }
+    }
+}
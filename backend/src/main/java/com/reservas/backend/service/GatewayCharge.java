@@ -0,0 +1,17 @@
+package com.reservas.backend.service;
+
+import java.math.BigDecimal;
+
+import com.reservas.backend.model.PaymentMethod;
+
+/**
+ * Cobro enviado a la pasarela. {@code reference} es la clave idempotente del intento
+ * ({@code <id del pago>-<intento>}): igual al repetir el mismo intento, nueva tras un rechazo.
+ */
+public record GatewayCharge(Long paymentId, String reference, BigDecimal amount, PaymentMethod method,
+                            String customerEmail) {
+
+    static String reference(Long paymentId, int attempt) {
+        return paymentId + "-" + attempt;
+    }
+}
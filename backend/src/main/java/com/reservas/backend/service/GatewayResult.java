@@ -0,0 +1,13 @@
+package com.reservas.backend.service;
+
+/** Respuesta de la pasarela: referencia del cobro si se aprobó, motivo si se rechazó */
+public record GatewayResult(boolean approved, String reference, String message) {
+
+    public static GatewayResult approved(String reference) {
+        return new GatewayResult(true, reference, null);
+    }
+
+    public static GatewayResult declined(String message) {
+        return new GatewayResult(false, null, message);
+    }
+}
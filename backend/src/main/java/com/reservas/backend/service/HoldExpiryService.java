@@ -0,0 +1,200 @@
+package com.reservas.backend.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.reservas.backend.dto.HoldDeadlineRow;
+import com.reservas.backend.repository.ReservationRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Vencimiento en el servidor de los holds del checkout: reservas PENDING sin pago creadas por
+ * el cliente en {@code POST /api/reservations} (antes solo lo hacía el temporizador del
+ * navegador; si se cerraba la pestaña el horario quedaba tomado).
+ *
+ * Solo esas reservas llevan {@code hold_expires_at} ({@link #newHoldDeadline()}, a
+ * {@code reservas.holds.ttl-minutes} de su creación); las series, las reservas del admin y las
+ * anteriores a la migración no lo tienen y nunca vencen aquí. El plazo se guarda en una
+ * {@link TimingWheel}: cada tick solo mira los casilleros que vencen, sin recorrer la tabla. Al
+ * arrancar se recuperan los plazos desde la BD (índice parcial sobre hold_expires_at). Los
+ * vencidos se cancelan con un UPDATE por bloque que vuelve a comprobar que sigan PENDING y sin
+ * pago, y se avisa al índice de disponibilidad y a los suscriptores SSE.
+ *
+ * Con varias réplicas cada una vence las que creó; una revisión periódica en la BD
+ * ({@code reservas.holds.rescan-ms}) recoge las que quedaron de una réplica caída.
+ */
+@Service
+public class HoldExpiryService {
+
+    private static final Logger log = LoggerFactory.getLogger(HoldExpiryService.class);
+
+    private final ReservationRepository reservationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AvailabilityIndex availabilityIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final int batchSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TimingWheel<UUID> wheel;
+    // Plazo vigente de cada hold; si se paga o cancela se quita de aquí y la rueda lo ignora al vencer
+    private final Map<UUID, Long> deadlines = new ConcurrentHashMap<>();
+    private final Counter expiredCounter;
+
+    public HoldExpiryService(ReservationRepository reservationRepository,
+                             TransactionTemplate transactionTemplate,
+                             AvailabilityIndex availabilityIndex,
+                             ApplicationEventPublisher eventPublisher,
+                             MeterRegistry meterRegistry,
+                             @Value("${reservas.holds.enabled:true}") boolean enabled,
+                             @Value("${reservas.holds.ttl-minutes:8}") long ttlMinutes,
+                             @Value("${reservas.holds.tick-ms:1000}") long tickMs,
+                             @Value("${reservas.holds.batch-size:500}") int batchSize) {
+        this.reservationRepository = reservationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.availabilityIndex = availabilityIndex;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.batchSize = batchSize;
+        // 64 casilleros por nivel: 64 s, ~68 min y ~48 h con tick de 1 s
+        this.wheel = new TimingWheel<>(tickMs, 64, 3, System.currentTimeMillis());
+
+        Gauge.builder("reservas.holds.tracked", deadlines, Map::size)
+                .description("Holds del checkout sin pago con plazo de vencimiento")
+                .register(meterRegistry);
+        this.expiredCounter = Counter.builder("reservas.holds.expired")
+                .description("Reservas PENDING canceladas por vencer el plazo de pago")
+                .register(meterRegistry);
+    }
+
+    /** Plazo de pago de un hold nuevo del checkout */
+    public LocalDateTime newHoldDeadline() {
+        return LocalDateTime.now().plus(ttl);
+    }
+
+    /** Recupera los plazos de los holds sin pago que ya estaban en la BD */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        if (!enabled) return;
+        List<HoldDeadlineRow> holds = reservationRepository.findUnpaidHolds();
+        holds.forEach(hold -> track(hold.id(), deadlineOf(hold.holdExpiresAt())));
+        if (!holds.isEmpty()) {
+            log.info("{} reservas PENDING sin pago con plazo recuperado", holds.size());
+        }
+    }
+
+    // Después del commit, como AvailabilityStream: un pago que se revierte no quita el plazo
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        if (!enabled || event.holdExpiresAt() == null) return; // no es un hold del checkout
+        if (event.isCreation() && "PENDING".equals(event.status())) {
+            track(event.reservationId(), deadlineOf(event.holdExpiresAt()));
+        } else if (!"PENDING".equals(event.status()) || event.removed()) {
+            // Pagada, confirmada, cancelada o eliminada: ya no vence
+            deadlines.remove(event.reservationId());
+        } else if (!deadlines.containsKey(event.reservationId())) {
+            // Sigue PENDING sin plazo, p. ej. su pago falló después de vencer: vuelve con el plazo
+            // original (si ya pasó, se cancela en el próximo tick)
+            reservationRepository.findUnpaidHold(event.reservationId())
+                    .ifPresent(hold -> track(hold.id(), deadlineOf(hold.holdExpiresAt())));
+        }
+    }
+
+    @Scheduled(fixedRateString = "${reservas.holds.tick-ms:1000}")
+    public void tick() {
+        if (!enabled) return;
+        List<UUID> due = new ArrayList<>();
+        lock.lock();
+        try {
+            wheel.advance(System.currentTimeMillis(), due);
+        } finally {
+            lock.unlock();
+        }
+        // Solo las que siguen con el mismo plazo (no pagadas ni canceladas entretanto)
+        List<UUID> expired = new ArrayList<>(due.size());
+        for (UUID id : due) {
+            if (deadlines.remove(id) != null) expired.add(id);
+        }
+        expire(expired);
+    }
+
+    /** Respaldo entre réplicas: holds vencidos según la BD que ninguna rueda tiene */
+    @Scheduled(fixedDelayString = "${reservas.holds.rescan-ms:600000}",
+               initialDelayString = "${reservas.holds.rescan-ms:600000}")
+    public void rescan() {
+        if (!enabled) return;
+        List<UUID> orphaned = new ArrayList<>();
+        reservationRepository.findExpiredUnpaidHolds(LocalDateTime.now())
+                .forEach(hold -> {
+                    if (!deadlines.containsKey(hold.id())) orphaned.add(hold.id());
+                });
+        expire(orphaned);
+    }
+
+    public int getTrackedCount() {
+        return deadlines.size();
+    }
+
+    private void track(UUID id, long deadline) {
+        deadlines.put(id, deadline);
+        lock.lock();
+        try {
+            wheel.add(id, deadline);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void expire(List<UUID> ids) {
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<UUID> chunk = ids.subList(from, Math.min(ids.size(), from + batchSize));
+            List<HoldDeadlineRow> cancelled = transactionTemplate.execute(status -> cancelChunk(chunk));
+            expiredCounter.increment(cancelled.size());
+            for (HoldDeadlineRow hold : cancelled) {
+                availabilityIndex.invalidate(hold.courtId(), hold.date());
+                eventPublisher.publishEvent(new ReservationChangedEvent(hold.id(), hold.courtId(), hold.date(),
+                        hold.startTime(), hold.endTime(), "CANCELLED", false, hold.courtId(), hold.date(),
+                        hold.holdExpiresAt()));
+            }
+            if (!cancelled.isEmpty()) {
+                log.info("{} reservas PENDING sin pago vencidas y canceladas", cancelled.size());
+            }
+        }
+    }
+
+    // Bloquea las filas que siguen siendo holds (un pago en curso espera o ya las excluyó) y las cancela juntas
+    private List<HoldDeadlineRow> cancelChunk(Collection<UUID> ids) {
+        List<HoldDeadlineRow> holds = reservationRepository.lockUnpaidHolds(ids);
+        if (!holds.isEmpty()) {
+            reservationRepository.cancelByIds(holds.stream().map(HoldDeadlineRow::id).toList());
+        }
+        return holds;
+    }
+
+    private static long deadlineOf(LocalDateTime holdExpiresAt) {
+        return holdExpiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,311 @@
+package com.reservas.backend.service;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reservas.backend.model.IdempotencyRecord;
+import com.reservas.backend.repository.IdempotencyRecordRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+
+/**
+ * Soporte de la cabecera {@code Idempotency-Key} en los POST de reservas y pagos.
+ *
+ * La primera solicitud con una clave la reserva en la tabla {@code idempotency_key} (INSERT
+ * con la clave como PK: entre réplicas solo uno gana), se ejecuta y guarda su respuesta. Los
+ * reintentos con la misma clave reciben esa respuesta sin volver a ejecutar nada:
+ * <ul>
+ *   <li>en esta réplica, desde un caché acotado en memoria (sin tocar la BD);</li>
+ *   <li>si la primera aún corre aquí, esperan su resultado en lugar de ejecutarse en paralelo;</li>
+ *   <li>si corre en otra réplica, 409 con Retry-After.</li>
+ * </ul>
+ * La misma clave con otro cuerpo es un error del cliente (422). Las respuestas 5xx y las
+ * excepciones no se guardan: la clave se libera para poder reintentar. Mientras se ejecuta, la
+ * reserva de la clave dura solo {@code reservas.idempotency.lease-seconds} (si la réplica cae a
+ * mitad, otra puede retomarla pronto); al guardar la respuesta se extiende a las
+ * {@code reservas.idempotency.ttl-hours}. Las filas vencidas se barren periódicamente.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository repository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration lease;
+    private final long waitMs;
+    private final Map<String, CompletableFuture<Stored>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Stored> completed;
+    private final ReentrantLock cacheLock = new ReentrantLock();
+    private final Counter replayCounter;
+    private final Counter executedCounter;
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              EntityManager entityManager,
+                              TransactionTemplate transactionTemplate,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${reservas.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${reservas.idempotency.lease-seconds:60}") long leaseSeconds,
+                              @Value("${reservas.idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${reservas.idempotency.wait-ms:10000}") long waitMs) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.waitMs = waitMs;
+        // LRU por acceso: las claves recientes son las que se reintentan
+        this.completed = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Stored> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        this.replayCounter = Counter.builder("reservas.idempotency.replays")
+                .description("Reintentos respondidos con la respuesta guardada")
+                .register(meterRegistry);
+        this.executedCounter = Counter.builder("reservas.idempotency.executed")
+                .description("Solicitudes con Idempotency-Key ejecutadas por primera vez")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ejecuta {@code action} una sola vez por ({@code scope}, {@code key}). Sin clave se ejecuta
+     * siempre. {@code request} es el cuerpo recibido, para detectar la clave reutilizada.
+     */
+    public ResponseEntity<Object> execute(String scope, String key, Object request,
+                                         Supplier<ResponseEntity<Object>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(HEADER + " admite hasta " + MAX_KEY_LENGTH + " caracteres.");
+        }
+        String id = scope + ":" + key;
+        String requestHash = fingerprint(request);
+
+        Stored cached = cached(id);
+        if (cached != null) {
+            return replay(cached, requestHash);
+        }
+
+        CompletableFuture<Stored> mine = new CompletableFuture<>();
+        CompletableFuture<Stored> running = inFlight.putIfAbsent(id, mine);
+        if (running != null) {
+            return await(running, requestHash);
+        }
+        try {
+            IdempotencyRecord existing = claim(id, requestHash);
+            if (existing != null) {
+                Stored stored = IdempotencyRecord.COMPLETED.equals(existing.getStatus())
+                        ? Stored.of(existing)
+                        : Stored.inProgress(existing.getRequestHash());
+                if (!stored.inProgress()) remember(id, stored);
+                mine.complete(stored);
+                return replay(stored, requestHash);
+            }
+
+            ResponseEntity<Object> response = action.get();
+            executedCounter.increment();
+            Stored stored = store(id, requestHash, response);
+            mine.complete(stored);
+            return response;
+        } catch (RuntimeException e) {
+            release(id);
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${reservas.idempotency.sweep-ms:3600000}",
+               initialDelayString = "${reservas.idempotency.sweep-ms:3600000}")
+    public void sweepExpired() {
+        Integer deleted = transactionTemplate.execute(status -> repository.deleteExpired(LocalDateTime.now()));
+        if (deleted != null && deleted > 0) {
+            log.info("{} claves de idempotencia vencidas eliminadas", deleted);
+        }
+    }
+
+    /** Otra solicitud de esta réplica ya la está ejecutando: se espera su resultado */
+    private ResponseEntity<Object> await(CompletableFuture<Stored> running, String requestHash) {
+        try {
+            return replay(running.get(waitMs, TimeUnit.MILLISECONDS), requestHash);
+        } catch (TimeoutException e) {
+            return replay(Stored.inProgress(requestHash), requestHash);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return replay(Stored.inProgress(requestHash), requestHash);
+        } catch (ExecutionException e) {
+            // La primera falló sin guardar respuesta; se informa igual que a ella
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /** INSERT de la clave en curso con el plazo corto; si ya existe devuelve esa fila (o la reemplaza si venció) */
+    private IdempotencyRecord claim(String id, String requestHash) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    entityManager.persist(new IdempotencyRecord(id, requestHash, LocalDateTime.now().plus(lease)));
+                    entityManager.flush();
+                });
+                return null;
+            } catch (DataIntegrityViolationException | PersistenceException e) {
+                IdempotencyRecord existing = repository.findById(id).orElse(null);
+                if (existing == null) continue; // se liberó entretanto
+                if (existing.getExpiresAt().isAfter(LocalDateTime.now())) return existing;
+                transactionTemplate.executeWithoutResult(status -> repository.deleteById(id));
+            }
+        }
+        throw new IllegalStateException("No se pudo registrar la clave de idempotencia " + id);
+    }
+
+    private Stored store(String id, String requestHash, ResponseEntity<Object> response) {
+        Stored stored = Stored.from(response, requestHash, objectMapper);
+        if (response.getStatusCode().is5xxServerError()) {
+            release(id);
+            return stored;
+        }
+        transactionTemplate.executeWithoutResult(status -> repository.findById(id).ifPresent(record ->
+                record.complete(stored.status(), stored.contentType(), stored.location(), stored.body(),
+                        LocalDateTime.now().plus(ttl))));
+        remember(id, stored);
+        return stored;
+    }
+
+    private void release(String id) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.releaseClaim(id));
+        } catch (RuntimeException e) {
+            // Si no se puede borrar, la fila vence con el TTL
+            log.warn("No se pudo liberar la clave de idempotencia {}", id, e);
+        }
+    }
+
+    private Stored cached(String id) {
+        cacheLock.lock();
+        try {
+            return completed.get(id);
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    private void remember(String id, Stored stored) {
+        cacheLock.lock();
+        try {
+            completed.put(id, stored);
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    private ResponseEntity<Object> replay(Stored stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            return ResponseEntity.unprocessableEntity()
+                    .body(HEADER + " ya se usó con una solicitud distinta.");
+        }
+        if (stored.inProgress()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header("Retry-After", "1")
+                    .body(stored.body());
+        }
+        replayCounter.increment();
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.status())
+                .header(REPLAYED_HEADER, "true");
+        if (stored.location() != null) builder.location(URI.create(stored.location()));
+        if (stored.body() == null) return builder.build();
+        return builder.contentType(MediaType.parseMediaType(stored.contentType()))
+                .body(stored.body().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Respuesta guardada: el cuerpo ya serializado, tal como se envió */
+    private record Stored(String requestHash, int status, String contentType, String location, String body,
+                          boolean inProgress) {
+
+        static Stored inProgress(String requestHash) {
+            return new Stored(requestHash, HttpStatus.CONFLICT.value(), MediaType.TEXT_PLAIN_VALUE, null,
+                    "Hay una solicitud en curso con la misma " + HEADER + ".", true);
+        }
+
+        static Stored of(IdempotencyRecord record) {
+            return new Stored(record.getRequestHash(), record.getResponseStatus(), record.getContentType(),
+                    record.getLocation(), record.getResponseBody(), false);
+        }
+
+        static Stored from(ResponseEntity<Object> response, String requestHash, ObjectMapper objectMapper) {
+            Object body = response.getBody();
+            URI location = response.getHeaders().getLocation();
+            String contentType;
+            String text;
+            if (body == null) {
+                contentType = null;
+                text = null;
+            } else if (body instanceof String string) {
+                // Los mensajes de error se envían como texto plano (StringHttpMessageConverter)
+                contentType = MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8";
+                text = string;
+            } else {
+                contentType = MediaType.APPLICATION_JSON_VALUE;
+                try {
+                    text = objectMapper.writeValueAsString(body);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return new Stored(requestHash, response.getStatusCode().value(), contentType,
+                    location == null ? null : location.toString(), text, false);
+        }
+    }
+}
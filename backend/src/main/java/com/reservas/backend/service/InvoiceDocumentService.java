@@ -0,0 +1,231 @@
+package com.reservas.backend.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.util.HtmlUtils;
+
+import com.reservas.backend.config.DaemonPools;
+import com.reservas.backend.dto.PaymentExportRow;
+import com.reservas.backend.model.Payment;
+import com.reservas.backend.repository.PaymentRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Documento de factura (HTML) descargable, generado fuera de la solicitud de pago.
+ *
+ * Al confirmarse un pago ({@link PaymentConfirmedEvent}) se encola su generación en un pool
+ * propio con cola acotada. El documento se guarda en disco con su SHA-256 como nombre
+ * ({@code <dir>/ab/abcd….html}): un archivo nunca cambia una vez escrito, así que se puede
+ * servir con caché inmutable, y dos generaciones del mismo contenido terminan en el mismo
+ * archivo. El hash queda en {@code payment.invoice_hash}.
+ *
+ * Si la cola está llena, la réplica se reinicia o el archivo se pierde, la revisión periódica
+ * ({@code reservas.invoices.rescan-ms}) vuelve a encolar los pagos confirmados sin hash.
+ */
+@Service
+public class InvoiceDocumentService {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceDocumentService.class);
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private final PaymentRepository paymentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Path directory;
+    private final int batchSize;
+    private final ThreadPoolExecutor renderer;
+    // Pagos encolados o generándose: el evento y la revisión periódica no los duplican
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    private final Counter renderedCounter;
+
+    public InvoiceDocumentService(PaymentRepository paymentRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${reservas.invoices.dir:data/invoices}") String directory,
+                                  @Value("${reservas.invoices.threads:1}") int threads,
+                                  @Value("${reservas.invoices.queue:1000}") int queueCapacity,
+                                  @Value("${reservas.invoices.batch-size:500}") int batchSize) {
+        this.paymentRepository = paymentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        try {
+            this.directory = Files.createDirectories(Path.of(directory)).toRealPath();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el directorio de facturas " + directory, e);
+        }
+        this.renderer = DaemonPools.fixed("invoice", threads, queueCapacity);
+
+        Gauge.builder("reservas.invoices.queued", queued, Set::size)
+                .description("Facturas pendientes de generar en esta réplica")
+                .register(meterRegistry);
+        this.renderedCounter = Counter.builder("reservas.invoices.rendered")
+                .description("Documentos de factura generados")
+                .register(meterRegistry);
+    }
+
+    // Después del commit si el pago corre en una transacción: el worker debe ver la fila
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentConfirmed(PaymentConfirmedEvent event) {
+        submit(event.paymentId());
+    }
+
+    @Scheduled(fixedDelayString = "${reservas.invoices.rescan-ms:60000}",
+               initialDelayString = "${reservas.invoices.initial-delay-ms:10000}")
+    public void rescan() {
+        paymentRepository.findPendingInvoices(Limit.of(batchSize)).forEach(this::submit);
+    }
+
+    /**
+     * Hash del documento de la factura de la reserva, si ya está en disco. Si falta, se encola
+     * y se devuelve vacío. Lanza excepción si la reserva no tiene pago.
+     */
+    public Optional<String> findReadyDocument(UUID reservationId) {
+        Payment payment = paymentRepository.findByReservationId(reservationId)
+                .orElseThrow(() -> new RuntimeException("Factura no encontrada para la reserva " + reservationId));
+        String hash = payment.getInvoiceHash();
+        if (hash != null && Files.isReadable(pathOf(hash))) {
+            return Optional.of(hash);
+        }
+        if ("CONFIRMED".equals(payment.getStatus())) {
+            submit(payment.getId());
+        }
+        return Optional.empty();
+    }
+
+    /** Archivo del documento con ese hash; vacío si el hash no es válido o no existe */
+    public Optional<Path> findDocument(String hash) {
+        if (hash == null || !HASH.matcher(hash).matches()) {
+            return Optional.empty();
+        }
+        Path path = pathOf(hash);
+        return Files.isReadable(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderer.shutdownNow();
+    }
+
+    private void submit(Long paymentId) {
+        if (!queued.add(paymentId)) {
+            return;
+        }
+        try {
+            renderer.execute(() -> {
+                try {
+                    render(paymentId);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("No se pudo generar la factura del pago {}", paymentId, e);
+                } finally {
+                    queued.remove(paymentId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Cola llena: la revisión periódica lo vuelve a intentar
+            queued.remove(paymentId);
+        }
+    }
+
+    private void render(Long paymentId) throws IOException {
+        PaymentExportRow row = paymentRepository.findInvoiceRow(paymentId).orElse(null);
+        if (row == null || !"CONFIRMED".equals(row.getPaymentStatus())) {
+            return;
+        }
+        byte[] document = html(row).getBytes(StandardCharsets.UTF_8);
+        String hash = sha256(document);
+        write(pathOf(hash), document);
+        transactionTemplate.executeWithoutResult(status -> paymentRepository.setInvoiceHash(paymentId, hash));
+        renderedCounter.increment();
+    }
+
+    /** Escribe en un temporal y lo mueve: quien lee nunca ve un archivo a medias */
+    private static void write(Path target, byte[] document) throws IOException {
+        if (Files.exists(target)) {
+            return; // mismo hash, mismo contenido
+        }
+        Path parent = Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(parent, "invoice-", ".tmp");
+        try {
+            Files.write(temp, document);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Otra generación del mismo contenido ganó
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path pathOf(String hash) {
+        return directory.resolve(hash.substring(0, 2)).resolve(hash + ".html");
+    }
+
+    // Sin fecha de generación: el mismo pago produce siempre el mismo documento (y el mismo hash)
+    private static String html(PaymentExportRow row) {
+        String invoiceNumber = "INV-" + row.getPaymentId();
+        StringBuilder html = new StringBuilder(2048)
+                .append("<!DOCTYPE html>\n<html lang=\"es\">\n<head>\n<meta charset=\"UTF-8\">\n")
+                .append("<title>Factura ").append(invoiceNumber).append("</title>\n")
+                .append("<style>body{font-family:sans-serif;max-width:640px;margin:2em auto}")
+                .append("table{width:100%;border-collapse:collapse}td{padding:6px;border-bottom:1px solid #ddd}")
+                .append("td:first-child{color:#555;width:40%}</style>\n</head>\n<body>\n")
+                .append("<h1>Factura ").append(invoiceNumber).append("</h1>\n<table>\n");
+        row(html, "Reserva", row.getReservationCode());
+        row(html, "Cancha", row.getCourtName());
+        row(html, "Fecha", row.getReservationDate() == null ? null : row.getReservationDate().format(DATE));
+        row(html, "Horario", row.getStartTime() == null ? null : row.getStartTime() + " - " + row.getEndTime());
+        row(html, "Cliente", row.getCustomerName());
+        row(html, "Correo", row.getCustomerEmail());
+        row(html, "Teléfono", row.getCustomerPhone());
+        row(html, "Método de pago", row.getMethod());
+        row(html, "Fecha de pago", row.getPaymentDate() == null ? null : row.getPaymentDate().format(DATE_TIME));
+        row(html, "Estado", row.getPaymentStatus());
+        BigDecimal amount = row.getAmount();
+        row(html, "Total", amount == null ? null : amount.toPlainString());
+        return html.append("</table>\n</body>\n</html>\n").toString();
+    }
+
+    private static void row(StringBuilder html, String label, String value) {
+        html.append("<tr><td>").append(label).append("</td><td>")
+            .append(value == null ? "" : HtmlUtils.htmlEscape(value, StandardCharsets.UTF_8.name()))
+            .append("</td></tr>\n");
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.reservas.backend.service;
+
+/** Se publicó un pago confirmado; InvoiceDocumentService genera su factura en segundo plano */
+public record PaymentConfirmedEvent(Long paymentId) {
+}
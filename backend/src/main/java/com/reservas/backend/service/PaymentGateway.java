@@ -0,0 +1,22 @@
+package com.reservas.backend.service;
+
+import java.time.Duration;
+
+/**
+ * Cliente de la pasarela de pago. {@link PaymentProcessingService} lo llama desde su pool,
+ * nunca desde el hilo de la solicitud, y corta la espera al vencer {@code timeout} aunque la
+ * implementación no lo respete.
+ *
+ * El cobro usa {@link GatewayCharge#reference()} como referencia idempotente: tras un timeout o
+ * un reinicio el mismo intento se repite con la misma referencia y la pasarela devuelve el
+ * resultado original en vez de cobrar dos veces. Un reintento después de un rechazo es otro
+ * intento, con otra referencia. El reembolso se identifica por la referencia del cobro aprobado.
+ */
+public interface PaymentGateway {
+
+    /** Rechazo del cobro (fondos, tarjeta): resultado no aprobado. Falla técnica: excepción. */
+    GatewayResult charge(GatewayCharge charge, Duration timeout);
+
+    /** Devuelve un cobro aprobado ({@code reference}); falla técnica: {@link PaymentGatewayException} */
+    void refund(Long paymentId, String reference, Duration timeout);
+}
@@ -0,0 +1,13 @@
+package com.reservas.backend.service;
+
+/** Falla técnica al hablar con la pasarela (timeout, conexión, 5xx); cuenta para el circuit breaker */
+public class PaymentGatewayException extends RuntimeException {
+
+    public PaymentGatewayException(String message) {
+        super(message);
+    }
+
+    public PaymentGatewayException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
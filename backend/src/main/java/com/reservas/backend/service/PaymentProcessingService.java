@@ -0,0 +1,279 @@
+package com.reservas.backend.service;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.reservas.backend.config.DaemonPools;
+import com.reservas.backend.dto.PaymentRequest;
+import com.reservas.backend.model.Payment;
+import com.reservas.backend.repository.PaymentRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Cobro asíncrono de los pagos por la {@link PaymentGateway}.
+ *
+ * La solicitud solo registra el pago PENDING y encola el cobro; el cliente consulta el estado
+ * hasta que pasa a CONFIRMED o FAILED. Los cobros corren en un pool propio con cola acotada
+ * ({@code reservas.payments.threads}/{@code queue}), así una pasarela lenta no retiene hilos de
+ * Tomcat; con la cola llena se responde 503 en vez de acumular esperas.
+ *
+ * El pool impone el timeout de cada llamada ({@code reservas.payments.timeout-ms}): la espera se
+ * corta con {@code Future.get(timeout)} aunque el cliente de la pasarela no lo respete. Un
+ * timeout o un error de red no dice si el cargo se hizo, así que el pago sigue PENDING y
+ * {@link #reconcile()} repite el cobro con la misma referencia idempotente (id del pago e
+ * intento) hasta obtener una respuesta; solo un rechazo explícito lo deja FAILED, y el nuevo
+ * intento del cliente va con otra referencia. Las fallas técnicas
+ * seguidas abren el {@link CircuitBreaker}: mientras está abierto los pagos nuevos se rechazan
+ * de inmediato con Retry-After, sin encolar nada ni esperar a la pasarela.
+ *
+ * Un cobro aprobado sobre una reserva cancelada mientras tanto queda REFUND_PENDING y se
+ * devuelve con {@link PaymentGateway#refund}; si la devolución falla se reintenta igual.
+ */
+@Service
+public class PaymentProcessingService {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentProcessingService.class);
+
+    private final PaymentService paymentService;
+    private final PaymentRepository paymentRepository;
+    private final PaymentGateway gateway;
+    private final MeterRegistry meterRegistry;
+    private final Duration timeout;
+    private final CircuitBreaker breaker;
+    private final ThreadPoolExecutor workers;
+    private final ThreadPoolExecutor calls;
+    // Pagos con un cobro o reembolso encolado o en curso en esta réplica: la conciliación no los duplica
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    /** La pasarela no admite cobros ahora (breaker abierto o cola llena) */
+    public static class GatewayUnavailableException extends RuntimeException {
+        private final long retryAfterMs;
+
+        public GatewayUnavailableException(String message, long retryAfterMs) {
+            super(message);
+            this.retryAfterMs = retryAfterMs;
+        }
+
+        public long getRetryAfterMs() { return retryAfterMs; }
+    }
+
+    public PaymentProcessingService(PaymentService paymentService,
+                                    PaymentRepository paymentRepository,
+                                    PaymentGateway gateway,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${reservas.payments.threads:8}") int threads,
+                                    @Value("${reservas.payments.queue:200}") int queueCapacity,
+                                    @Value("${reservas.payments.timeout-ms:5000}") long timeoutMs,
+                                    @Value("${reservas.payments.breaker.failure-threshold:5}") int failureThreshold,
+                                    @Value("${reservas.payments.breaker.open-ms:30000}") long openMs) {
+        this.paymentService = paymentService;
+        this.paymentRepository = paymentRepository;
+        this.gateway = gateway;
+        this.meterRegistry = meterRegistry;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.breaker = new CircuitBreaker(failureThreshold, openMs, System::currentTimeMillis);
+        this.workers = DaemonPools.fixed("payment", threads, queueCapacity);
+        // Las llamadas a la pasarela corren aparte: el worker espera con timeout y queda libre
+        // aunque la llamada no vuelva; si todas siguen colgadas, rechazar cuenta como falla
+        this.calls = DaemonPools.fixed("payment-call", threads, threads);
+
+        Gauge.builder("reservas.payments.queue", workers, executor -> executor.getQueue().size())
+                .description("Cobros en espera de la pasarela")
+                .register(meterRegistry);
+        Gauge.builder("reservas.payments.breaker.open", breaker,
+                        b -> b.state() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .description("1 si el circuit breaker de la pasarela está abierto o probando")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra el pago PENDING y encola el cobro. Lanza {@link GatewayUnavailableException} si
+     * el breaker está abierto o la cola está llena; el pago queda FAILED y se puede reintentar.
+     */
+    public Payment start(UUID reservationId, PaymentRequest request) {
+        long retryAfterMs = breaker.retryAfterMs();
+        if (retryAfterMs > 0) {
+            throw new GatewayUnavailableException("La pasarela de pago no está disponible, intenta más tarde.", retryAfterMs);
+        }
+        Payment payment = paymentService.createPendingPayment(reservationId, request);
+        if (!enqueue(payment.getId(), () -> charge(charge(payment), false))) {
+            // Nunca llegó a la pasarela: se puede marcar FAILED sin conciliar
+            paymentService.failPayment(payment.getId(), "Demasiados pagos en curso, intenta de nuevo.");
+            throw new GatewayUnavailableException("Demasiados pagos en curso, intenta de nuevo.", 1000);
+        }
+        return payment;
+    }
+
+    /**
+     * Concilia los pagos sin resultado: repite el cobro de los PENDING (timeout, error de red,
+     * reinicio) con la misma referencia y reintenta los reembolsos pendientes. Con el breaker
+     * abierto espera a la siguiente vuelta.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${reservas.payments.reconcile-interval-ms:60000}",
+               initialDelayString = "${reservas.payments.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        if (breaker.retryAfterMs() > 0) {
+            return;
+        }
+        int resumed = 0;
+        for (Long id : paymentRepository.findIdsByStatus("PENDING")) {
+            if (inFlight.contains(id)) continue;
+            Payment payment = paymentRepository.findById(id).orElse(null);
+            if (payment == null) continue;
+            if (enqueue(id, () -> charge(charge(payment), true))) resumed++;
+        }
+        for (Long id : paymentRepository.findIdsByStatus("REFUND_PENDING")) {
+            if (inFlight.contains(id)) continue;
+            Payment payment = paymentRepository.findById(id).orElse(null);
+            if (payment == null) continue;
+            if (enqueue(id, () -> refund(id, payment.getGatewayReference()))) resumed++;
+        }
+        if (resumed > 0) {
+            log.info("{} cobros o reembolsos sin resultado retomados", resumed);
+        }
+    }
+
+    /** Cobros y reembolsos encolados o en curso en esta réplica */
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        calls.shutdownNow();
+    }
+
+    private boolean enqueue(Long paymentId, Runnable task) {
+        if (!inFlight.add(paymentId)) {
+            return false;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    inFlight.remove(paymentId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(paymentId);
+            return false;
+        }
+    }
+
+    /** {@code retry}: el cobro pudo haber llegado a la pasarela en un intento anterior */
+    private void charge(GatewayCharge charge, boolean retry) {
+        if (!breaker.tryAcquire()) {
+            if (!retry) {
+                paymentService.failPayment(charge.paymentId(), "La pasarela de pago no está disponible, intenta más tarde.");
+            }
+            return;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        GatewayResult result;
+        try {
+            result = call(() -> gateway.charge(charge, timeout));
+            breaker.onSuccess();
+            sample.stop(gatewayTimer(result.approved() ? "approved" : "declined"));
+        } catch (PaymentGatewayException e) {
+            // Resultado desconocido: sigue PENDING y la conciliación repite el cobro con la misma referencia
+            breaker.onFailure();
+            sample.stop(gatewayTimer("unknown"));
+            log.warn("Cobro del pago {} sin respuesta de la pasarela: {}", charge.paymentId(), e.getMessage());
+            return;
+        }
+        String status;
+        try {
+            status = paymentService.completePayment(charge.paymentId(), result);
+        } catch (RuntimeException e) {
+            // Queda PENDING: se concilia con la misma referencia, sin cobrar dos veces
+            log.error("No se pudo registrar el resultado del pago {}", charge.paymentId(), e);
+            return;
+        }
+        if ("REFUND_PENDING".equals(status)) {
+            refund(charge.paymentId(), result.reference());
+        }
+    }
+
+    private void refund(Long paymentId, String reference) {
+        if (!breaker.tryAcquire()) {
+            return;
+        }
+        try {
+            call(() -> {
+                gateway.refund(paymentId, reference, timeout);
+                return null;
+            });
+            breaker.onSuccess();
+        } catch (PaymentGatewayException e) {
+            breaker.onFailure();
+            log.warn("Reembolso del pago {} sin respuesta de la pasarela: {}", paymentId, e.getMessage());
+            return;
+        }
+        paymentService.markRefunded(paymentId);
+    }
+
+    /**
+     * Llama a la pasarela en el pool de llamadas y espera a lo sumo {@code timeout}. Timeout,
+     * rechazo del pool o cualquier excepción del cliente se informan como
+     * {@link PaymentGatewayException}: el resultado es desconocido.
+     */
+    private <T> T call(Callable<T> operation) {
+        Future<T> future;
+        try {
+            future = calls.submit(operation);
+        } catch (RejectedExecutionException e) {
+            throw new PaymentGatewayException("Todas las llamadas a la pasarela siguen en curso", e);
+        }
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new PaymentGatewayException("La pasarela no respondió en " + timeout.toMillis() + " ms", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof PaymentGatewayException gatewayException ? gatewayException
+                    : new PaymentGatewayException(String.valueOf(cause.getMessage()), cause);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Cobro interrumpido", e);
+        }
+    }
+
+    private Timer gatewayTimer(String outcome) {
+        return Timer.builder("reservas.payments.gateway")
+                .description("Duración de los cobros en la pasarela")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static GatewayCharge charge(Payment payment) {
+        return new GatewayCharge(payment.getId(), GatewayCharge.reference(payment.getId(), payment.getChargeAttempt()),
+                payment.getAmount(), payment.getMethod(), payment.getCustomerEmail());
+    }
+}
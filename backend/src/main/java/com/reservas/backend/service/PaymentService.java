@@ -3,10 +3,13 @@ package com.reservas.backend.service;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.reservas.backend.dto.InvoiceDTO;
 import com.reservas.backend.dto.PaymentRequest;
+import com.reservas.backend.dto.PaymentStatusDTO;
 import com.reservas.backend.model.Payment;
 import com.reservas.backend.model.Reservation;
 import com.reservas.backend.repository.PaymentRepository;
@@ -17,68 +20,166 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepo;
     private final ReservationRepository reservationRepo;
+    private final AvailabilityIndex availabilityIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public PaymentService(PaymentRepository paymentRepo, ReservationRepository reservationRepo) {
+    public PaymentService(PaymentRepository paymentRepo, ReservationRepository reservationRepo,
+                          AvailabilityIndex availabilityIndex, ApplicationEventPublisher eventPublisher) {
         this.paymentRepo = paymentRepo;
         this.reservationRepo = reservationRepo;
+        this.availabilityIndex = availabilityIndex;
+        this.eventPublisher = eventPublisher;
     }
 
-    private String generateReadableCode(UUID reservationId) {
-        // Toma los primeros 8 caracteres del UUID y agrega prefijo R-
-        return "R-" + reservationId.toString().substring(0, 8).toUpperCase();
+    /**
+     * Registra el pago de la reserva en estado PENDING; el cobro lo hace PaymentProcessingService.
+     * Un pago FAILED anterior se reutiliza para el nuevo intento (un pago por reserva) con el
+     * número de intento siguiente: la pasarela recibe otra referencia y no repite el rechazo.
+     * Lanza IllegalStateException si ya hay un pago en curso o confirmado.
+     */
+    @Transactional
+    public Payment createPendingPayment(UUID reservationId, PaymentRequest request) {
+        if (request.getAmount() == null || request.getMethod() == null) {
+            throw new RuntimeException("Monto y método de pago son obligatorios");
+        }
+        // Bloquea la reserva: otro pago simultáneo o el vencimiento del hold esperan
+        Reservation reservation = reservationRepo.lockById(reservationId)
+                .orElseThrow(() -> new RuntimeException("Reserva no encontrada"));
+        if ("CANCELLED".equals(reservation.getStatus())) {
+            // p. ej. venció el plazo de pago (HoldExpiryService) y el horario ya se liberó
+            throw new RuntimeException("La reserva fue cancelada o venció el plazo de pago");
+        }
+
+        Payment payment = paymentRepo.findByReservationId(reservationId).orElse(null);
+        if (payment != null && "CONFIRMED".equals(payment.getStatus())) {
+            throw new IllegalStateException("La reserva ya está pagada.");
+        }
+        if (payment != null && "PENDING".equals(payment.getStatus())) {
+            throw new IllegalStateException("El pago de la reserva ya está en curso.");
+        }
+        if (payment == null) {
+            payment = new Payment(
+                    request.getAmount(),
+                    request.getMethod(),
+                    reservation,
+                    request.getCustomerName(),
+                    request.getCustomerEmail(),
+                    request.getCustomerPhone()
+            );
+        } else {
+            payment.setAmount(request.getAmount());
+            payment.setMethod(request.getMethod());
+            payment.setCustomerName(request.getCustomerName());
+            payment.setCustomerEmail(request.getCustomerEmail());
+            payment.setCustomerPhone(request.getCustomerPhone());
+            payment.setStatus("PENDING");
+            payment.setFailureReason(null);
+            payment.setChargeAttempt(payment.getChargeAttempt() + 1);
+        }
+        return paymentRepo.save(payment);
     }
 
     /**
-     * Procesa un pago real de la reserva
+     * Aplica la respuesta de la pasarela: confirma el pago y la reserva, o registra el rechazo.
+     * Si la reserva se canceló durante el cobro, el pago queda REFUND_PENDING hasta que
+     * PaymentProcessingService lo devuelva. Si el pago ya no está PENDING (otra réplica lo
+     * resolvió) no hace nada. Devuelve el estado en que quedó el pago.
      */
-    public InvoiceDTO processPayment(UUID reservationId, PaymentRequest request) {
-        Reservation reservation = reservationRepo.findById(reservationId)
-                .orElseThrow(() -> new RuntimeException("Reserva no encontrada"));
+    @Transactional
+    public String completePayment(Long paymentId, GatewayResult result) {
+        Payment payment = paymentRepo.lockById(paymentId).orElse(null);
+        if (payment == null || !"PENDING".equals(payment.getStatus())) {
+            return payment == null ? null : payment.getStatus();
+        }
+        if (!result.approved()) {
+            fail(payment, result.message());
+            return payment.getStatus();
+        }
 
-        Payment payment = new Payment(
-                request.getAmount(),
-                request.getMethod(),
-                reservation,
-                request.getCustomerName(),
-                request.getCustomerEmail(),
-                request.getCustomerPhone()
-        );
+        Reservation reservation = payment.getReservation();
+        payment.setGatewayReference(result.reference());
+        if ("CANCELLED".equals(reservation.getStatus())) {
+            // Cancelada por el usuario o un admin durante el cobro: se devuelve el cargo
+            payment.setStatus("REFUND_PENDING");
+            payment.setFailureReason("La reserva fue cancelada durante el cobro; se reembolsará el pago.");
+            return payment.getStatus();
+        }
 
         payment.setStatus("CONFIRMED");
         payment.setPaymentDate(LocalDateTime.now());
-
         reservation.setStatus("CONFIRMED");
 
-        reservationRepo.save(reservation);
-        paymentRepo.save(payment);
+        availabilityIndex.onSaved(reservationRepo.save(reservation));
+        eventPublisher.publishEvent(ReservationChangedEvent.updated(reservation,
+                reservation.getCourt().getId(), reservation.getDate()));
+        // El documento de factura se genera en otro hilo, después del commit
+        eventPublisher.publishEvent(new PaymentConfirmedEvent(payment.getId()));
+        return payment.getStatus();
+    }
 
-        String invoiceNumber = "INV-" + payment.getId();
-        String reservationCode = generateReadableCode(reservation.getId());
+    /** La pasarela confirmó la devolución del cobro */
+    @Transactional
+    public void markRefunded(Long paymentId) {
+        paymentRepo.lockById(paymentId)
+                .filter(payment -> "REFUND_PENDING".equals(payment.getStatus()))
+                .ifPresent(payment -> {
+                    payment.setStatus("REFUNDED");
+                    payment.setFailureReason("La reserva fue cancelada durante el cobro; el pago se reembolsó.");
+                });
+    }
 
-        return new InvoiceDTO(
-                invoiceNumber,
-                payment.getCustomerName(),
-                payment.getCustomerEmail(),
-                payment.getCustomerPhone(),
-                payment.getAmount(),
-                payment.getMethod().name(),
+    /** Cobro que no llegó a la pasarela (o rechazado): el pago queda FAILED y se puede volver a intentar */
+    @Transactional
+    public void failPayment(Long paymentId, String reason) {
+        paymentRepo.lockById(paymentId)
+                .filter(payment -> "PENDING".equals(payment.getStatus()))
+                .ifPresent(payment -> fail(payment, reason));
+    }
+
+    // La reserva vuelve a ser un hold sin pago: HoldExpiryService le devuelve su plazo
+    private void fail(Payment payment, String reason) {
+        payment.setStatus("FAILED");
+        payment.setFailureReason(reason);
+        Reservation reservation = payment.getReservation();
+        eventPublisher.publishEvent(ReservationChangedEvent.updated(reservation,
+                reservation.getCourt().getId(), reservation.getDate()));
+    }
+
+    /**
+     * Estado del cobro de la reserva (con la factura si ya se confirmó)
+     * Lanza excepción si no existe pago
+     */
+    public PaymentStatusDTO getPaymentStatus(UUID reservationId) {
+        Payment payment = paymentRepo.findByReservationId(reservationId)
+                .orElseThrow(() -> new RuntimeException("No existe pago para la reserva " + reservationId));
+        return toStatus(payment);
+    }
+
+    public static PaymentStatusDTO toStatus(Payment payment) {
+        return new PaymentStatusDTO(
+                payment.getReservation().getId(),
+                payment.getId(),
                 payment.getStatus(),
-                payment.getPaymentDate(),
-                reservationCode
+                payment.getFailureReason(),
+                "CONFIRMED".equals(payment.getStatus()) ? toInvoice(payment) : null
         );
     }
 
     /**
      * Obtiene la factura de la reserva
-     * Lanza excepción si no existe pago
+     * Lanza excepción si no existe pago confirmado
      */
     public InvoiceDTO getInvoiceByReservation(UUID reservationId) {
         Payment payment = paymentRepo.findByReservationId(reservationId)
+                .filter(p -> "CONFIRMED".equals(p.getStatus()))
                 .orElseThrow(() -> new RuntimeException("Factura no encontrada para la reserva " + reservationId));
+        return toInvoice(payment);
+    }
 
+    private static InvoiceDTO toInvoice(Payment payment) {
         Reservation reservation = payment.getReservation();
         String invoiceNumber = "INV-" + payment.getId();
-        String reservationCode = generateReadableCode(reservation.getId());
+        String reservationCode = reservation.getCode();
 
         return new InvoiceDTO(
                 invoiceNumber,
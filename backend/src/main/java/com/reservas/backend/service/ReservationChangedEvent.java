@@ -0,0 +1,57 @@
+package com.reservas.backend.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.UUID;
+
+import com.reservas.backend.model.Reservation;
+
+/**
+ * Una reserva se creó, cambió, se canceló o se eliminó (ya confirmado en la BD).
+ * {@code previousCourtId}/{@code previousDate} indican dónde estaba antes de un cambio (null al crearla).
+ * {@code holdExpiresAt} es el plazo de pago si es un hold del checkout (null en series, admin, etc.).
+ */
+public record ReservationChangedEvent(UUID reservationId,
+                                      UUID courtId,
+                                      LocalDate date,
+                                      LocalTime startTime,
+                                      LocalTime endTime,
+                                      String status,
+                                      boolean removed,
+                                      UUID previousCourtId,
+                                      LocalDate previousDate,
+                                      LocalDateTime holdExpiresAt) {
+
+    public static ReservationChangedEvent created(Reservation reservation) {
+        return new ReservationChangedEvent(reservation.getId(), reservation.getCourt().getId(), reservation.getDate(),
+                reservation.getStartTime(), reservation.getEndTime(), reservation.getStatus(), false, null, null,
+                reservation.getHoldExpiresAt());
+    }
+
+    public static ReservationChangedEvent updated(Reservation reservation, UUID previousCourtId, LocalDate previousDate) {
+        return new ReservationChangedEvent(reservation.getId(), reservation.getCourt().getId(), reservation.getDate(),
+                reservation.getStartTime(), reservation.getEndTime(), reservation.getStatus(), false,
+                previousCourtId, previousDate, reservation.getHoldExpiresAt());
+    }
+
+    public static ReservationChangedEvent deleted(Reservation reservation) {
+        return new ReservationChangedEvent(reservation.getId(), reservation.getCourt().getId(), reservation.getDate(),
+                reservation.getStartTime(), reservation.getEndTime(), reservation.getStatus(), true,
+                reservation.getCourt().getId(), reservation.getDate(), reservation.getHoldExpiresAt());
+    }
+
+    /** Si ya no ocupa horario (cancelada o eliminada) */
+    public boolean releasesSlot() {
+        return removed || "CANCELLED".equals(status);
+    }
+
+    public boolean isCreation() {
+        return previousCourtId == null;
+    }
+
+    /** Si un cambio la pasó a otra cancha o día */
+    public boolean moved() {
+        return previousCourtId != null && (!courtId.equals(previousCourtId) || !date.equals(previousDate));
+    }
+}
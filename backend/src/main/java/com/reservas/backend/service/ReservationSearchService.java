@@ -0,0 +1,177 @@
+package com.reservas.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.reservas.backend.dto.ReservationDTO;
+import com.reservas.backend.dto.ReservationPageDTO;
+import com.reservas.backend.dto.ReservationSearchCriteria;
+import com.reservas.backend.model.Reservation;
+import com.reservas.backend.repository.ReservationRepository;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * Búsqueda de reservas con filtros y paginación por cursor (keyset).
+ *
+ * En lugar de OFFSET, cada página continúa desde la última fila de la anterior
+ * ({@code WHERE (date, start_time, id) > (...)}), así que el costo no crece con la
+ * profundidad. El cursor es un token opaco en Base64 con el orden y la última clave.
+ */
+@Service
+public class ReservationSearchService {
+
+    private static final int DEFAULT_SIZE = 20;
+    private static final int MAX_SIZE = 100;
+
+    private final ReservationRepository reservationRepository;
+
+    public ReservationSearchService(ReservationRepository reservationRepository) {
+        this.reservationRepository = reservationRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public ReservationPageDTO search(ReservationSearchCriteria criteria) {
+        boolean byCode = "code".equalsIgnoreCase(criteria.getSort());
+        if (!byCode && criteria.getSort() != null && !"date".equalsIgnoreCase(criteria.getSort())) {
+            throw new IllegalArgumentException("Orden no soportado: " + criteria.getSort());
+        }
+        boolean descending = "desc".equalsIgnoreCase(criteria.getDirection());
+        int size = criteria.getSize() == null ? DEFAULT_SIZE : Math.max(1, Math.min(criteria.getSize(), MAX_SIZE));
+
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = byCode
+                ? Sort.by(direction, "code")
+                : Sort.by(direction, "date", "startTime", "id");
+
+        Specification<Reservation> spec = filters(criteria);
+        if (criteria.getCursor() != null && !criteria.getCursor().isBlank()) {
+            spec = spec.and(after(Cursor.decode(criteria.getCursor(), byCode, descending)));
+        }
+
+        // Se pide una fila extra para saber si hay otra página sin hacer COUNT
+        List<Reservation> rows = reservationRepository.findBy(spec, q -> q.sortBy(sort).limit(size + 1).all());
+        boolean hasMore = rows.size() > size;
+        List<Reservation> page = hasMore ? rows.subList(0, size) : rows;
+
+        List<ReservationDTO> items = new ArrayList<>(page.size());
+        page.forEach(r -> items.add(new ReservationDTO(r)));
+
+        String nextCursor = hasMore ? Cursor.of(page.get(page.size() - 1), byCode, descending).encode() : null;
+        return new ReservationPageDTO(items, nextCursor);
+    }
+
+    private static Specification<Reservation> filters(ReservationSearchCriteria c) {
+        return (root, query, cb) -> {
+            // Cancha y usuario en la misma consulta (evita 2 SELECT por fila al armar el DTO)
+            if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+                root.fetch("court");
+                root.fetch("user");
+            }
+            List<Predicate> predicates = new ArrayList<>();
+            if (c.getFrom() != null) predicates.add(cb.greaterThanOrEqualTo(root.get("date"), c.getFrom()));
+            if (c.getTo() != null) predicates.add(cb.lessThanOrEqualTo(root.get("date"), c.getTo()));
+            if (c.getStatus() != null && !c.getStatus().isBlank()) {
+                predicates.add(cb.equal(root.get("status"), c.getStatus().toUpperCase(Locale.ROOT)));
+            }
+            if (c.getCourtId() != null) predicates.add(cb.equal(root.get("court").get("id"), c.getCourtId()));
+            if (c.getUserId() != null) predicates.add(cb.equal(root.get("user").get("id"), c.getUserId()));
+            if (c.getCodePrefix() != null && !c.getCodePrefix().isBlank()) {
+                String prefix = c.getCodePrefix().toUpperCase(Locale.ROOT)
+                        .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+                predicates.add(cb.like(root.get("code"), prefix + "%", '\\'));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /** Filas estrictamente posteriores al cursor según el orden pedido */
+    private static Specification<Reservation> after(Cursor cursor) {
+        return (root, query, cb) -> {
+            if (cursor.code != null) {
+                return beyond(cb, root.get("code"), cursor.code, cursor.descending);
+            }
+            // (date, startTime, id) > (d, s, i), expandido para que lo entienda cualquier motor
+            return cb.or(
+                    beyond(cb, root.get("date"), cursor.date, cursor.descending),
+                    cb.and(cb.equal(root.get("date"), cursor.date),
+                           beyond(cb, root.get("startTime"), cursor.startTime, cursor.descending)),
+                    cb.and(cb.equal(root.get("date"), cursor.date),
+                           cb.equal(root.get("startTime"), cursor.startTime),
+                           beyond(cb, root.get("id"), cursor.id, cursor.descending)));
+        };
+    }
+
+    private static <T extends Comparable<? super T>> Predicate beyond(CriteriaBuilder cb,
+                                                                       Path<T> path,
+                                                                       T value, boolean descending) {
+        return descending ? cb.lessThan(path, value) : cb.greaterThan(path, value);
+    }
+
+    /** Última clave de una página, serializada como token opaco */
+    private static final class Cursor {
+        private final boolean descending;
+        private String code;
+        private LocalDate date;
+        private LocalTime startTime;
+        private UUID id;
+
+        private Cursor(boolean descending) {
+            this.descending = descending;
+        }
+
+        static Cursor of(Reservation last, boolean byCode, boolean descending) {
+            Cursor cursor = new Cursor(descending);
+            if (byCode) {
+                cursor.code = last.getCode();
+            } else {
+                cursor.date = last.getDate();
+                cursor.startTime = last.getStartTime();
+                cursor.id = last.getId();
+            }
+            return cursor;
+        }
+
+        String encode() {
+            String dir = descending ? "desc" : "asc";
+            String raw = code != null
+                    ? "code|" + dir + "|" + code
+                    : "date|" + dir + "|" + date + "|" + startTime + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String token, boolean byCode, boolean descending) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", -1);
+                String dir = descending ? "desc" : "asc";
+                Cursor cursor = new Cursor(descending);
+                if (byCode && parts.length == 3 && parts[0].equals("code") && parts[1].equals(dir)) {
+                    cursor.code = parts[2];
+                    return cursor;
+                }
+                if (!byCode && parts.length == 5 && parts[0].equals("date") && parts[1].equals(dir)) {
+                    cursor.date = LocalDate.parse(parts[2]);
+                    cursor.startTime = LocalTime.parse(parts[3]);
+                    cursor.id = UUID.fromString(parts[4]);
+                    return cursor;
+                }
+            } catch (RuntimeException e) {
+                // se informa abajo como cursor inválido
+            }
+            throw new IllegalArgumentException("Cursor inválido o de otra búsqueda.");
+        }
+    }
+}
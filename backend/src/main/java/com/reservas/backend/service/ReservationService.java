@@ -17,22 +17,11 @@ public class ReservationService {
         this.reservationRepository = reservationRepository;
     }
 
-    /** Guarda la reserva asegurando un código único */
+    /** Guarda la reserva; si no tiene código lo asigna CodeAssignmentListener al insertarla */
     public Reservation saveReservation(Reservation reservation) {
-        // Generar UUID si es nulo
-        if (reservation.getId() == null) {
-            reservation.setId(UUID.randomUUID());
+        if (reservation.getCode() != null && reservation.getCode().isBlank()) {
+            reservation.setCode(null);
         }
-
-        // Generar código único si es null o vacío
-        if (reservation.getCode() == null || reservation.getCode().isBlank()) {
-            String code;
-            do {
-                code = "R-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-            } while (reservationRepository.existsByCode(code));
-            reservation.setCode(code);
-        }
-
         return reservationRepository.save(reservation);
     }
 
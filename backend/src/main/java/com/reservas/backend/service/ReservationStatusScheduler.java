@@ -0,0 +1,85 @@
+package com.reservas.backend.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.reservas.backend.repository.ReservationRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Pasa a FINISHED las reservas PENDING cuyo horario ya terminó.
+ *
+ * Antes lo hacía el GET de reservas guardando una por una; ahora es un UPDATE por bloques
+ * en segundo plano, cada bloque en su propia transacción para no retener muchos bloqueos.
+ */
+@Service
+public class ReservationStatusScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationStatusScheduler.class);
+
+    private final ReservationRepository reservationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AvailabilityIndex availabilityIndex;
+    private final int chunkSize;
+    private final Counter finishedCounter;
+    private final Timer runTimer;
+
+    public ReservationStatusScheduler(ReservationRepository reservationRepository,
+                                      TransactionTemplate transactionTemplate,
+                                      AvailabilityIndex availabilityIndex,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${reservas.status.chunk-size:500}") int chunkSize) {
+        this.reservationRepository = reservationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.availabilityIndex = availabilityIndex;
+        this.chunkSize = chunkSize;
+        this.finishedCounter = Counter.builder("reservas.status.transitions")
+                .description("Reservas cambiadas de estado por el proceso programado")
+                .tag("from", "PENDING")
+                .tag("to", "FINISHED")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("reservas.status.run")
+                .description("Duración de cada ejecución del proceso de estados")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${reservas.status.finish-interval-ms:60000}",
+               initialDelayString = "${reservas.status.finish-interval-ms:60000}")
+    public void finishElapsedReservations() {
+        int total = runTimer.record(this::finishInChunks);
+        if (total > 0) {
+            log.info("{} reservas PENDING pasaron a FINISHED", total);
+        }
+    }
+
+    private int finishInChunks() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        List<UUID> finished;
+        do {
+            finished = transactionTemplate.execute(status -> {
+                List<UUID> ids = reservationRepository.lockElapsedPending(now.toLocalDate(), now.toLocalTime(),
+                        Limit.of(chunkSize));
+                if (!ids.isEmpty()) reservationRepository.finishByIds(ids);
+                return ids;
+            });
+            // Solo los días de estas reservas recargan el listado; la ocupación no cambia
+            availabilityIndex.onStatusChanged(finished);
+            total += finished.size();
+            finishedCounter.increment(finished.size());
+        } while (finished.size() == chunkSize);
+        return total;
+    }
+}
@@ -0,0 +1,71 @@
+package com.reservas.backend.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.reservas.backend.model.Role;
+import com.reservas.backend.repository.RoleRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Roles en memoria, por nombre. La tabla tiene tres filas y cambia casi nunca, así que
+ * registro, alta de usuarios e importaciones la leen de aquí en lugar de un SELECT por petición.
+ *
+ * Se entregan copias desacopladas (solo id y nombre): sirven para asociar el rol a un usuario,
+ * ya que {@code user_roles} solo necesita el id, y leer el nombre no dispara consultas.
+ *
+ * Se recarga al arrancar, con {@link RolesChangedEvent} en esta réplica, con
+ * {@code POST /api/roles/refresh} (para avisar a las demás) y periódicamente como respaldo.
+ */
+@Service
+public class RoleRegistry {
+
+    private final RoleRepository roleRepository;
+    private volatile Map<String, Role> byName = Map.of();
+
+    public RoleRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${reservas.roles.refresh-interval-ms:300000}",
+               initialDelayString = "${reservas.roles.refresh-interval-ms:300000}")
+    public void refresh() {
+        Map<String, Role> loaded = new HashMap<>();
+        for (Role role : roleRepository.findAll()) {
+            loaded.put(role.getName(), copy(role));
+        }
+        byName = Map.copyOf(loaded);
+    }
+
+    @EventListener
+    public void onRolesChanged(RolesChangedEvent event) {
+        refresh();
+    }
+
+    public Optional<Role> find(String name) {
+        Role role = name == null ? null : byName.get(name);
+        return role == null ? Optional.empty() : Optional.of(copy(role));
+    }
+
+    public List<Role> findAll() {
+        List<Role> roles = new ArrayList<>(byName.size());
+        byName.values().forEach(role -> roles.add(copy(role)));
+        return roles;
+    }
+
+    // Copia por llamada: la instancia no queda compartida entre sesiones de Hibernate
+    private static Role copy(Role role) {
+        Role copy = new Role(role.getName());
+        copy.setId(role.getId());
+        return copy;
+    }
+}
@@ -2,6 +2,7 @@ package com.reservas.backend.service;
 
 import java.util.Optional;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import com.reservas.backend.model.Role;
@@ -11,16 +12,27 @@ import com.reservas.backend.repository.RoleRepository;
 public class RoleService {
 
     private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public RoleService(RoleRepository roleRepository) {
+    public RoleService(RoleRepository roleRepository, RoleRegistry roleRegistry, ApplicationEventPublisher eventPublisher) {
         this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
+        this.eventPublisher = eventPublisher;
     }
 
     public Optional<Role> findByName(String name) {
-        return roleRepository.findByName(name);
+        return roleRegistry.find(name);
     }
 
     public Role saveRole(Role role) {
-        return roleRepository.save(role);
+        Role saved = roleRepository.save(role);
+        eventPublisher.publishEvent(new RolesChangedEvent());
+        return saved;
+    }
+
+    public void deleteRole(Long id) {
+        roleRepository.deleteById(id);
+        eventPublisher.publishEvent(new RolesChangedEvent());
     }
 }
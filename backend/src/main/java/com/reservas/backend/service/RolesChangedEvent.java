@@ -0,0 +1,5 @@
+package com.reservas.backend.service;
+
+/** Se publica después de crear, renombrar o borrar un rol; {@link RoleRegistry} se recarga */
+public record RolesChangedEvent() {
+}
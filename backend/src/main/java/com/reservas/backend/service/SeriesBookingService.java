@@ -0,0 +1,170 @@
+package com.reservas.backend.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.reservas.backend.dto.SeriesOccurrenceDTO;
+import com.reservas.backend.dto.SeriesReservationRequest;
+import com.reservas.backend.dto.SeriesReservationResultDTO;
+import com.reservas.backend.dto.TimeIntervalDTO;
+import com.reservas.backend.model.Court;
+import com.reservas.backend.model.Reservation;
+import com.reservas.backend.model.User;
+import com.reservas.backend.repository.ReservationRepository;
+
+/**
+ * Reservas recurrentes (semanales o quincenales) de una misma cancha y horario.
+ *
+ * Expande las fechas de la serie, trae la ocupación de todo el rango en una sola consulta y
+ * guarda las ocurrencias libres en una transacción con inserts en lote (hibernate.jdbc.batch_size).
+ * Las ocurrencias ocupadas se informan como CONFLICT sin cancelar el resto de la serie.
+ */
+@Service
+public class SeriesBookingService {
+
+    public static final int MAX_OCCURRENCES = 60;
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final ReservationRepository reservationRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final BookingEngine bookingEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean databaseMode;
+
+    public SeriesBookingService(ReservationRepository reservationRepository,
+                                AvailabilityIndex availabilityIndex,
+                                BookingEngine bookingEngine,
+                                TransactionTemplate transactionTemplate,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${reservas.booking.mode:sequencer}") String bookingMode) {
+        this.reservationRepository = reservationRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.bookingEngine = bookingEngine;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.databaseMode = "database".equalsIgnoreCase(bookingMode);
+    }
+
+    public SeriesReservationResultDTO bookSeries(SeriesReservationRequest request, Court court, User user) {
+        List<LocalDate> dates = expand(request);
+        if (databaseMode) {
+            // La restricción reservation_no_overlap protege contra otras réplicas: si alguien
+            // reservó entre la consulta y el INSERT, se vuelve a calcular la serie
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return validateAndSave(dates, request, court, user);
+                } catch (RuntimeException e) {
+                    if (!DatabaseBookingService.isOverlapViolation(e) || attempt == MAX_ATTEMPTS) {
+                        throw DatabaseBookingService.translate(e, "La serie entra en conflicto con otra reserva.");
+                    }
+                }
+            }
+        }
+        // En el hilo escritor de la cancha ninguna otra reserva puede colarse entre validar y guardar
+        return bookingEngine.runExclusive(court.getId(), () -> validateAndSave(dates, request, court, user));
+    }
+
+    /** Fechas de la serie, sin las excepciones */
+    List<LocalDate> expand(SeriesReservationRequest request) {
+        if (request.getStartDate() == null || request.getEndDate() == null
+                || request.getStartTime() == null || request.getEndTime() == null) {
+            throw new IllegalArgumentException("Fechas y horario de la serie son obligatorios.");
+        }
+        if (request.getStartDate().isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("La fecha no puede ser anterior al día de hoy.");
+        }
+        if (request.getEndDate().isBefore(request.getStartDate())) {
+            throw new IllegalArgumentException("La fecha final no puede ser anterior a la inicial.");
+        }
+        if (!request.getStartTime().isBefore(request.getEndTime())) {
+            throw new IllegalArgumentException("La hora de inicio debe ser menor que la hora de fin.");
+        }
+
+        String frequency = request.getFrequency() == null ? "WEEKLY" : request.getFrequency().toUpperCase(Locale.ROOT);
+        int stepWeeks = switch (frequency) {
+            case "WEEKLY" -> 1;
+            case "BIWEEKLY" -> 2;
+            default -> throw new IllegalArgumentException("Frecuencia no soportada: " + request.getFrequency());
+        };
+
+        Set<LocalDate> exceptions = request.getExceptions() == null ? Set.of() : new HashSet<>(request.getExceptions());
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = request.getStartDate(); !date.isAfter(request.getEndDate()); date = date.plusWeeks(stepWeeks)) {
+            if (exceptions.contains(date)) continue;
+            if (dates.size() == MAX_OCCURRENCES) {
+                throw new IllegalArgumentException("La serie no puede superar " + MAX_OCCURRENCES + " ocurrencias.");
+            }
+            dates.add(date);
+        }
+        if (dates.isEmpty()) {
+            throw new IllegalArgumentException("La serie no tiene ocurrencias.");
+        }
+        return dates;
+    }
+
+    private SeriesReservationResultDTO validateAndSave(List<LocalDate> dates, SeriesReservationRequest request,
+                                                      Court court, User user) {
+        LocalTime start = request.getStartTime();
+        LocalTime end = request.getEndTime();
+
+        // Una consulta para todo el rango; viene ordenada, así que se recorre una sola vez
+        List<TimeIntervalDTO> occupied = reservationRepository.findOccupiedIntervals(
+                court.getId(), dates.get(0), dates.get(dates.size() - 1));
+
+        List<SeriesOccurrenceDTO> occurrences = new ArrayList<>(dates.size());
+        List<Reservation> toSave = new ArrayList<>();
+        int next = 0;
+        for (LocalDate date : dates) {
+            LocalDateTime from = date.atTime(start);
+            LocalDateTime to = date.atTime(end);
+            while (next < occupied.size() && !occupied.get(next).getEnd().isAfter(from)) next++;
+
+            boolean conflict = false;
+            for (int i = next; i < occupied.size() && occupied.get(i).getStart().isBefore(to); i++) {
+                if (occupied.get(i).getEnd().isAfter(from)) {
+                    conflict = true;
+                    break;
+                }
+            }
+            if (conflict) {
+                occurrences.add(new SeriesOccurrenceDTO(date, "CONFLICT", null, null));
+                continue;
+            }
+
+            Reservation reservation = new Reservation(date, start, end, user, court);
+            reservation.setStatus(from.isAfter(LocalDateTime.now()) ? "PENDING" : "CONFIRMED");
+            toSave.add(reservation);
+            occurrences.add(new SeriesOccurrenceDTO(date, "BOOKED", null, null));
+        }
+
+        if (!toSave.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> reservationRepository.saveAll(toSave));
+            toSave.forEach(availabilityIndex::onSaved);
+            toSave.forEach(r -> eventPublisher.publishEvent(ReservationChangedEvent.created(r)));
+        }
+
+        // Completa id y código de las ocurrencias guardadas (mismo orden que toSave)
+        int saved = 0;
+        for (SeriesOccurrenceDTO occurrence : occurrences) {
+            if ("BOOKED".equals(occurrence.getResult())) {
+                Reservation reservation = toSave.get(saved++);
+                occurrence.setReservationId(reservation.getId());
+                occurrence.setCode(reservation.getCode());
+            }
+        }
+        return new SeriesReservationResultDTO(occurrences);
+    }
+}
@@ -0,0 +1,66 @@
+package com.reservas.backend.service;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pasarela local para desarrollo y pruebas de carga: aprueba cobros y reembolsos tras una
+ * latencia configurable y simula rechazos y fallas técnicas con la proporción indicada. Se
+ * reemplaza declarando otra implementación de {@link PaymentGateway} con
+ * {@code reservas.payments.gateway} distinto de stub.
+ */
+@Component
+@ConditionalOnProperty(name = "reservas.payments.gateway", havingValue = "stub", matchIfMissing = true)
+public class StubPaymentGateway implements PaymentGateway {
+
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double failureRate;
+    private final double declineRate;
+
+    public StubPaymentGateway(@Value("${reservas.payments.stub.latency-ms:300}") long latencyMs,
+                              @Value("${reservas.payments.stub.jitter-ms:200}") long jitterMs,
+                              @Value("${reservas.payments.stub.failure-rate:0.0}") double failureRate,
+                              @Value("${reservas.payments.stub.decline-rate:0.0}") double declineRate) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.failureRate = failureRate;
+        this.declineRate = declineRate;
+    }
+
+    @Override
+    public GatewayResult charge(GatewayCharge charge, Duration timeout) {
+        simulateCall(timeout);
+        if (ThreadLocalRandom.current().nextDouble() < declineRate) {
+            return GatewayResult.declined("Pago rechazado por la entidad emisora");
+        }
+        return GatewayResult.approved("STUB-" + charge.reference());
+    }
+
+    @Override
+    public void refund(Long paymentId, String reference, Duration timeout) {
+        simulateCall(timeout);
+    }
+
+    private void simulateCall(Duration timeout) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long latency = latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs + 1) : 0);
+        boolean timedOut = latency > timeout.toMillis();
+        try {
+            Thread.sleep(timedOut ? timeout.toMillis() : latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Llamada a la pasarela interrumpida", e);
+        }
+        if (timedOut) {
+            throw new PaymentGatewayException("La pasarela no respondió en " + timeout.toMillis() + " ms");
+        }
+        if (random.nextDouble() < failureRate) {
+            throw new PaymentGatewayException("Error simulado de la pasarela");
+        }
+    }
+}
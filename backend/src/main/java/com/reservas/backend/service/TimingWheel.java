@@ -0,0 +1,102 @@
+package com.reservas.backend.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rueda de tiempo jerárquica (no sincronizada; quien la usa pone el lock).
+ *
+ * El nivel 0 tiene {@code wheelSize} casilleros de {@code tickMs}; cada nivel superior cubre
+ * una vuelta completa del anterior por casillero. Agregar y avanzar un tick son O(1) sin
+ * importar cuántos plazos haya: solo se tocan los casilleros que vencen. Al llegar a un
+ * casillero de un nivel superior sus entradas bajan al nivel que les corresponde. Los plazos
+ * más allá del último nivel se vuelven a ubicar cada vez que pasa su casillero.
+ *
+ * Precisión: un tick. Un plazo ya vencido al agregarlo se entrega en el siguiente avance.
+ */
+public final class TimingWheel<K> {
+
+    private record Entry<K>(K key, long deadline) {}
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long[] levelTick;
+    private final ArrayDeque<Entry<K>>[][] buckets;
+    private final List<Entry<K>> ready = new ArrayList<>();
+    private long currentTime;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMs, int wheelSize, int levels, long startTime) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.levelTick = new long[levels];
+        this.buckets = new ArrayDeque[levels][wheelSize];
+        long tick = tickMs;
+        for (int level = 0; level < levels; level++) {
+            levelTick[level] = tick;
+            for (int i = 0; i < wheelSize; i++) buckets[level][i] = new ArrayDeque<>();
+            tick *= wheelSize;
+        }
+        this.currentTime = startTime - Math.floorMod(startTime, tickMs);
+    }
+
+    public void add(K key, long deadline) {
+        size++;
+        place(new Entry<>(key, deadline));
+    }
+
+    /**
+     * Avanza hasta {@code now} y devuelve las claves vencidas, con su plazo, en {@code expired}.
+     * Cada clave se entrega una sola vez.
+     */
+    public void advance(long now, List<K> expired) {
+        drainReady(expired);
+        while (currentTime + tickMs <= now) {
+            currentTime += tickMs;
+            // Primero bajan los niveles superiores, así lo que cae en el tick actual vence ahora
+            for (int level = levelTick.length - 1; level >= 0; level--) {
+                if (currentTime % levelTick[level] != 0) continue;
+                int index = index(currentTime, level);
+                ArrayDeque<Entry<K>> bucket = buckets[level][index];
+                if (bucket.isEmpty()) continue;
+                // Se cambia el casillero antes de reubicar: un plazo más allá del último nivel
+                // puede volver a caer en este mismo
+                buckets[level][index] = new ArrayDeque<>();
+                bucket.forEach(this::place);
+            }
+            drainReady(expired);
+        }
+    }
+
+    /** Plazos pendientes (incluye los ya cancelados que aún no pasaron por su casillero) */
+    public int size() {
+        return size;
+    }
+
+    private void place(Entry<K> entry) {
+        long delta = entry.deadline() - currentTime;
+        if (delta < tickMs) {
+            ready.add(entry);
+            return;
+        }
+        int last = levelTick.length - 1;
+        for (int level = 0; level <= last; level++) {
+            if (level == last || delta < levelTick[level] * wheelSize) {
+                buckets[level][index(entry.deadline(), level)].add(entry);
+                return;
+            }
+        }
+    }
+
+    private void drainReady(List<K> expired) {
+        for (Entry<K> entry : ready) expired.add(entry.key());
+        size -= ready.size();
+        ready.clear();
+    }
+
+    private int index(long time, int level) {
+        return (int) Math.floorMod(time / levelTick[level], (long) wheelSize);
+    }
+}
@@ -0,0 +1,122 @@
+package com.reservas.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.reservas.backend.dto.UserDTO;
+import com.reservas.backend.dto.UserLookupDTO;
+import com.reservas.backend.dto.UserPageDTO;
+import com.reservas.backend.dto.UserSearchCriteria;
+import com.reservas.backend.model.User;
+import com.reservas.backend.repository.UserRepository;
+
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * Directorio de usuarios paginado por cursor sobre (apellido, id), igual que la búsqueda de
+ * reservas. Los roles de la página se cargan en un solo SELECT ... IN (ver {@code User.roles}).
+ */
+@Service
+public class UserSearchService {
+
+    private static final int DEFAULT_SIZE = 20;
+    private static final int MAX_SIZE = 100;
+    private static final Sort ORDER = Sort.by("lastName", "id");
+
+    private final UserRepository userRepository;
+
+    public UserSearchService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public UserPageDTO search(UserSearchCriteria criteria) {
+        int size = criteria.getSize() == null ? DEFAULT_SIZE : Math.max(1, Math.min(criteria.getSize(), MAX_SIZE));
+
+        Specification<User> spec = filters(criteria);
+        if (criteria.getCursor() != null && !criteria.getCursor().isBlank()) {
+            spec = spec.and(after(Cursor.decode(criteria.getCursor())));
+        }
+
+        // Una fila extra indica si hay otra página sin hacer COUNT
+        List<User> rows = userRepository.findBy(spec, q -> q.sortBy(ORDER).limit(size + 1).all());
+        boolean hasMore = rows.size() > size;
+        List<User> page = hasMore ? rows.subList(0, size) : rows;
+
+        List<UserDTO> items = new ArrayList<>(page.size());
+        page.forEach(u -> items.add(new UserDTO(u)));
+
+        User last = page.isEmpty() ? null : page.get(page.size() - 1);
+        String nextCursor = hasMore ? new Cursor(last.getLastName(), last.getId()).encode() : null;
+        return new UserPageDTO(items, nextCursor);
+    }
+
+    /** Id y nombre de los usuarios que empiezan con {@code query}, para listas desplegables */
+    @Transactional(readOnly = true)
+    public List<UserLookupDTO> lookup(String query, Integer limit) {
+        int max = limit == null ? MAX_SIZE : Math.max(1, Math.min(limit, MAX_SIZE));
+        return userRepository.lookup(likePrefix(query), Limit.of(max));
+    }
+
+    private static Specification<User> filters(UserSearchCriteria c) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (c.getQuery() != null && !c.getQuery().isBlank()) {
+                String prefix = likePrefix(c.getQuery());
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("firstName")), prefix, '\\'),
+                        cb.like(cb.lower(root.get("lastName")), prefix, '\\'),
+                        cb.like(cb.lower(root.get("email")), prefix, '\\')));
+            }
+            if (c.getStatus() != null && !c.getStatus().isBlank()) {
+                predicates.add(cb.equal(root.get("status"), c.getStatus().toUpperCase(Locale.ROOT)));
+            }
+            if (c.getRole() != null && !c.getRole().isBlank()) {
+                predicates.add(cb.equal(root.join("roles").get("name"), c.getRole().toUpperCase(Locale.ROOT)));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /** (lastName, id) > (n, i) expandido */
+    private static Specification<User> after(Cursor cursor) {
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("lastName"), cursor.lastName),
+                cb.and(cb.equal(root.get("lastName"), cursor.lastName),
+                       cb.greaterThan(root.get("id"), cursor.id)));
+    }
+
+    private static String likePrefix(String text) {
+        String prefix = text == null ? "" : text.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return prefix + "%";
+    }
+
+    /** Última clave de una página, serializada como token opaco */
+    private record Cursor(String lastName, Long id) {
+
+        String encode() {
+            String raw = id + "|" + lastName;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int bar = raw.indexOf('|');
+                return new Cursor(raw.substring(bar + 1), Long.valueOf(raw.substring(0, bar)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cursor inválido o de otra búsqueda.");
+            }
+        }
+    }
+}
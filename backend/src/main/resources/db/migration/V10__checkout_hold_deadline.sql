@@ -0,0 +1,9 @@
+-- Plazo de pago propio de los holds del checkout (HoldExpiryService). Solo lo llena
+-- POST /api/reservations para el cliente: las series, las reservas del admin y las filas
+-- anteriores quedan en NULL y no vencen.
+ALTER TABLE reservation ADD COLUMN hold_expires_at timestamp(6);
+
+-- Recuperación al arrancar y revisión periódica: solo los holds PENDING, que son pocos
+DROP INDEX IF EXISTS reservation_hold_created_idx;
+CREATE INDEX reservation_hold_expiry_idx ON reservation (hold_expires_at)
+    WHERE status = 'PENDING' AND hold_expires_at IS NOT NULL;
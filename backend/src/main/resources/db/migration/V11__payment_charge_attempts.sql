@@ -0,0 +1,3 @@
+-- Número de intento de cobro: la referencia idempotente en la pasarela es id del pago + intento,
+-- así un reintento después de un rechazo no recibe el rechazo original
+ALTER TABLE payment ADD COLUMN charge_attempt integer NOT NULL DEFAULT 1;
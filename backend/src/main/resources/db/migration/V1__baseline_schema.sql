@@ -0,0 +1,86 @@
+-- Esquema inicial: el mismo que generaba Hibernate con ddl-auto=create, más los objetos que
+-- Hibernate no genera (secuencias de códigos y exclusión de solapamientos).
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Ids pooled (allocationSize = 50 en las entidades)
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE role_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE payment_seq START WITH 1 INCREMENT BY 50;
+
+-- Códigos legibles R-/C-: cada nextval reserva un bloque (CodeGenerator.BLOCK_SIZE)
+CREATE SEQUENCE reservation_code_seq START WITH 1 INCREMENT BY 100;
+CREATE SEQUENCE court_code_seq START WITH 1 INCREMENT BY 100;
+
+CREATE TABLE users (
+    id            bigint       NOT NULL,
+    first_name    varchar(255) NOT NULL,
+    last_name     varchar(255) NOT NULL,
+    email         varchar(255) NOT NULL,
+    password      varchar(255) NOT NULL,
+    phone_number  varchar(255),
+    date_of_birth date,
+    status        varchar(255),
+    CONSTRAINT users_pkey PRIMARY KEY (id),
+    CONSTRAINT users_email_key UNIQUE (email)
+);
+
+CREATE TABLE roles (
+    id   bigint       NOT NULL,
+    name varchar(255) NOT NULL,
+    CONSTRAINT roles_pkey PRIMARY KEY (id),
+    CONSTRAINT roles_name_key UNIQUE (name)
+);
+
+CREATE TABLE user_roles (
+    user_id bigint NOT NULL,
+    role_id bigint NOT NULL,
+    CONSTRAINT user_roles_pkey PRIMARY KEY (role_id, user_id),
+    CONSTRAINT user_roles_user_fk FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT user_roles_role_fk FOREIGN KEY (role_id) REFERENCES roles (id)
+);
+
+CREATE TABLE court (
+    id             uuid          NOT NULL,
+    code           varchar(10)   NOT NULL,
+    name           varchar(255)  NOT NULL,
+    description    varchar(255),
+    sport_type     varchar(255)  NOT NULL,
+    price_per_hour numeric(10,2) NOT NULL,
+    CONSTRAINT court_pkey PRIMARY KEY (id),
+    CONSTRAINT court_code_key UNIQUE (code)
+);
+
+CREATE TABLE reservation (
+    id         uuid         NOT NULL,
+    code       varchar(10)  NOT NULL,
+    date       date         NOT NULL,
+    start_time time(6)      NOT NULL,
+    end_time   time(6)      NOT NULL,
+    status     varchar(255),
+    user_id    bigint       NOT NULL,
+    court_id   uuid         NOT NULL,
+    CONSTRAINT reservation_pkey PRIMARY KEY (id),
+    CONSTRAINT reservation_code_key UNIQUE (code),
+    CONSTRAINT reservation_user_fk FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT reservation_court_fk FOREIGN KEY (court_id) REFERENCES court (id),
+    -- Dos reservas activas de la misma cancha no pueden solaparse (reservas.booking.mode=database)
+    CONSTRAINT reservation_no_overlap
+        EXCLUDE USING gist (court_id WITH =, tsrange(date + start_time, date + end_time) WITH &&)
+        WHERE (status <> 'CANCELLED')
+);
+
+CREATE TABLE payment (
+    id             bigint        NOT NULL,
+    amount         numeric(38,2),
+    method         varchar(255),
+    status         varchar(255),
+    payment_date   timestamp(6),
+    customer_name  varchar(255),
+    customer_email varchar(255),
+    customer_phone varchar(255),
+    reservation_id uuid,
+    CONSTRAINT payment_pkey PRIMARY KEY (id),
+    CONSTRAINT payment_method_check CHECK (method IN ('CARD', 'CASH')),
+    CONSTRAINT payment_reservation_fk FOREIGN KEY (reservation_id) REFERENCES reservation (id)
+);
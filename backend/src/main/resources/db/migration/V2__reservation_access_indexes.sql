@@ -0,0 +1,25 @@
+-- Índices para los caminos de acceso de los repositorios (sin ellos cada consulta recorre la tabla).
+
+-- Reservas de una cancha en un día (índice de disponibilidad, listado por cancha/fecha)
+CREATE INDEX reservation_court_date_idx ON reservation (court_id, date, start_time);
+
+-- Solo reservas activas: validación de solapamiento y horarios ocupados de un rango.
+-- Incluye end_time para resolver la condición de solapamiento sin ir a la tabla.
+CREATE INDEX reservation_court_date_active_idx ON reservation (court_id, date, start_time, end_time)
+    WHERE status <> 'CANCELLED';
+
+-- Reservas de un usuario, ordenadas por fecha
+CREATE INDEX reservation_user_date_idx ON reservation (user_id, date, start_time);
+
+-- Proceso programado PENDING -> FINISHED: solo las pendientes, que son pocas
+CREATE INDEX reservation_pending_end_idx ON reservation (date, end_time) WHERE status = 'PENDING';
+
+-- Búsqueda paginada por fecha (keyset sobre date, start_time, id)
+CREATE INDEX reservation_date_start_id_idx ON reservation (date, start_time, id);
+
+-- Búsqueda por prefijo de código (LIKE 'R-4K%') independiente de la collation
+CREATE INDEX reservation_code_prefix_idx ON reservation (code varchar_pattern_ops);
+
+-- Pago de una reserva y roles de un usuario (las FK no crean índice en PostgreSQL)
+CREATE INDEX payment_reservation_idx ON payment (reservation_id);
+CREATE INDEX user_roles_user_idx ON user_roles (user_id);
@@ -0,0 +1,22 @@
+-- Refresh tokens opacos: solo se guarda el SHA-256 del token. Llevan email y rol del usuario
+-- para emitir el access token sin cargar la fila de users.
+
+CREATE SEQUENCE refresh_token_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE refresh_token (
+    id         bigint       NOT NULL,
+    token_hash varchar(64)  NOT NULL,
+    user_id    bigint       NOT NULL,
+    email      varchar(255) NOT NULL,
+    role       varchar(255) NOT NULL,
+    expires_at timestamp(6) NOT NULL,
+    CONSTRAINT refresh_token_pkey PRIMARY KEY (id),
+    CONSTRAINT refresh_token_hash_key UNIQUE (token_hash),
+    CONSTRAINT refresh_token_user_fk FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+-- Revocación de todas las sesiones de un usuario
+CREATE INDEX refresh_token_user_idx ON refresh_token (user_id);
+
+-- Barrido de vencidos
+CREATE INDEX refresh_token_expires_idx ON refresh_token (expires_at);
@@ -0,0 +1,7 @@
+-- Directorio de usuarios: búsqueda por prefijo sin distinguir mayúsculas y orden por apellido.
+
+CREATE INDEX users_last_name_id_idx ON users (last_name, id);
+
+CREATE INDEX users_first_name_prefix_idx ON users (lower(first_name) varchar_pattern_ops);
+CREATE INDEX users_last_name_prefix_idx ON users (lower(last_name) varchar_pattern_ops);
+CREATE INDEX users_email_prefix_idx ON users (lower(email) varchar_pattern_ops);
@@ -0,0 +1,6 @@
+-- Inicio del plazo de pago de las reservas PENDING (HoldExpiryService). Las filas existentes
+-- toman la hora de la migración: reciben un plazo completo desde ese momento.
+ALTER TABLE reservation ADD COLUMN created_at timestamp(6) NOT NULL DEFAULT now();
+
+-- Recuperación al arrancar y revisión periódica: solo las PENDING, que son pocas
+CREATE INDEX reservation_hold_created_idx ON reservation (created_at) WHERE status = 'PENDING';
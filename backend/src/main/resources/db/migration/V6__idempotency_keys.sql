@@ -0,0 +1,17 @@
+-- Respuestas guardadas por Idempotency-Key (POST de reservas y pagos). id = alcance + ':' + clave.
+-- IN_PROGRESS mientras se ejecuta la primera solicitud; COMPLETED con la respuesta a repetir.
+
+CREATE TABLE idempotency_key (
+    id              varchar(320) NOT NULL,
+    request_hash    varchar(64)  NOT NULL,
+    status          varchar(16)  NOT NULL,
+    response_status integer,
+    content_type    varchar(100),
+    location        varchar(512),
+    response_body   text,
+    expires_at      timestamp(6) NOT NULL,
+    CONSTRAINT idempotency_key_pkey PRIMARY KEY (id)
+);
+
+-- Barrido de vencidas
+CREATE INDEX idempotency_key_expires_idx ON idempotency_key (expires_at);
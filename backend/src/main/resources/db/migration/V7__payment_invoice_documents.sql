@@ -0,0 +1,6 @@
+-- Factura generada en segundo plano (InvoiceDocumentService): SHA-256 del documento, que
+-- también es su nombre en disco. Los pagos existentes se generan al arrancar.
+ALTER TABLE payment ADD COLUMN invoice_hash varchar(64);
+
+-- Pagos confirmados pendientes de generar: pocos, el resto ya tiene hash
+CREATE INDEX payment_invoice_pending_idx ON payment (id) WHERE status = 'CONFIRMED' AND invoice_hash IS NULL;
@@ -0,0 +1,7 @@
+-- Cobro asíncrono por la pasarela (PaymentProcessingService): referencia del cobro aprobado
+-- y motivo del rechazo o la falla
+ALTER TABLE payment ADD COLUMN gateway_reference varchar(100);
+ALTER TABLE payment ADD COLUMN failure_reason varchar(255);
+
+-- Al arrancar se retoman los pagos que quedaron PENDING
+CREATE INDEX payment_pending_idx ON payment (id) WHERE status = 'PENDING';
@@ -0,0 +1,4 @@
+-- Un cobro con timeout o error de red queda PENDING y se concilia con la misma referencia;
+-- uno aprobado sobre una reserva ya cancelada queda REFUND_PENDING hasta devolverlo
+DROP INDEX IF EXISTS payment_pending_idx;
+CREATE INDEX payment_unresolved_idx ON payment (status, id) WHERE status IN ('PENDING', 'REFUND_PENDING');
@@ -0,0 +1,34 @@
+-- Lleva a V1 una base creada por Hibernate con ddl-auto=create (antes de Flyway), sin perder datos.
+-- Ejecutar una sola vez, antes del primer arranque con Flyway:
+--   docker compose -f docker-compose_local.yml exec -T db psql -U postgres -d postgres < ddl-auto-to-v1.sql
+-- Luego spring.flyway.baseline-on-migrate registra el esquema como V1 y aplica V2 en adelante.
+-- Se puede repetir: cada paso verifica si ya está aplicado.
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Ids: IDENTITY en la versión original, secuencias pooled (allocationSize = 50) desde V1.
+-- Hibernate toma el valor de la secuencia como el final de su bloque: se deja 50 por encima
+-- del id más alto para que el primer bloque empiece después de las filas existentes.
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE roles ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE payment ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS role_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS payment_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('users_seq', (SELECT coalesce(max(id), 0) + 50 FROM users), false);
+SELECT setval('role_seq', (SELECT coalesce(max(id), 0) + 50 FROM roles), false);
+SELECT setval('payment_seq', (SELECT coalesce(max(id), 0) + 50 FROM payment), false);
+
+-- Códigos legibles R-/C- (CodeGenerator.BLOCK_SIZE). Los códigos aleatorios anteriores se
+-- conservan; un choque con uno nuevo es improbable y lo rechaza la restricción UNIQUE.
+CREATE SEQUENCE IF NOT EXISTS reservation_code_seq START WITH 1 INCREMENT BY 100;
+CREATE SEQUENCE IF NOT EXISTS court_code_seq START WITH 1 INCREMENT BY 100;
+
+-- Exclusión de solapamientos. Falla si ya hay reservas activas solapadas de la misma cancha:
+-- cancelar las sobrantes y volver a ejecutar.
+ALTER TABLE reservation DROP CONSTRAINT IF EXISTS reservation_no_overlap;
+ALTER TABLE reservation ADD CONSTRAINT reservation_no_overlap
+    EXCLUDE USING gist (court_id WITH =, tsrange(date + start_time, date + end_time) WITH &&)
+    WHERE (status <> 'CANCELLED');
@@ -0,0 +1,102 @@
+package com.reservas.backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.reservas.backend.repository.CourtRepository;
+import com.reservas.backend.repository.UserRepository;
+import com.reservas.backend.service.CodeGenerator;
+import com.reservas.backend.service.IdempotencyService;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Reservas simultáneas por HTTP con más llamadores que conexiones: ninguna petición debe
+ * retener una conexión mientras el shard necesita otra para guardar.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:pool;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"spring.flyway.enabled=false",
+		"spring.sql.init.mode=always",
+		"spring.jpa.defer-datasource-initialization=true",
+		"spring.sql.init.schema-locations=classpath:db/code-sequences.sql",
+		"spring.datasource.hikari.maximum-pool-size=2",
+		"spring.datasource.hikari.connection-timeout=2000"
+})
+class ReservationConnectionPoolTest {
+
+	private static final int CALLERS = 12;
+
+	@Autowired
+	private TestRestTemplate rest;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private CourtRepository courtRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void concurrentBookingsDoNotExhaustASmallPool() throws Exception {
+		assertEquals(2, ((HikariDataSource) dataSource).getMaximumPoolSize());
+		UUID courtId = courtRepository.findAll().get(0).getId();
+		Long userId = userRepository.findByEmail("juan@email.com").orElseThrow().getId();
+		LocalDate date = LocalDate.now().plusDays(7);
+
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+		List<Future<ResponseEntity<Map>>> responses = new ArrayList<>();
+		try {
+			for (int i = 0; i < CALLERS; i++) {
+				String hour = String.format("%02d", 8 + i);
+				Map<String, Object> body = Map.of("courtId", courtId, "userId", userId, "date", date.toString(),
+						"startTime", hour + ":00", "endTime", hour + ":30");
+				HttpHeaders headers = new HttpHeaders();
+				headers.set(IdempotencyService.HEADER, UUID.randomUUID().toString());
+				responses.add(callers.submit(() -> {
+					start.await();
+					return rest.postForEntity("/api/reservations", new HttpEntity<>(body, headers), Map.class);
+				}));
+			}
+			start.countDown();
+
+			for (Future<ResponseEntity<Map>> future : responses) {
+				ResponseEntity<Map> response = future.get(30, TimeUnit.SECONDS);
+				assertEquals(HttpStatus.CREATED, response.getStatusCode(), String.valueOf(response.getBody()));
+				assertTrue(CodeGenerator.isValid((String) response.getBody().get("code")));
+				assertEquals("Juan Pérez", response.getBody().get("userFullName"));
+			}
+		} finally {
+			callers.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package com.reservas.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+/**
+ * Verifica con EXPLAIN que las consultas frecuentes usan los índices de la migración V2.
+ *
+ * Necesita un PostgreSQL de pruebas: RESERVAS_TEST_DB_URL (y opcionalmente _USER / _PASSWORD).
+ * Trabaja en el esquema {@code explain_test}, que se borra y se vuelve a crear.
+ */
+@EnabledIfEnvironmentVariable(named = "RESERVAS_TEST_DB_URL", matches = ".+")
+class ReservationIndexPlanTest {
+
+	private static final String SCHEMA = "explain_test";
+	private static final String COURT = "00000000-0000-0000-0000-000000000007";
+
+	private static Connection connection;
+
+	@BeforeAll
+	static void migrateAndSeed() throws SQLException {
+		String url = System.getenv("RESERVAS_TEST_DB_URL");
+		String user = System.getenv().getOrDefault("RESERVAS_TEST_DB_USER", "postgres");
+		String password = System.getenv().getOrDefault("RESERVAS_TEST_DB_PASSWORD", "");
+
+		Flyway flyway = Flyway.configure()
+				.dataSource(url, user, password)
+				.schemas(SCHEMA)
+				.cleanDisabled(false)
+				.load();
+		flyway.clean();
+		flyway.migrate();
+
+		connection = DriverManager.getConnection(url, user, password);
+		try (Statement st = connection.createStatement()) {
+			st.execute("SET search_path TO " + SCHEMA + ", public");
+			// 50 canchas, 1000 usuarios, un año de reservas de 90 minutos (~200 mil filas)
+			st.execute("INSERT INTO users (id, first_name, last_name, email, password, status) "
+					+ "SELECT g, 'U', 'Test', 'u' || g || '@email.com', 'x', 'ACTIVE' FROM generate_series(1, 1000) g");
+			st.execute("INSERT INTO court (id, code, name, sport_type, price_per_hour) "
+					+ "SELECT ('00000000-0000-0000-0000-' || lpad(g::text, 12, '0'))::uuid, 'C-' || g, 'Cancha ' || g, 'Fútbol', 50 "
+					+ "FROM generate_series(1, 50) g");
+			st.execute("INSERT INTO reservation (id, code, date, start_time, end_time, status, user_id, court_id) "
+					+ "SELECT gen_random_uuid(), 'R-' || row_number() OVER (), d::date, "
+					+ "       time '08:00' + s * interval '90 minutes', time '09:30' + s * interval '90 minutes', "
+					+ "       CASE WHEN d < current_date THEN 'FINISHED' WHEN random() < 0.1 THEN 'CANCELLED' ELSE 'PENDING' END, "
+					+ "       1 + (random() * 999)::int, c.id "
+					+ "FROM court c, generate_series(current_date - 180, current_date + 184, interval '1 day') d, "
+					+ "     generate_series(0, 9) s");
+			st.execute("INSERT INTO payment (id, amount, method, status, reservation_id) "
+					+ "SELECT row_number() OVER (), 75, 'CARD', 'CONFIRMED', id FROM reservation");
+			st.execute("ANALYZE");
+		}
+	}
+
+	@AfterAll
+	static void close() throws SQLException {
+		if (connection != null) connection.close();
+	}
+
+	@Test
+	void hotQueriesDoNotFallBackToSequentialScans() throws SQLException {
+		// Un id concreto: una subconsulta con LIMIT haría su propio Seq Scan y ensuciaría el plan
+		String reservationId = firstReservationId();
+		Map<String, String> queries = new LinkedHashMap<>();
+		queries.put("solapamiento",
+				"SELECT 1 FROM reservation WHERE court_id = '" + COURT + "' AND date = current_date + 3 "
+				+ "AND status <> 'CANCELLED' AND start_time < '12:00' AND end_time > '10:00'");
+		queries.put("reservas de cancha y día",
+				"SELECT * FROM reservation WHERE court_id = '" + COURT + "' AND date = current_date + 3 ORDER BY start_time");
+		queries.put("horarios ocupados del rango",
+				"SELECT date, start_time, end_time FROM reservation WHERE court_id = '" + COURT + "' "
+				+ "AND date BETWEEN current_date AND current_date + 30 AND status <> 'CANCELLED' ORDER BY date, start_time");
+		queries.put("reservas del usuario",
+				"SELECT * FROM reservation WHERE user_id = 42 ORDER BY date, start_time");
+		queries.put("pago de la reserva",
+				"SELECT * FROM payment WHERE reservation_id = '" + reservationId + "'");
+		queries.put("pendientes vencidas",
+				"SELECT id FROM reservation WHERE status = 'PENDING' "
+				+ "AND (date < current_date OR (date = current_date AND end_time < localtime)) LIMIT 500");
+
+		for (Map.Entry<String, String> query : queries.entrySet()) {
+			String plan = explain(query.getValue());
+			assertFalse(plan.contains("Seq Scan on reservation") || plan.contains("Seq Scan on payment"),
+					"'" + query.getKey() + "' recorre la tabla completa:\n" + plan);
+		}
+	}
+
+	private static String firstReservationId() throws SQLException {
+		try (Statement st = connection.createStatement(); ResultSet rs = st.executeQuery("SELECT id FROM reservation LIMIT 1")) {
+			rs.next();
+			return rs.getString(1);
+		}
+	}
+
+	private static String explain(String sql) throws SQLException {
+		StringBuilder plan = new StringBuilder();
+		try (Statement st = connection.createStatement(); ResultSet rs = st.executeQuery("EXPLAIN " + sql)) {
+			while (rs.next()) plan.append(rs.getString(1)).append('\n');
+		}
+		return plan.toString();
+	}
+}
@@ -0,0 +1,151 @@
+package com.reservas.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+
+import com.reservas.backend.dto.HoldDeadlineRow;
+import com.reservas.backend.dto.ReservationDTO;
+import com.reservas.backend.model.Court;
+import com.reservas.backend.model.Reservation;
+import com.reservas.backend.model.User;
+import com.reservas.backend.service.CodeAssignmentListener;
+import com.reservas.backend.service.CodeGenerator;
+
+@DataJpaTest(properties = {
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.flyway.enabled=false",
+		"spring.sql.init.mode=always",
+		"spring.jpa.defer-datasource-initialization=true",
+		"spring.sql.init.schema-locations=classpath:db/code-sequences.sql"
+})
+@Import({ CodeGenerator.class, CodeAssignmentListener.class })
+class ReservationRepositoryTest {
+
+	private static final LocalDate DATE = LocalDate.of(2030, 3, 10);
+
+	@Autowired
+	private TestEntityManager em;
+
+	@Autowired
+	private ReservationRepository reservationRepository;
+
+	@Test
+	void listProjectionsUseOneStatementRegardlessOfSize() {
+		Court court = em.persist(new Court("Cancha 1", "Grass", "Fútbol", new BigDecimal("50.00")));
+		User user = em.persist(new User("Ana", "López", "ana@email.com", "x", null));
+		persistReservations(court, user, 1);
+
+		assertEquals(1, statementsFor(() -> reservationRepository.findAllDetails(), 1));
+		assertEquals(1, statementsFor(() -> reservationRepository.findDetailsByCourtIdAndDate(court.getId(), DATE), 1));
+		assertEquals(1, statementsFor(() -> reservationRepository.findDetailsByUserId(user.getId()), 1));
+
+		persistReservations(court, user, 9);
+
+		assertEquals(1, statementsFor(() -> reservationRepository.findAllDetails(), 10));
+		assertEquals(1, statementsFor(() -> reservationRepository.findDetailsByCourtIdAndDate(court.getId(), DATE), 10));
+		assertEquals(1, statementsFor(() -> reservationRepository.findDetailsByUserId(user.getId()), 10));
+	}
+
+	@Test
+	void projectionMatchesEntityMapping() {
+		Court court = em.persist(new Court("Cancha 1", "Grass", "Fútbol", new BigDecimal("50.00")));
+		User user = em.persist(new User("Ana", "López", "ana@email.com", "x", null));
+		persistReservations(court, user, 1);
+
+		ReservationDTO projected = reservationRepository.findAllDetails().get(0);
+		ReservationDTO mapped = new ReservationDTO(reservationRepository.findAll().get(0));
+
+		assertEquals(mapped.getCode(), projected.getCode());
+		assertEquals(mapped.getCourtName(), projected.getCourtName());
+		assertEquals(mapped.getUserFullName(), projected.getUserFullName());
+		assertEquals(mapped.getTotalPrice(), projected.getTotalPrice());
+		assertTrue(CodeGenerator.isValid(projected.getCode()));
+		assertTrue(CodeGenerator.isValid(projected.getCourtCode()));
+	}
+
+	@Test
+	void finishesOnlyElapsedPendingReservations() {
+		Court court = em.persist(new Court("Cancha 1", "Grass", "Fútbol", new BigDecimal("50.00")));
+		User user = em.persist(new User("Ana", "López", "ana@email.com", "x", null));
+		Reservation elapsed = em.persist(new Reservation(DATE, LocalTime.of(8, 0), LocalTime.of(9, 0), user, court));
+		Reservation ongoing = em.persist(new Reservation(DATE, LocalTime.of(9, 30), LocalTime.of(11, 0), user, court));
+		Reservation confirmed = new Reservation(DATE.minusDays(1), LocalTime.of(8, 0), LocalTime.of(9, 0), user, court);
+		confirmed.setStatus("CONFIRMED");
+		em.persist(confirmed);
+		em.flush();
+		em.clear();
+
+		List<UUID> ids = reservationRepository.lockElapsedPending(DATE, LocalTime.of(10, 0), Limit.of(10));
+		assertEquals(List.of(elapsed.getId()), ids);
+		assertEquals(1, reservationRepository.finishByIds(ids));
+		em.clear();
+
+		assertEquals("FINISHED", reservationRepository.findById(elapsed.getId()).orElseThrow().getStatus());
+		assertEquals("PENDING", reservationRepository.findById(ongoing.getId()).orElseThrow().getStatus());
+		assertEquals("CONFIRMED", reservationRepository.findById(confirmed.getId()).orElseThrow().getStatus());
+	}
+
+	@Test
+	void onlyCheckoutHoldsAreTrackedForExpiry() {
+		Court court = em.persist(new Court("Cancha 1", "Grass", "Fútbol", new BigDecimal("50.00")));
+		User user = em.persist(new User("Ana", "López", "ana@email.com", "x", null));
+		LocalDateTime deadline = LocalDateTime.now().minusMinutes(1).withNano(0);
+		Reservation hold = new Reservation(DATE, LocalTime.of(8, 0), LocalTime.of(9, 0), user, court);
+		hold.setHoldExpiresAt(deadline);
+		em.persist(hold);
+		Reservation future = new Reservation(DATE, LocalTime.of(10, 0), LocalTime.of(11, 0), user, court);
+		future.setHoldExpiresAt(LocalDateTime.now().plusMinutes(5));
+		em.persist(future);
+		// Ocurrencia de una serie o reserva del admin: PENDING sin plazo
+		em.persist(new Reservation(DATE, LocalTime.of(12, 0), LocalTime.of(13, 0), user, court));
+		em.flush();
+		em.clear();
+
+		assertEquals(Set.of(hold.getId(), future.getId()),
+				reservationRepository.findUnpaidHolds().stream().map(HoldDeadlineRow::id).collect(Collectors.toSet()));
+		List<HoldDeadlineRow> expired = reservationRepository.findExpiredUnpaidHolds(LocalDateTime.now());
+		assertEquals(List.of(hold.getId()), expired.stream().map(HoldDeadlineRow::id).toList());
+		assertEquals(deadline, expired.get(0).holdExpiresAt());
+	}
+
+	private void persistReservations(Court court, User user, int count) {
+		int existing = reservationRepository.findAll().size();
+		for (int i = 0; i < count; i++) {
+			LocalTime start = LocalTime.of(6, 0).plusMinutes(60L * (existing + i));
+			em.persist(new Reservation(DATE, start, start.plusMinutes(90), user, court));
+		}
+		em.flush();
+		em.clear();
+	}
+
+	private long statementsFor(Supplier<List<ReservationDTO>> query, int expectedRows) {
+		Statistics statistics = em.getEntityManager().getEntityManagerFactory()
+				.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		List<ReservationDTO> rows = query.get();
+		assertEquals(expectedRows, rows.size());
+		rows.forEach(ReservationDTO::getUserFullName);
+		return statistics.getPrepareStatementCount();
+	}
+}
@@ -0,0 +1,33 @@
+package com.reservas.backend.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LoginAttemptLimiterTest {
+
+	private final LoginAttemptLimiter limiter = new LoginAttemptLimiter(new SimpleMeterRegistry(), 60, 3, 5);
+
+	@Test
+	void blocksEmailAfterLimitUntilSuccessfulLogin() {
+		for (int i = 0; i < 3; i++) {
+			assertTrue(limiter.tryAcquire("ana@email.com", "10.0.0.1"));
+		}
+		assertFalse(limiter.tryAcquire("ana@email.com", "10.0.0.2"));
+		assertTrue(limiter.tryAcquire("otro@email.com", "10.0.0.2"));
+
+		limiter.onSuccess("ana@email.com");
+		assertTrue(limiter.tryAcquire("ana@email.com", "10.0.0.3"));
+	}
+
+	@Test
+	void blocksIpAcrossDifferentEmails() {
+		for (int i = 0; i < 5; i++) {
+			assertTrue(limiter.tryAcquire("user" + i + "@email.com", "10.0.0.9"));
+		}
+		assertFalse(limiter.tryAcquire("nuevo@email.com", "10.0.0.9"));
+	}
+}
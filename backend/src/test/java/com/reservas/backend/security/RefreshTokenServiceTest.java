@@ -0,0 +1,146 @@
+package com.reservas.backend.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.reservas.backend.dto.JwtResponse;
+import com.reservas.backend.model.RefreshToken;
+import com.reservas.backend.model.Role;
+import com.reservas.backend.model.User;
+import com.reservas.backend.repository.RefreshTokenRepository;
+import com.reservas.backend.security.RefreshTokenService.InvalidRefreshTokenException;
+
+class RefreshTokenServiceTest {
+
+	private static final String KEY = "k1:" + Base64.getEncoder().encodeToString(new byte[32]);
+
+	// Tabla en memoria indexada por hash; consume borra por id y devuelve las filas afectadas
+	private final Map<String, RefreshToken> rows = new ConcurrentHashMap<>();
+	private final AtomicLong ids = new AtomicLong();
+	private final RefreshTokenRepository repository = mock(RefreshTokenRepository.class);
+	private final TokenService tokenService = new TokenService(KEY, "k1", 60000, 100);
+	private RefreshTokenService service;
+
+	@BeforeEach
+	void setUp() {
+		when(repository.save(any(RefreshToken.class))).thenAnswer(inv -> {
+			RefreshToken token = inv.getArgument(0);
+			ReflectionTestUtils.setField(token, "id", ids.incrementAndGet());
+			rows.put(token.getTokenHash(), token);
+			return token;
+		});
+		when(repository.findByTokenHash(anyString()))
+				.thenAnswer(inv -> Optional.ofNullable(rows.get(inv.<String>getArgument(0))));
+		when(repository.consume(anyLong()))
+				.thenAnswer(inv -> rows.values().removeIf(t -> t.getId().equals(inv.getArgument(0))) ? 1 : 0);
+		service = new RefreshTokenService(repository, tokenService, 30);
+	}
+
+	@Test
+	void refreshRotatesTheTokenAndDeletesTheOldOne() {
+		JwtResponse issued = service.issue(user());
+		assertEquals(1, rows.size());
+
+		JwtResponse refreshed = service.refresh(issued.getRefreshToken());
+
+		assertNotEquals(issued.getRefreshToken(), refreshed.getRefreshToken());
+		assertEquals(1, rows.size());
+		TokenClaims claims = tokenService.verify(refreshed.getToken());
+		assertEquals(7L, claims.userId());
+		assertEquals("ADMIN", claims.role());
+		service.refresh(refreshed.getRefreshToken());
+	}
+
+	@Test
+	void usedTokenIsRejected() {
+		String raw = service.issue(user()).getRefreshToken();
+		service.refresh(raw);
+
+		assertThrows(InvalidRefreshTokenException.class, () -> service.refresh(raw));
+		assertThrows(InvalidRefreshTokenException.class, () -> service.refresh(" "));
+		assertThrows(InvalidRefreshTokenException.class, () -> service.refresh("desconocido"));
+	}
+
+	@Test
+	void concurrentUseOfTheSameTokenIsDecidedByConsume() throws Exception {
+		String raw = service.issue(user()).getRefreshToken();
+		// Las dos peticiones encuentran la fila antes de que ninguna la borre
+		CyclicBarrier bothFound = new CyclicBarrier(2);
+		when(repository.findByTokenHash(anyString())).thenAnswer(inv -> {
+			Optional<RefreshToken> found = Optional.ofNullable(rows.get(inv.<String>getArgument(0)));
+			bothFound.await(5, TimeUnit.SECONDS);
+			return found;
+		});
+
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			List<Future<JwtResponse>> calls = new ArrayList<>();
+			for (int i = 0; i < 2; i++) {
+				calls.add(pool.submit(() -> service.refresh(raw)));
+			}
+			int succeeded = 0;
+			int rejected = 0;
+			for (Future<JwtResponse> call : calls) {
+				try {
+					call.get(5, TimeUnit.SECONDS);
+					succeeded++;
+				} catch (ExecutionException e) {
+					assertTrue(e.getCause() instanceof InvalidRefreshTokenException);
+					rejected++;
+				}
+			}
+			assertEquals(1, succeeded);
+			assertEquals(1, rejected);
+			assertEquals(1, rows.size());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void expiredTokenIsRejectedAndDeleted() {
+		String raw = service.issue(user()).getRefreshToken();
+		RefreshToken stored = rows.values().iterator().next();
+		ReflectionTestUtils.setField(stored, "expiresAt", LocalDateTime.now().minusSeconds(1));
+
+		assertThrows(InvalidRefreshTokenException.class, () -> service.refresh(raw));
+		assertTrue(rows.isEmpty());
+	}
+
+	private static User user() {
+		User user = new User();
+		user.setId(7L);
+		user.setEmail("admin@email.com");
+		Role role = new Role();
+		role.setName("ADMIN");
+		user.setRoles(Set.of(role));
+		return user;
+	}
+}
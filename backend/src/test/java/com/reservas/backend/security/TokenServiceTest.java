@@ -0,0 +1,52 @@
+package com.reservas.backend.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Base64;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.reservas.backend.model.Role;
+import com.reservas.backend.model.User;
+
+import io.jsonwebtoken.JwtException;
+
+class TokenServiceTest {
+
+	private static final String OLD_KEY = "k1:" + Base64.getEncoder().encodeToString(new byte[32]);
+	private static final String NEW_KEY = "k2:" + Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+	@Test
+	void tokensSignedWithPreviousKeyStillVerifyAfterRotation() {
+		String token = new TokenService(OLD_KEY, "k1", 60000, 100).createToken(admin());
+
+		TokenService rotated = new TokenService(NEW_KEY + "," + OLD_KEY, "k2", 60000, 100);
+		TokenClaims claims = rotated.verify(token);
+		assertEquals(7L, claims.userId());
+		assertEquals("ADMIN", claims.role());
+		assertEquals(claims, rotated.verify(token));
+
+		TokenService retired = new TokenService(NEW_KEY, "k2", 60000, 100);
+		assertThrows(JwtException.class, () -> retired.verify(token));
+	}
+
+	@Test
+	void rejectsTamperedToken() {
+		TokenService service = new TokenService(OLD_KEY, "k1", 60000, 100);
+		String token = service.createToken(admin());
+		String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+		assertThrows(JwtException.class, () -> service.verify(tampered));
+	}
+
+	private static User admin() {
+		User user = new User();
+		user.setId(7L);
+		user.setEmail("admin@email.com");
+		Role role = new Role();
+		role.setName("ADMIN");
+		user.setRoles(Set.of(role));
+		return user;
+	}
+}
@@ -0,0 +1,139 @@
+package com.reservas.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.reservas.backend.model.Court;
+import com.reservas.backend.model.Reservation;
+import com.reservas.backend.model.User;
+import com.reservas.backend.repository.ReservationRepository;
+
+class AvailabilityIndexTest {
+
+	private final LocalDate date = LocalDate.of(2030, 1, 15);
+	private final Court court = court();
+	private final User user = new User("Ana", "López", "ana@email.com", "x", null);
+
+	@Test
+	void detectsOverlapsAfterLazyLoad() {
+		ReservationRepository repository = mock(ReservationRepository.class);
+		when(repository.findWithDetailsByCourtIdAndDate(court.getId(), date))
+				.thenReturn(List.of(reservation(LocalTime.of(10, 0), LocalTime.of(11, 30), "PENDING")));
+		AvailabilityIndex index = new AvailabilityIndex(repository, 1, 1000);
+
+		assertTrue(index.isOverlapping(court.getId(), date, LocalTime.of(11, 0), LocalTime.of(12, 0), null));
+		assertFalse(index.isOverlapping(court.getId(), date, LocalTime.of(11, 30), LocalTime.of(12, 0), null));
+		assertFalse(index.isOverlapping(court.getId(), date, LocalTime.of(8, 0), LocalTime.of(10, 0), null));
+
+		verify(repository, times(1)).findWithDetailsByCourtIdAndDate(any(), eq(date));
+	}
+
+	@Test
+	void coarseSlotsStillUseExactTimes() {
+		ReservationRepository repository = mock(ReservationRepository.class);
+		when(repository.findWithDetailsByCourtIdAndDate(court.getId(), date))
+				.thenReturn(List.of(reservation(LocalTime.of(10, 0), LocalTime.of(10, 40), "CONFIRMED")));
+		AvailabilityIndex index = new AvailabilityIndex(repository, 30, 1000);
+
+		assertFalse(index.isOverlapping(court.getId(), date, LocalTime.of(10, 40), LocalTime.of(11, 0), null));
+		assertTrue(index.isOverlapping(court.getId(), date, LocalTime.of(10, 39), LocalTime.of(11, 0), null));
+	}
+
+	@Test
+	void tracksUpdatesAndCancellations() {
+		ReservationRepository repository = mock(ReservationRepository.class);
+		List<Reservation> table = new ArrayList<>();
+		when(repository.findWithDetailsByCourtIdAndDate(court.getId(), date)).thenReturn(table);
+		AvailabilityIndex index = new AvailabilityIndex(repository, 1, 1000);
+		assertFalse(index.isOverlapping(court.getId(), date, LocalTime.of(18, 0), LocalTime.of(19, 0), null));
+
+		Reservation booked = reservation(LocalTime.of(18, 0), LocalTime.of(19, 0), "PENDING");
+		table.add(booked);
+		index.onSaved(booked);
+		assertTrue(index.isOverlapping(court.getId(), date, LocalTime.of(18, 30), LocalTime.of(19, 30), null));
+		assertFalse(index.isOverlapping(court.getId(), date, LocalTime.of(18, 30), LocalTime.of(19, 30), booked.getId()));
+		assertEquals(1, index.findByCourtAndDate(court.getId(), date).size());
+
+		booked.setStatus("CANCELLED");
+		index.onSaved(booked);
+		assertFalse(index.isOverlapping(court.getId(), date, LocalTime.of(18, 30), LocalTime.of(19, 30), null));
+		assertTrue(index.checkConsistency().isEmpty());
+
+		table.add(reservation(LocalTime.of(20, 0), LocalTime.of(21, 0), "PENDING"));
+		assertEquals(1, index.checkConsistency().size());
+		assertTrue(index.isOverlapping(court.getId(), date, LocalTime.of(20, 0), LocalTime.of(20, 15), null));
+	}
+
+	@Test
+	void boundsLoadedDaysAndDropsPastOnes() {
+		ReservationRepository repository = mock(ReservationRepository.class);
+		when(repository.findWithDetailsByCourtIdAndDate(any(), any())).thenReturn(List.of());
+		AvailabilityIndex index = new AvailabilityIndex(repository, 1, 10);
+
+		// Consultas a canchas inexistentes no hacen crecer el índice sin límite
+		for (int i = 0; i < 50; i++) {
+			index.isOverlapping(UUID.randomUUID(), date, LocalTime.of(10, 0), LocalTime.of(11, 0), null);
+		}
+		assertTrue(index.size() <= 10, "días cargados: " + index.size());
+
+		AvailabilityIndex past = new AvailabilityIndex(repository, 1, 10);
+		past.isOverlapping(court.getId(), LocalDate.now().minusDays(1), LocalTime.of(10, 0), LocalTime.of(11, 0), null);
+		past.isOverlapping(court.getId(), LocalDate.now(), LocalTime.of(10, 0), LocalTime.of(11, 0), null);
+		past.evictPastDays();
+		assertEquals(1, past.size());
+	}
+
+	@Test
+	void statusChangeReloadsOnlyTheAffectedDay() {
+		ReservationRepository repository = mock(ReservationRepository.class);
+		Reservation elapsed = reservation(LocalTime.of(8, 0), LocalTime.of(9, 0), "PENDING");
+		List<Reservation> table = new ArrayList<>(List.of(elapsed));
+		LocalDate otherDate = date.plusDays(1);
+		when(repository.findWithDetailsByCourtIdAndDate(court.getId(), date)).thenReturn(table);
+		when(repository.findWithDetailsByCourtIdAndDate(court.getId(), otherDate)).thenReturn(List.of());
+		AvailabilityIndex index = new AvailabilityIndex(repository, 1, 1000);
+		index.findByCourtAndDate(court.getId(), date);
+		index.findByCourtAndDate(court.getId(), otherDate);
+
+		// El proceso programado la pasó a FINISHED con un UPDATE en bloque
+		Reservation finished = reservation(LocalTime.of(8, 0), LocalTime.of(9, 0), "FINISHED");
+		finished.setId(elapsed.getId());
+		table.set(0, finished);
+		index.onStatusChanged(List.of(elapsed.getId()));
+
+		assertEquals("FINISHED", index.findByCourtAndDate(court.getId(), date).get(0).getStatus());
+		index.findByCourtAndDate(court.getId(), otherDate);
+		verify(repository, times(2)).findWithDetailsByCourtIdAndDate(court.getId(), date);
+		verify(repository, times(1)).findWithDetailsByCourtIdAndDate(court.getId(), otherDate);
+		assertTrue(index.isOverlapping(court.getId(), date, LocalTime.of(8, 30), LocalTime.of(9, 30), null));
+	}
+
+	private Reservation reservation(LocalTime start, LocalTime end, String status) {
+		Reservation reservation = new Reservation(date, start, end, user, court);
+		reservation.setId(UUID.randomUUID());
+		reservation.setStatus(status);
+		return reservation;
+	}
+
+	private static Court court() {
+		Court court = new Court("Cancha 1", "Grass", "Fútbol", new BigDecimal("50.00"));
+		court.setId(UUID.randomUUID());
+		return court;
+	}
+}
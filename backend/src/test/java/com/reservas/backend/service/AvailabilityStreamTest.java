@@ -0,0 +1,112 @@
+package com.reservas.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AvailabilityStreamTest {
+
+	private static final long WRITE_TIMEOUT_MS = 100;
+
+	private final UUID courtId = UUID.randomUUID();
+	private final LocalDate date = LocalDate.of(2030, 3, 10);
+	private final CountDownLatch unblock = new CountDownLatch(1);
+	private final Deque<SseEmitter> emitters = new ArrayDeque<>();
+	// Un solo hilo de envío: sin reponerlo, el suscriptor trabado frenaría a todos
+	private final AvailabilityStream stream = new AvailabilityStream(new ObjectMapper(), new SimpleMeterRegistry(),
+			32, 1, 60000, WRITE_TIMEOUT_MS, 4, 100) {
+		@Override
+		SseEmitter newEmitter(long timeoutMs) {
+			return emitters.poll();
+		}
+	};
+
+	@AfterEach
+	void tearDown() {
+		unblock.countDown();
+		stream.shutdown();
+	}
+
+	@Test
+	void stalledSubscriberIsClosedAndOthersKeepReceivingEvents() throws Exception {
+		StalledEmitter stalled = new StalledEmitter(unblock);
+		RecordingEmitter healthy = new RecordingEmitter();
+		emitters.add(stalled);
+		emitters.add(healthy);
+
+		stream.subscribe(courtId, date);
+		assertTrue(stalled.sending.await(2, TimeUnit.SECONDS), "el primer envío queda bloqueado");
+		stream.subscribe(courtId, date);
+		assertEquals(2, stream.getSubscriberCount());
+
+		Thread.sleep(2 * WRITE_TIMEOUT_MS);
+		stream.closeStalledWrites();
+		assertEquals(1, stream.getSubscriberCount(), "el suscriptor trabado se quita");
+
+		assertTrue(String.valueOf(healthy.sent.poll(2, TimeUnit.SECONDS)).startsWith(":hb"), "otro hilo atiende al resto");
+		stream.onReservationChanged(new ReservationChangedEvent(UUID.randomUUID(), courtId, date,
+				LocalTime.of(9, 0), LocalTime.of(10, 0), "PENDING", false, null, null, null));
+		assertTrue(String.valueOf(healthy.sent.poll(2, TimeUnit.SECONDS)).startsWith("event:booked"));
+
+		// Cuando el contenedor corta la escritura el emisor se cierra con error
+		unblock.countDown();
+		assertTrue(stalled.failed.await(2, TimeUnit.SECONDS));
+	}
+
+	private static class RecordingEmitter extends SseEmitter {
+		final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			StringBuilder text = new StringBuilder();
+			builder.build().forEach(part -> text.append(part.getData()));
+			sent.add(text.toString());
+		}
+	}
+
+	private static class StalledEmitter extends SseEmitter {
+		final CountDownLatch sending = new CountDownLatch(1);
+		final CountDownLatch failed = new CountDownLatch(1);
+		private final CountDownLatch unblock;
+
+		StalledEmitter(CountDownLatch unblock) {
+			this.unblock = unblock;
+		}
+
+		@Override
+		public void send(SseEventBuilder builder) {
+			sending.countDown();
+			// Como la escritura bloqueante de Tomcat: ignora la interrupción hasta su propio timeout
+			while (true) {
+				try {
+					unblock.await();
+					return;
+				} catch (InterruptedException ignored) {
+				}
+			}
+		}
+
+		@Override
+		public void completeWithError(Throwable ex) {
+			failed.countDown();
+		}
+	}
+}
@@ -0,0 +1,210 @@
+package com.reservas.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.reservas.backend.model.Court;
+import com.reservas.backend.model.Reservation;
+import com.reservas.backend.model.User;
+import com.reservas.backend.repository.ReservationRepository;
+
+class BookingEngineTest {
+
+	private static final String CONFLICT = "Ya existe una reserva en ese horario.";
+
+	private final LocalDate date = LocalDate.of(2030, 3, 10);
+	private final Court court = court();
+	private final User user = new User("Ana", "López", "ana@email.com", "x", null);
+	private final ReservationRepository repository = mock(ReservationRepository.class);
+	private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+	private final List<Reservation> saved = new ArrayList<>();
+	private BookingEngine engine;
+
+	BookingEngineTest() {
+		when(repository.findWithDetailsByCourtIdAndDate(any(), any())).thenReturn(List.of());
+		when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+		when(repository.save(any(Reservation.class))).thenAnswer(invocation -> {
+			Reservation reservation = invocation.getArgument(0);
+			if (reservation.getId() == null) reservation.setId(UUID.randomUUID());
+			synchronized (saved) {
+				saved.add(reservation);
+			}
+			return reservation;
+		});
+	}
+
+	@AfterEach
+	void stop() {
+		if (engine != null) engine.shutdown();
+	}
+
+	@Test
+	void savesQueuedBookingsInOneTransaction() throws Exception {
+		engine = engine(5000);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Object> blocker = blockShard(release);
+
+		List<CompletableFuture<Reservation>> results = new ArrayList<>();
+		for (int hour = 8; hour < 12; hour++) {
+			Reservation reservation = reservation(hour, hour + 1);
+			results.add(CompletableFuture.supplyAsync(() -> engine.book(reservation, CONFLICT)));
+		}
+		waitUntilQueued(4);
+		release.countDown();
+		blocker.get(5, TimeUnit.SECONDS);
+
+		for (CompletableFuture<Reservation> result : results) {
+			result.get(5, TimeUnit.SECONDS);
+		}
+		assertEquals(4, saved.size());
+		verify(transactionManager, times(1)).getTransaction(any());
+	}
+
+	@Test
+	void rejectsConflictInsideTheSameBatch() throws Exception {
+		engine = engine(5000);
+		CountDownLatch release = new CountDownLatch(1);
+		blockShard(release);
+
+		CompletableFuture<Reservation> first = CompletableFuture.supplyAsync(() -> engine.book(reservation(10, 12), CONFLICT));
+		waitUntilQueued(1);
+		CompletableFuture<Reservation> second = CompletableFuture.supplyAsync(() -> engine.book(reservation(11, 13), CONFLICT));
+		waitUntilQueued(2);
+		release.countDown();
+
+		Reservation booked = first.get(5, TimeUnit.SECONDS);
+		Exception e = assertThrows(Exception.class, () -> second.get(5, TimeUnit.SECONDS));
+		assertTrue(e.getCause() instanceof IllegalStateException);
+		assertEquals(CONFLICT, e.getCause().getMessage());
+		assertEquals(List.of(booked), saved);
+	}
+
+	@Test
+	void timedOutBookingStillQueuedIsNeverSaved() throws Exception {
+		engine = engine(100);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Object> blocker = blockShard(release);
+
+		IllegalStateException e = assertThrows(IllegalStateException.class, () -> engine.book(reservation(10, 11), CONFLICT));
+		assertTrue(e.getMessage().contains("a tiempo"));
+
+		release.countDown();
+		blocker.get(5, TimeUnit.SECONDS);
+		engine.runExclusive(court.getId(), () -> null); // el shard ya pasó por la reserva cancelada
+		verify(repository, never()).save(any(Reservation.class));
+	}
+
+	@Test
+	void timedOutBookingAlreadyClaimedWaitsForTheRealResult() {
+		engine = engine(100);
+		CountDownLatch saving = new CountDownLatch(1);
+		when(repository.save(any(Reservation.class))).thenAnswer(invocation -> {
+			saving.countDown();
+			Thread.sleep(400); // commit lento: supera el timeout del llamador
+			Reservation reservation = invocation.getArgument(0);
+			reservation.setId(UUID.randomUUID());
+			return reservation;
+		});
+
+		Reservation reservation = reservation(10, 11);
+		assertSame(reservation, engine.book(reservation, CONFLICT));
+		assertEquals(0, saving.getCount());
+	}
+
+	@Test
+	void retriesOneByOneWhenTheBatchFails() throws Exception {
+		engine = engine(5000);
+		Reservation bad = reservation(9, 10);
+		when(repository.save(any(Reservation.class))).thenAnswer(invocation -> {
+			Reservation reservation = invocation.getArgument(0);
+			if (reservation == bad) throw new IllegalArgumentException("registro inválido");
+			reservation.setId(UUID.randomUUID());
+			synchronized (saved) {
+				saved.add(reservation);
+			}
+			return reservation;
+		});
+		CountDownLatch release = new CountDownLatch(1);
+		blockShard(release);
+
+		CompletableFuture<Reservation> good1 = CompletableFuture.supplyAsync(() -> engine.book(reservation(8, 9), CONFLICT));
+		CompletableFuture<Reservation> failing = CompletableFuture.supplyAsync(() -> engine.book(bad, CONFLICT));
+		CompletableFuture<Reservation> good2 = CompletableFuture.supplyAsync(() -> engine.book(reservation(10, 11), CONFLICT));
+		waitUntilQueued(3);
+		release.countDown();
+
+		Reservation first = good1.get(5, TimeUnit.SECONDS);
+		Reservation last = good2.get(5, TimeUnit.SECONDS);
+		Exception e = assertThrows(Exception.class, () -> failing.get(5, TimeUnit.SECONDS));
+		assertTrue(e.getCause() instanceof IllegalArgumentException);
+		// El lote reintentado de a uno: una transacción para el lote y una por reserva
+		verify(transactionManager, times(4)).getTransaction(any());
+		// El mock no deshace el lote fallido: lo que importa es que las válidas se guardaron de nuevo
+		assertTrue(saved.stream().filter(r -> r == first).count() >= 1);
+		assertTrue(saved.stream().filter(r -> r == last).count() >= 1);
+		assertTrue(saved.stream().noneMatch(r -> r == bad));
+	}
+
+	private BookingEngine engine(long timeoutMs) {
+		AvailabilityIndex index = new AvailabilityIndex(repository, 1, 1000);
+		return new BookingEngine(repository, index, new TransactionTemplate(transactionManager), 1, 64, 64, timeoutMs);
+	}
+
+	/** Ocupa el único shard hasta que se libere {@code release}; las reservas se acumulan en su cola */
+	private CompletableFuture<Object> blockShard(CountDownLatch release) throws InterruptedException {
+		CountDownLatch running = new CountDownLatch(1);
+		CompletableFuture<Object> blocker = CompletableFuture.supplyAsync(() -> engine.runExclusive(court.getId(), () -> {
+			running.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return null;
+		}));
+		assertTrue(running.await(5, TimeUnit.SECONDS));
+		return blocker;
+	}
+
+	private void waitUntilQueued(int tasks) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (engine.queued() < tasks && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		assertEquals(tasks, engine.queued());
+	}
+
+	private Reservation reservation(int fromHour, int toHour) {
+		return new Reservation(date, LocalTime.of(fromHour, 0), LocalTime.of(toHour, 0), user, court);
+	}
+
+	private static Court court() {
+		Court court = new Court("Cancha 1", "Grass", "Fútbol", new BigDecimal("50.00"));
+		court.setId(UUID.randomUUID());
+		return court;
+	}
+}
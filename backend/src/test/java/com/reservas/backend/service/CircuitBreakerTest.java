@@ -0,0 +1,50 @@
+package com.reservas.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+	private final AtomicLong now = new AtomicLong();
+	private final CircuitBreaker breaker = new CircuitBreaker(3, 1000, now::get);
+
+	@Test
+	void opensAfterConsecutiveFailuresAndLetsOneTrialThroughLater() {
+		for (int i = 0; i < 3; i++) {
+			assertTrue(breaker.tryAcquire());
+			breaker.onFailure();
+		}
+		assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+		assertFalse(breaker.tryAcquire());
+		assertEquals(1000, breaker.retryAfterMs());
+
+		now.set(1000);
+		assertTrue(breaker.tryAcquire(), "llamada de prueba");
+		assertFalse(breaker.tryAcquire(), "solo una llamada de prueba a la vez");
+		breaker.onSuccess();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+		assertTrue(breaker.tryAcquire());
+	}
+
+	@Test
+	void failedTrialReopensAndSuccessResetsTheCount() {
+		breaker.onFailure();
+		breaker.onFailure();
+		breaker.onSuccess();
+		breaker.onFailure();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.state(), "las fallas deben ser seguidas");
+
+		breaker.onFailure();
+		breaker.onFailure();
+		now.set(1500);
+		assertTrue(breaker.tryAcquire());
+		breaker.onFailure();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+		assertEquals(1000, breaker.retryAfterMs());
+	}
+}
@@ -0,0 +1,43 @@
+package com.reservas.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class CodeGeneratorTest {
+
+	private final CodeGenerator generator = new CodeGenerator(null, null, true);
+
+	@Test
+	void consecutiveNumbersGiveDistinctValidCodes() {
+		Set<String> codes = new HashSet<>();
+		for (long n = 1; n <= 100_000; n++) {
+			String code = generator.encode(n);
+			assertEquals(8, code.length());
+			assertTrue(CodeGenerator.isValid("R-" + code));
+			codes.add(code);
+		}
+		assertEquals(100_000, codes.size());
+	}
+
+	@Test
+	void checkSymbolDetectsTyposAndTranspositions() {
+		String code = generator.encode(4242);
+		char[] typo = code.toCharArray();
+		typo[3] = typo[3] == '7' ? '8' : '7';
+		assertFalse(CodeGenerator.isValid(new String(typo)));
+
+		char[] swapped = code.toCharArray();
+		if (swapped[1] != swapped[2]) {
+			char c = swapped[1];
+			swapped[1] = swapped[2];
+			swapped[2] = c;
+			assertFalse(CodeGenerator.isValid(new String(swapped)));
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package com.reservas.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.reservas.backend.dto.TimeIntervalDTO;
+import com.reservas.backend.repository.ReservationRepository;
+
+class CourtAvailabilityServiceTest {
+
+	private static final UUID COURT = UUID.randomUUID();
+	private static final LocalDate DAY = LocalDate.of(2030, 3, 10);
+
+	private final ReservationRepository reservationRepository = mock(ReservationRepository.class);
+
+	@Test
+	void freeIntervalsAreAlignedToSlotsWithinOpeningHours() {
+		CourtAvailabilityService service = new CourtAvailabilityService(reservationRepository, "08:00", "22:00");
+		occupied(DAY, DAY,
+				busy(DAY, "10:15", "11:00"),
+				busy(DAY, "14:00", "15:30"));
+
+		assertEquals(List.of("2030-03-10T08:00-2030-03-10T10:00",
+						"2030-03-10T11:00-2030-03-10T14:00",
+						"2030-03-10T16:00-2030-03-10T22:00"),
+				format(service.findFreeIntervals(COURT, DAY, DAY, 60)));
+	}
+
+	@Test
+	void overlappingBookingsAndGapsShorterThanASlotLeaveNoHole() {
+		CourtAvailabilityService service = new CourtAvailabilityService(reservationRepository, "08:00", "12:00");
+		occupied(DAY, DAY,
+				busy(DAY, "08:00", "10:00"),
+				busy(DAY, "09:00", "09:30"),
+				busy(DAY, "10:30", "12:00"));
+
+		assertEquals(List.of(), format(service.findFreeIntervals(COURT, DAY, DAY, 60)));
+		assertEquals(List.of("2030-03-10T10:00-2030-03-10T10:30"), format(service.findFreeIntervals(COURT, DAY, DAY, 30)));
+	}
+
+	@Test
+	void roundTheClockCourtMergesFreeTimeAcrossMidnight() {
+		LocalDate next = DAY.plusDays(1);
+		CourtAvailabilityService service = new CourtAvailabilityService(reservationRepository, "00:00", "00:00");
+		occupied(DAY, next,
+				busy(DAY, "18:00", "20:00"),
+				busy(next, "06:00", "07:30"));
+
+		assertEquals(List.of("2030-03-10T00:00-2030-03-10T18:00",
+						"2030-03-10T20:00-2030-03-11T06:00",
+						"2030-03-11T08:00-2030-03-12T00:00"),
+				format(service.findFreeIntervals(COURT, DAY, next, 60)));
+	}
+
+	@Test
+	void daysWithoutBookingsAreFullyFree() {
+		LocalDate last = DAY.plusDays(2);
+		CourtAvailabilityService service = new CourtAvailabilityService(reservationRepository, "08:00", "22:00");
+		occupied(DAY, last, busy(DAY.plusDays(1), "08:00", "22:00"));
+
+		// 14 horas no son múltiplo de 90 minutos: el último bloque completo termina a las 21:30
+		assertEquals(List.of("2030-03-10T08:00-2030-03-10T21:30", "2030-03-12T08:00-2030-03-12T21:30"),
+				format(service.findFreeIntervals(COURT, DAY, last, 90)));
+	}
+
+	@Test
+	void rejectsInvalidRanges() {
+		CourtAvailabilityService service = new CourtAvailabilityService(reservationRepository, "08:00", "22:00");
+
+		assertThrows(IllegalArgumentException.class, () -> service.findFreeIntervals(COURT, DAY, DAY.minusDays(1), 60));
+		assertThrows(IllegalArgumentException.class,
+				() -> service.findFreeIntervals(COURT, DAY, DAY.plusDays(CourtAvailabilityService.MAX_RANGE_DAYS), 60));
+		assertThrows(IllegalArgumentException.class, () -> service.findFreeIntervals(COURT, DAY, DAY, 0));
+		assertThrows(IllegalArgumentException.class, () -> service.findFreeIntervals(COURT, DAY, DAY, 24 * 60 + 1));
+	}
+
+	private void occupied(LocalDate from, LocalDate to, TimeIntervalDTO... intervals) {
+		when(reservationRepository.findOccupiedIntervals(COURT, from, to)).thenReturn(Arrays.asList(intervals));
+	}
+
+	private static TimeIntervalDTO busy(LocalDate day, String start, String end) {
+		return new TimeIntervalDTO(day, LocalTime.parse(start), LocalTime.parse(end));
+	}
+
+	private static List<String> format(List<TimeIntervalDTO> intervals) {
+		return intervals.stream().map(i -> i.getStart() + "-" + i.getEnd()).toList();
+	}
+}
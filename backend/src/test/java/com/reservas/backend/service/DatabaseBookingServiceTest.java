@@ -0,0 +1,136 @@
+package com.reservas.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.reservas.backend.dto.CourtDTO;
+import com.reservas.backend.dto.ReservationDTO;
+import com.reservas.backend.model.Court;
+import com.reservas.backend.model.Reservation;
+import com.reservas.backend.model.User;
+import com.reservas.backend.repository.CourtRepository;
+import com.reservas.backend.repository.ReservationRepository;
+import com.reservas.backend.repository.UserRepository;
+
+@DataJpaTest(properties = {
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.flyway.enabled=false",
+		"spring.sql.init.mode=always",
+		"spring.jpa.defer-datasource-initialization=true",
+		"spring.sql.init.schema-locations=classpath:db/code-sequences.sql"
+})
+@Import({ CodeGenerator.class, CodeAssignmentListener.class, DatabaseBookingService.class })
+class DatabaseBookingServiceTest {
+
+	private static final String CONFLICT = "Ya existe una reserva en ese horario.";
+	private static final LocalDate DATE = LocalDate.of(2030, 3, 10);
+
+	@Autowired
+	private TestEntityManager em;
+
+	@Autowired
+	private DatabaseBookingService bookingService;
+
+	@Autowired
+	private CourtRepository courtRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void happyPathIsASingleInsert() {
+		Court court = em.persist(new Court("Cancha 1", "Grass", "Fútbol", new BigDecimal("50.00")));
+		User user = em.persist(new User("Ana", "López", "ana@email.com", "x", null));
+		CourtDTO cachedCourt = new CourtDTO(court);
+		em.flush();
+		em.clear();
+		book(court, user, LocalTime.of(8, 0)); // reserva el primer bloque de códigos
+		em.clear();
+
+		Statistics statistics = em.getEntityManager().getEntityManagerFactory()
+				.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		Reservation booked = book(court, user, LocalTime.of(10, 0));
+		assertEquals(1, statistics.getPrepareStatementCount());
+
+		// La respuesta solo agrega la proyección del nombre, sin cargar entidades
+		ReservationDTO view = ReservationDTO.ofNew(booked, cachedCourt, user.getId(),
+				userRepository.findFullNameById(user.getId()).orElseThrow());
+		assertEquals(2, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertFalse(Hibernate.isInitialized(booked.getCourt()));
+		assertFalse(Hibernate.isInitialized(booked.getUser()));
+		assertEquals("Ana López", view.getUserFullName());
+		assertEquals("Cancha 1", view.getCourtName());
+		assertEquals(new BigDecimal("50.0000"), view.getTotalPrice());
+		assertTrue(CodeGenerator.isValid(view.getCode()));
+	}
+
+	@Test
+	void mapsExclusionAndForeignKeyViolations() {
+		ReservationRepository repository = mock(ReservationRepository.class);
+		TransactionTemplate transactions = new TransactionTemplate(transactionManager());
+		DatabaseBookingService service = new DatabaseBookingService(repository, transactions);
+		Reservation reservation = new Reservation(DATE, LocalTime.of(9, 0), LocalTime.of(10, 0), null, null);
+
+		doThrow(violation("23P01")).when(repository).saveAndFlush(any());
+		IllegalStateException overlap = assertThrows(IllegalStateException.class, () -> service.book(reservation, CONFLICT));
+		assertEquals(CONFLICT, overlap.getMessage());
+
+		doThrow(violation("23503")).when(repository).saveAndFlush(any());
+		IllegalArgumentException missing = assertThrows(IllegalArgumentException.class, () -> service.book(reservation, CONFLICT));
+		assertEquals("Usuario o cancha no existe.", missing.getMessage());
+
+		DataIntegrityViolationException other = violation("23505");
+		doThrow(other).when(repository).saveAndFlush(any());
+		assertSame(other, assertThrows(DataIntegrityViolationException.class, () -> service.book(reservation, CONFLICT)));
+		assertInstanceOf(IllegalStateException.class, DatabaseBookingService.translate(violation("23P01"), CONFLICT));
+		assertTrue(DatabaseBookingService.isOverlapViolation(violation("23P01")));
+	}
+
+	private Reservation book(Court court, User user, LocalTime start) {
+		Reservation reservation = new Reservation(DATE, start, start.plusHours(1),
+				userRepository.getReferenceById(user.getId()), courtRepository.getReferenceById(court.getId()));
+		reservation.setStatus("PENDING");
+		return bookingService.book(reservation, CONFLICT);
+	}
+
+	private static DataIntegrityViolationException violation(String sqlState) {
+		return new DataIntegrityViolationException("violación",
+				new RuntimeException(new SQLException("violación", sqlState)));
+	}
+
+	private static PlatformTransactionManager transactionManager() {
+		PlatformTransactionManager manager = mock(PlatformTransactionManager.class);
+		when(manager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+		return manager;
+	}
+}
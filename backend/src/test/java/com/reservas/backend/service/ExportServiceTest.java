@@ -0,0 +1,147 @@
+package com.reservas.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.reservas.backend.dto.PaymentExportRow;
+import com.reservas.backend.dto.ReservationDTO;
+import com.reservas.backend.model.PaymentMethod;
+import com.reservas.backend.repository.PaymentRepository;
+import com.reservas.backend.repository.ReservationRepository;
+
+class ExportServiceTest {
+
+	private static final UUID COURT = UUID.fromString("00000000-0000-0000-0000-000000000007");
+	private static final UUID FIRST = UUID.fromString("00000000-0000-0000-0000-000000000001");
+	private static final UUID SECOND = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+	private final ReservationRepository reservationRepository = mock(ReservationRepository.class);
+	private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+	private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+			.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+	private final ExportService service = new ExportService(reservationRepository, paymentRepository, objectMapper,
+			transactionManager);
+
+	@Test
+	void csvHasHeaderEscapesValuesAndLeavesNullsEmpty() throws IOException {
+		when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+		AtomicBoolean closed = new AtomicBoolean();
+		when(reservationRepository.streamAllDetails()).thenReturn(reservations().onClose(() -> closed.set(true)));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		service.exportReservations(out, ExportService.Format.CSV, false);
+
+		String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n", -1);
+		assertEquals(4, lines.length);
+		assertEquals("id,code,date,startTime,endTime,status,courtId,courtCode,courtName,pricePerHour,totalPrice,userId,userFullName",
+				lines[0]);
+		BigDecimal total = reservation(FIRST, "R-1", LocalDate.of(2030, 3, 10), "x").getTotalPrice();
+		assertEquals(FIRST + ",R-1,2030-03-10,18:00,19:30,PENDING," + COURT + ",C-7,\"Cancha \"\"Norte\"\", techada\","
+				+ "50.00," + total + ",4,Ana López", lines[1]);
+		assertTrue(lines[2].startsWith(SECOND + ",,2030-03-11,"), lines[2]);
+		assertEquals("", lines[3]);
+		assertTrue(closed.get());
+		verify(transactionManager).commit(any());
+	}
+
+	@Test
+	void ndjsonWritesOneObjectPerLine() throws IOException {
+		when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+		when(reservationRepository.streamAllDetails()).thenReturn(reservations());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		service.exportReservations(out, ExportService.Format.NDJSON, false);
+
+		String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+		assertEquals(2, lines.length);
+		JsonNode first = objectMapper.readTree(lines[0]);
+		assertEquals("R-1", first.get("code").asText());
+		assertEquals("2030-03-10", first.get("date").asText());
+		assertEquals("Cancha \"Norte\", techada", first.get("courtName").asText());
+		assertEquals(SECOND.toString(), objectMapper.readTree(lines[1]).get("id").asText());
+	}
+
+	@Test
+	void gzipOutputDecompressesToThePlainExport() throws IOException {
+		when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+		when(paymentRepository.streamAllForExport()).thenAnswer(invocation -> Stream.of(payment()));
+
+		ByteArrayOutputStream plain = new ByteArrayOutputStream();
+		service.exportPayments(plain, ExportService.Format.CSV, false);
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		service.exportPayments(compressed, ExportService.Format.CSV, true);
+
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+			assertEquals(plain.toString(StandardCharsets.UTF_8), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+		}
+		assertTrue(plain.toString(StandardCharsets.UTF_8).contains("\r\n9,75.00,CARD,CONFIRMED,2030-03-01T12:00,Ana López,ana@email.com,,"));
+	}
+
+	@Test
+	void writeFailureSurfacesAsIOExceptionAndClosesTheCursor() {
+		when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+		AtomicBoolean closed = new AtomicBoolean();
+		// Muchas filas para pasar el búfer de 64 KB y llegar al stream del cliente
+		when(reservationRepository.streamAllDetails()).thenReturn(
+				Stream.generate(() -> reservation(FIRST, "R-1", LocalDate.of(2030, 3, 10), "Cancha 7"))
+						.limit(10_000).onClose(() -> closed.set(true)));
+		IOException broken = new IOException("Broken pipe");
+		OutputStream client = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				throw broken;
+			}
+		};
+
+		IOException thrown = assertThrows(IOException.class,
+				() -> service.exportReservations(client, ExportService.Format.CSV, false));
+		assertSame(broken, thrown);
+		assertTrue(closed.get());
+		verify(transactionManager).rollback(any());
+	}
+
+	private static Stream<ReservationDTO> reservations() {
+		return Stream.of(
+				reservation(FIRST, "R-1", LocalDate.of(2030, 3, 10), "Cancha \"Norte\", techada"),
+				reservation(SECOND, null, LocalDate.of(2030, 3, 11), "Cancha 7"));
+	}
+
+	private static ReservationDTO reservation(UUID id, String code, LocalDate date, String courtName) {
+		return new ReservationDTO(id, code, date, LocalTime.of(18, 0), LocalTime.of(19, 30), "PENDING",
+				COURT, "C-7", courtName, new BigDecimal("50.00"), 4L, "Ana", "López");
+	}
+
+	private static PaymentExportRow payment() {
+		return new PaymentExportRow(9L, new BigDecimal("75.00"), PaymentMethod.CARD, "CONFIRMED",
+				LocalDateTime.of(2030, 3, 1, 12, 0), "Ana López", "ana@email.com", null, FIRST, "R-1",
+				LocalDate.of(2030, 3, 10), LocalTime.of(18, 0), LocalTime.of(19, 30), "PENDING", "C-7", "Cancha 7", 4L);
+	}
+}
@@ -0,0 +1,101 @@
+package com.reservas.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.reservas.backend.dto.HoldDeadlineRow;
+import com.reservas.backend.repository.ReservationRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class HoldExpiryServiceTest {
+
+	private static final long TICK_MS = 10;
+
+	private final UUID courtId = UUID.randomUUID();
+	private final LocalDate date = LocalDate.of(2030, 3, 10);
+	private final HoldDeadlineRow hold = new HoldDeadlineRow(UUID.randomUUID(), courtId, date,
+			LocalTime.of(9, 0), LocalTime.of(10, 0), LocalDateTime.now().minusMinutes(1));
+	private final ReservationRepository repository = mock(ReservationRepository.class);
+	private final HoldExpiryService service;
+
+	HoldExpiryServiceTest() {
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+		// Plazo de 0 minutos: vence en el próximo tick
+		service = new HoldExpiryService(repository, new TransactionTemplate(transactionManager),
+				mock(AvailabilityIndex.class), mock(ApplicationEventPublisher.class), new SimpleMeterRegistry(),
+				true, 0, TICK_MS, 500);
+	}
+
+	@Test
+	void holdWithPaymentInFlightAtItsDeadlineIsTrackedAgainWhenThePaymentFails() throws Exception {
+		service.onReservationChanged(event(null));
+		assertEquals(1, service.getTrackedCount());
+
+		// Al vencer el pago sigue PENDING: la BD no la devuelve como hold y no se cancela
+		when(repository.lockUnpaidHolds(anyCollection())).thenReturn(List.of());
+		tickPastDeadline();
+		assertEquals(0, service.getTrackedCount());
+		verify(repository, never()).cancelByIds(any());
+
+		// El pago falla (PaymentService publica el cambio): vuelve a tener plazo, ya vencido
+		when(repository.findUnpaidHold(hold.id())).thenReturn(Optional.of(hold));
+		service.onReservationChanged(event(courtId));
+		assertEquals(1, service.getTrackedCount());
+
+		when(repository.lockUnpaidHolds(anyCollection())).thenReturn(List.of(hold));
+		tickPastDeadline();
+		assertEquals(0, service.getTrackedCount());
+		verify(repository).cancelByIds(List.of(hold.id()));
+	}
+
+	@Test
+	void reservationsWithoutAHoldDeadlineNeverExpire() throws Exception {
+		// Series, reservas del admin y filas anteriores a la migración: PENDING sin hold_expires_at
+		service.onReservationChanged(new ReservationChangedEvent(hold.id(), courtId, date, hold.startTime(),
+				hold.endTime(), "PENDING", false, null, null, null));
+		service.onReservationChanged(new ReservationChangedEvent(hold.id(), courtId, date, hold.startTime(),
+				hold.endTime(), "PENDING", false, courtId, date, null));
+		assertEquals(0, service.getTrackedCount());
+
+		tickPastDeadline();
+		verify(repository, never()).findUnpaidHold(any());
+		verify(repository, never()).cancelByIds(any());
+	}
+
+	@Test
+	void pendingChangeWithAPaymentStillInFlightIsNotTracked() {
+		when(repository.findUnpaidHold(hold.id())).thenReturn(Optional.empty());
+		service.onReservationChanged(event(courtId));
+		assertEquals(0, service.getTrackedCount());
+	}
+
+	private void tickPastDeadline() throws InterruptedException {
+		Thread.sleep(3 * TICK_MS);
+		service.tick();
+	}
+
+	private ReservationChangedEvent event(UUID previousCourtId) {
+		return new ReservationChangedEvent(hold.id(), courtId, date, hold.startTime(), hold.endTime(), "PENDING",
+				false, previousCourtId, previousCourtId == null ? null : date, hold.holdExpiresAt());
+	}
+}
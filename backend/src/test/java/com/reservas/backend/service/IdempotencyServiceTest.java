@@ -0,0 +1,223 @@
+package com.reservas.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reservas.backend.model.IdempotencyRecord;
+import com.reservas.backend.repository.IdempotencyRecordRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+
+// Sin transacción de prueba: el servicio abre las suyas y las réplicas deben ver las filas confirmadas
+@DataJpaTest(properties = {
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.flyway.enabled=false",
+		"spring.sql.init.mode=always",
+		"spring.jpa.defer-datasource-initialization=true",
+		"spring.sql.init.schema-locations=classpath:db/code-sequences.sql"
+})
+@Import({ CodeGenerator.class, CodeAssignmentListener.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceTest {
+
+	private static final String SCOPE = "reservations";
+	private static final String KEY = "clave-1";
+	private static final Map<String, Object> REQUEST = Map.of("courtId", 1, "date", "2030-03-10");
+	private static final long LEASE_SECONDS = 60;
+
+	@Autowired
+	private IdempotencyRecordRepository repository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private final AtomicInteger executions = new AtomicInteger();
+
+	@AfterEach
+	void cleanUp() {
+		repository.deleteAll();
+	}
+
+	@Test
+	void retryReplaysTheStoredResponseWithoutRunningAgain() {
+		IdempotencyService service = newService();
+		ResponseEntity<Object> first = service.execute(SCOPE, KEY, REQUEST, created());
+		ResponseEntity<Object> retry = service.execute(SCOPE, KEY, REQUEST, created());
+
+		assertEquals(1, executions.get());
+		assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+		assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+		assertEquals(first.getHeaders().getLocation(), retry.getHeaders().getLocation());
+		assertArrayEquals("{\"code\":\"R-1\"}".getBytes(StandardCharsets.UTF_8), (byte[]) retry.getBody());
+
+		// Otra réplica, sin el caché en memoria, responde desde la fila
+		ResponseEntity<Object> elsewhere = newService().execute(SCOPE, KEY, REQUEST, created());
+		assertEquals(1, executions.get());
+		assertEquals(HttpStatus.CREATED, elsewhere.getStatusCode());
+	}
+
+	@Test
+	void sameKeyWithDifferentBodyIsRejected() {
+		IdempotencyService service = newService();
+		service.execute(SCOPE, KEY, REQUEST, created());
+
+		ResponseEntity<Object> reused = service.execute(SCOPE, KEY, Map.of("courtId", 2), created());
+
+		assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getStatusCode());
+		assertEquals(1, executions.get());
+	}
+
+	@Test
+	void concurrentDuplicatesOnOneReplicaRunOnce() throws Exception {
+		IdempotencyService service = newService();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch proceed = new CountDownLatch(1);
+		Supplier<ResponseEntity<Object>> slow = () -> {
+			started.countDown();
+			try {
+				proceed.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return created().get();
+		};
+
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<ResponseEntity<Object>>> calls = new ArrayList<>();
+			calls.add(pool.submit(() -> service.execute(SCOPE, KEY, REQUEST, slow)));
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			for (int i = 0; i < 3; i++) {
+				calls.add(pool.submit(() -> service.execute(SCOPE, KEY, REQUEST, slow)));
+			}
+			proceed.countDown();
+
+			for (Future<ResponseEntity<Object>> call : calls) {
+				assertEquals(HttpStatus.CREATED, call.get(5, TimeUnit.SECONDS).getStatusCode());
+			}
+			assertEquals(1, executions.get());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void serverErrorReleasesTheKey() {
+		IdempotencyService service = newService();
+		ResponseEntity<Object> failed = service.execute(SCOPE, KEY, REQUEST, () -> {
+			executions.incrementAndGet();
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Reintente más tarde.");
+		});
+
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, failed.getStatusCode());
+		assertFalse(repository.existsById(id()));
+		assertEquals(HttpStatus.CREATED, service.execute(SCOPE, KEY, REQUEST, created()).getStatusCode());
+		assertEquals(2, executions.get());
+	}
+
+	@Test
+	void exceptionReleasesTheKey() {
+		IdempotencyService service = newService();
+		assertThrows(IllegalStateException.class, () -> service.execute(SCOPE, KEY, REQUEST, () -> {
+			executions.incrementAndGet();
+			throw new IllegalStateException("falla");
+		}));
+
+		assertFalse(repository.existsById(id()));
+		assertEquals(HttpStatus.CREATED, service.execute(SCOPE, KEY, REQUEST, created()).getStatusCode());
+		assertEquals(2, executions.get());
+	}
+
+	@Test
+	void claimHoldsAShortLeaseUntilTheResponseIsStored() {
+		IdempotencyService service = newService();
+		LocalDateTime[] whileRunning = new LocalDateTime[1];
+		service.execute(SCOPE, KEY, REQUEST, () -> {
+			IdempotencyRecord claim = repository.findById(id()).orElseThrow();
+			assertEquals(IdempotencyRecord.IN_PROGRESS, claim.getStatus());
+			whileRunning[0] = claim.getExpiresAt();
+			return created().get();
+		});
+
+		LocalDateTime now = LocalDateTime.now();
+		assertTrue(whileRunning[0].isBefore(now.plusSeconds(LEASE_SECONDS + 1)));
+		IdempotencyRecord stored = repository.findById(id()).orElseThrow();
+		assertEquals(IdempotencyRecord.COMPLETED, stored.getStatus());
+		assertTrue(stored.getExpiresAt().isAfter(now.plusHours(23)));
+	}
+
+	@Test
+	void abandonedClaimIsTakenOverOnceTheLeaseExpires() {
+		// Réplica que cayó a mitad de la ejecución: su reserva quedó IN_PROGRESS con el plazo vencido
+		transactionTemplate.executeWithoutResult(status -> entityManager.persist(
+				new IdempotencyRecord(id(), fingerprintOf(REQUEST), LocalDateTime.now().minusSeconds(1))));
+
+		ResponseEntity<Object> response = newService().execute(SCOPE, KEY, REQUEST, created());
+
+		assertEquals(HttpStatus.CREATED, response.getStatusCode());
+		assertNull(response.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+		assertEquals(1, executions.get());
+	}
+
+	private IdempotencyService newService() {
+		return new IdempotencyService(repository, entityManager, transactionTemplate, new ObjectMapper(),
+				new SimpleMeterRegistry(), 24, LEASE_SECONDS, 100, 5000);
+	}
+
+	private Supplier<ResponseEntity<Object>> created() {
+		return () -> {
+			executions.incrementAndGet();
+			return ResponseEntity.created(URI.create("/api/reservations/1")).body(Map.of("code", "R-1"));
+		};
+	}
+
+	private static String id() {
+		return SCOPE + ":" + KEY;
+	}
+
+	private static String fingerprintOf(Object request) {
+		try {
+			byte[] body = new ObjectMapper().writeValueAsBytes(request);
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,193 @@
+package com.reservas.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.reservas.backend.dto.PaymentExportRow;
+import com.reservas.backend.model.Payment;
+import com.reservas.backend.model.PaymentMethod;
+import com.reservas.backend.repository.PaymentRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class InvoiceDocumentServiceTest {
+
+	private static final UUID RESERVATION = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+	@TempDir
+	Path directory;
+
+	private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+	private InvoiceDocumentService service;
+
+	@AfterEach
+	void shutdown() {
+		if (service != null) service.shutdown();
+	}
+
+	@Test
+	void confirmedPaymentIsRenderedToAContentAddressedFile() throws Exception {
+		service = newService();
+		when(paymentRepository.findInvoiceRow(9L)).thenReturn(Optional.of(row("CONFIRMED")));
+
+		service.onPaymentConfirmed(new PaymentConfirmedEvent(9L));
+		String hash = storedHash(9L);
+
+		Path file = service.findDocument(hash).orElseThrow();
+		assertEquals(directory.toRealPath().resolve(hash.substring(0, 2)).resolve(hash + ".html"), file);
+		byte[] content = Files.readAllBytes(file);
+		assertEquals(hash, HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)));
+		String html = new String(content, StandardCharsets.UTF_8);
+		assertTrue(html.contains("<td>Reserva</td><td>R-7K2M9</td>"), html);
+		assertTrue(html.contains("Ana &lt;b&gt;López&lt;/b&gt;"), html);
+		assertTrue(html.contains("<td>Total</td><td>75.00</td>"), html);
+		try (Stream<Path> files = Files.walk(directory)) {
+			assertEquals(1, files.filter(Files::isRegularFile).count());
+		}
+	}
+
+	@Test
+	void samePaymentRendersTheSameDocument() throws Exception {
+		service = newService();
+		when(paymentRepository.findInvoiceRow(9L)).thenReturn(Optional.of(row("CONFIRMED")));
+
+		service.onPaymentConfirmed(new PaymentConfirmedEvent(9L));
+		String first = storedHash(9L);
+		// La revisión periódica lo vuelve a generar (p. ej. si se perdió el archivo)
+		when(paymentRepository.findPendingInvoices(any())).thenReturn(List.of(9L));
+		service.rescan();
+
+		ArgumentCaptor<String> hashes = ArgumentCaptor.forClass(String.class);
+		verify(paymentRepository, timeout(2000).times(2)).setInvoiceHash(eq(9L), hashes.capture());
+		assertEquals(first, hashes.getAllValues().get(1));
+		try (Stream<Path> files = Files.walk(directory)) {
+			assertEquals(1, files.filter(p -> p.toString().endsWith(".html")).count());
+		}
+	}
+
+	@Test
+	void duplicateRequestsWhileQueuedRenderOnce() throws Exception {
+		service = newService();
+		CountDownLatch proceed = new CountDownLatch(1);
+		when(paymentRepository.findInvoiceRow(9L)).thenAnswer(invocation -> {
+			proceed.await(2, TimeUnit.SECONDS);
+			return Optional.of(row("CONFIRMED"));
+		});
+
+		service.onPaymentConfirmed(new PaymentConfirmedEvent(9L));
+		service.onPaymentConfirmed(new PaymentConfirmedEvent(9L));
+		service.onPaymentConfirmed(new PaymentConfirmedEvent(9L));
+		proceed.countDown();
+
+		storedHash(9L);
+		verify(paymentRepository, after(200).times(1)).findInvoiceRow(9L);
+	}
+
+	@Test
+	void paymentThatIsNoLongerConfirmedIsNotRendered() throws IOException {
+		service = newService();
+		when(paymentRepository.findInvoiceRow(9L)).thenReturn(Optional.of(row("REFUND_PENDING")));
+
+		service.onPaymentConfirmed(new PaymentConfirmedEvent(9L));
+
+		verify(paymentRepository, timeout(2000)).findInvoiceRow(9L);
+		verify(paymentRepository, after(200).never()).setInvoiceHash(anyLong(), anyString());
+		try (Stream<Path> files = Files.walk(directory)) {
+			assertEquals(0, files.filter(Files::isRegularFile).count());
+		}
+	}
+
+	@Test
+	void readyDocumentIsServedOrQueuedOnDemand() {
+		service = newService();
+		when(paymentRepository.findInvoiceRow(9L)).thenReturn(Optional.of(row("CONFIRMED")));
+		Payment payment = payment("CONFIRMED", null);
+		when(paymentRepository.findByReservationId(RESERVATION)).thenReturn(Optional.of(payment));
+
+		// Sin documento: se encola y la descarga aún no está lista
+		assertEquals(Optional.empty(), service.findReadyDocument(RESERVATION));
+		String hash = storedHash(9L);
+
+		ReflectionTestUtils.setField(payment, "invoiceHash", hash);
+		assertEquals(Optional.of(hash), service.findReadyDocument(RESERVATION));
+
+		assertEquals(Optional.empty(), service.findDocument("../" + hash.substring(3)));
+		assertEquals(Optional.empty(), service.findDocument("0".repeat(64)));
+		when(paymentRepository.findByReservationId(RESERVATION)).thenReturn(Optional.empty());
+		assertThrows(RuntimeException.class, () -> service.findReadyDocument(RESERVATION));
+	}
+
+	@Test
+	void unpaidReservationIsNotQueued() {
+		service = newService();
+		when(paymentRepository.findByReservationId(RESERVATION)).thenReturn(Optional.of(payment("PENDING", null)));
+
+		assertEquals(Optional.empty(), service.findReadyDocument(RESERVATION));
+
+		verify(paymentRepository, after(200).never()).findInvoiceRow(anyLong());
+	}
+
+	private InvoiceDocumentService newService() {
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+		return new InvoiceDocumentService(paymentRepository, new TransactionTemplate(transactionManager),
+				new SimpleMeterRegistry(), directory.toString(), 1, 10, 500);
+	}
+
+	private String storedHash(Long paymentId) {
+		ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+		verify(paymentRepository, timeout(2000)).setInvoiceHash(eq(paymentId), hash.capture());
+		return hash.getValue();
+	}
+
+	private static Payment payment(String status, String invoiceHash) {
+		Payment payment = new Payment();
+		payment.setStatus(status);
+		ReflectionTestUtils.setField(payment, "id", 9L);
+		ReflectionTestUtils.setField(payment, "invoiceHash", invoiceHash);
+		return payment;
+	}
+
+	private static PaymentExportRow row(String status) {
+		return new PaymentExportRow(9L, new BigDecimal("75.00"), PaymentMethod.CARD, status,
+				LocalDateTime.of(2030, 3, 1, 12, 0), "Ana <b>López</b>", "ana@email.com", null, RESERVATION, "R-7K2M9",
+				LocalDate.of(2030, 3, 10), LocalTime.of(18, 0), LocalTime.of(19, 30), "PENDING", "C-7", "Cancha 7", 4L);
+	}
+}
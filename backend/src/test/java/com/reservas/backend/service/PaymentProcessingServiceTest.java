@@ -0,0 +1,245 @@
+package com.reservas.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.reservas.backend.dto.PaymentRequest;
+import com.reservas.backend.model.Court;
+import com.reservas.backend.model.Payment;
+import com.reservas.backend.model.PaymentMethod;
+import com.reservas.backend.model.Reservation;
+import com.reservas.backend.repository.PaymentRepository;
+import com.reservas.backend.repository.ReservationRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PaymentProcessingServiceTest {
+
+	private static final long PAYMENT_ID = 7L;
+	private static final long TIMEOUT_MS = 200;
+
+	private final PaymentService paymentService = mock(PaymentService.class);
+	private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+	private final PaymentGateway gateway = mock(PaymentGateway.class);
+	private final Payment payment = payment();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final PaymentProcessingService service = new PaymentProcessingService(paymentService, paymentRepository,
+			gateway, new SimpleMeterRegistry(), 2, 16, TIMEOUT_MS, 5, 30000);
+
+	PaymentProcessingServiceTest() {
+		when(paymentService.createPendingPayment(any(), any())).thenReturn(payment);
+		when(paymentRepository.findIdsByStatus("PENDING")).thenReturn(List.of(PAYMENT_ID));
+		when(paymentRepository.findById(PAYMENT_ID)).thenReturn(Optional.of(payment));
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		service.shutdown();
+	}
+
+	@Test
+	void approvedChargeConfirmsThePayment() {
+		when(gateway.charge(any(), any())).thenReturn(GatewayResult.approved("REF-7"));
+		when(paymentService.completePayment(anyLong(), any())).thenReturn("CONFIRMED");
+
+		service.start(UUID.randomUUID(), new PaymentRequest());
+
+		verify(paymentService, timeout(2000)).completePayment(eq(PAYMENT_ID), argThat(GatewayResult::approved));
+		verify(paymentService, never()).failPayment(anyLong(), any());
+		verify(gateway, never()).refund(anyLong(), any(), any());
+	}
+
+	@Test
+	void declinedChargeIsTheOnlyGatewayOutcomeThatFails() {
+		when(gateway.charge(any(), any())).thenReturn(GatewayResult.declined("Fondos insuficientes"));
+
+		service.start(UUID.randomUUID(), new PaymentRequest());
+
+		verify(paymentService, timeout(2000)).completePayment(eq(PAYMENT_ID), argThat(result -> !result.approved()));
+		verify(paymentService, never()).failPayment(anyLong(), any());
+	}
+
+	@Test
+	void retryAfterADeclineReachesTheGatewayWithANewReference() throws Exception {
+		// PaymentService real: el número de intento lo avanza el reintento del cliente
+		Reservation reservation = new Reservation(LocalDate.now().plusDays(1), LocalTime.of(10, 0),
+				LocalTime.of(11, 0), null, new Court("Pista 1", null, "PADEL", new BigDecimal("50.00")));
+		reservation.setId(UUID.randomUUID());
+		reservation.getCourt().setId(UUID.randomUUID());
+		ReservationRepository reservationRepository = mock(ReservationRepository.class);
+		when(reservationRepository.lockById(reservation.getId())).thenReturn(Optional.of(reservation));
+		PaymentService payments = new PaymentService(paymentRepository, reservationRepository,
+				mock(AvailabilityIndex.class), mock(ApplicationEventPublisher.class));
+		when(paymentRepository.findByReservationId(reservation.getId())).thenReturn(Optional.empty());
+		when(paymentRepository.save(any())).thenAnswer(invocation -> {
+			Payment saved = invocation.getArgument(0);
+			ReflectionTestUtils.setField(saved, "id", PAYMENT_ID);
+			when(paymentRepository.findByReservationId(reservation.getId())).thenReturn(Optional.of(saved));
+			when(paymentRepository.lockById(PAYMENT_ID)).thenReturn(Optional.of(saved));
+			return saved;
+		});
+		List<String> references = new ArrayList<>();
+		when(gateway.charge(any(), any())).thenAnswer(invocation -> {
+			GatewayCharge charge = invocation.getArgument(0);
+			references.add(charge.reference());
+			return references.size() == 1 ? GatewayResult.declined("Fondos insuficientes") : GatewayResult.approved("REF-7");
+		});
+		PaymentProcessingService processing = new PaymentProcessingService(payments, paymentRepository, gateway,
+				new SimpleMeterRegistry(), 2, 16, TIMEOUT_MS, 5, 30000);
+		PaymentRequest request = new PaymentRequest();
+		request.setAmount(new BigDecimal("50.00"));
+		request.setMethod(PaymentMethod.CARD);
+		try {
+			processing.start(reservation.getId(), request);
+			verify(gateway, timeout(2000)).charge(any(), any());
+			awaitIdle(processing);
+			assertEquals("FAILED", paymentRepository.findByReservationId(reservation.getId()).get().getStatus());
+
+			processing.start(reservation.getId(), request);
+			verify(gateway, timeout(2000).times(2)).charge(any(), any());
+			awaitIdle(processing);
+		} finally {
+			processing.shutdown();
+		}
+
+		assertEquals(List.of(PAYMENT_ID + "-1", PAYMENT_ID + "-2"), references);
+		assertEquals("CONFIRMED", paymentRepository.findByReservationId(reservation.getId()).get().getStatus());
+	}
+
+	@Test
+	void hungGatewayIsCutAtTheDeadlineAndReconciledWithTheSameReference() throws Exception {
+		AtomicInteger attempts = new AtomicInteger();
+		when(gateway.charge(any(), any())).thenAnswer(invocation -> {
+			if (attempts.incrementAndGet() == 1) {
+				awaitIgnoringInterrupts(release); // no respeta el timeout ni la interrupción
+			}
+			return GatewayResult.approved("REF-7");
+		});
+		when(paymentService.completePayment(anyLong(), any())).thenReturn("CONFIRMED");
+
+		long started = System.nanoTime();
+		service.start(UUID.randomUUID(), new PaymentRequest());
+		awaitIdle();
+		long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+		assertTrue(elapsedMs < TIMEOUT_MS + 1000, "el pool corta la espera: " + elapsedMs + " ms");
+		verify(paymentService, never()).completePayment(anyLong(), any());
+		verify(paymentService, never()).failPayment(anyLong(), any());
+
+		service.reconcile();
+
+		verify(paymentService, timeout(2000)).completePayment(eq(PAYMENT_ID), argThat(GatewayResult::approved));
+		// El mismo intento se repite con la misma referencia
+		verify(gateway, timeout(2000).times(2)).charge(argThat(charge -> (PAYMENT_ID + "-1").equals(charge.reference())), any());
+	}
+
+	@Test
+	void transportErrorLeavesThePaymentPending() throws Exception {
+		AtomicInteger attempts = new AtomicInteger();
+		when(gateway.charge(any(), any())).thenAnswer(invocation -> {
+			if (attempts.incrementAndGet() == 1) {
+				throw new IllegalStateException("Connection reset");
+			}
+			return GatewayResult.approved("REF-7");
+		});
+		when(paymentService.completePayment(anyLong(), any())).thenReturn("CONFIRMED");
+
+		service.start(UUID.randomUUID(), new PaymentRequest());
+		awaitIdle();
+		verify(paymentService, never()).failPayment(anyLong(), any());
+		verify(paymentService, never()).completePayment(anyLong(), any());
+
+		service.reconcile();
+		verify(paymentService, timeout(2000)).completePayment(eq(PAYMENT_ID), argThat(GatewayResult::approved));
+	}
+
+	@Test
+	void approvedChargeOnACancelledReservationIsRefunded() {
+		when(gateway.charge(any(), any())).thenReturn(GatewayResult.approved("REF-7"));
+		when(paymentService.completePayment(anyLong(), any())).thenReturn("REFUND_PENDING");
+
+		service.start(UUID.randomUUID(), new PaymentRequest());
+
+		verify(gateway, timeout(2000)).refund(eq(PAYMENT_ID), eq("REF-7"), any());
+		verify(paymentService, timeout(2000)).markRefunded(PAYMENT_ID);
+	}
+
+	@Test
+	void failedRefundIsRetriedByReconcile() throws Exception {
+		ReflectionTestUtils.setField(payment, "gatewayReference", "REF-7");
+		when(paymentRepository.findIdsByStatus("PENDING")).thenReturn(List.of());
+		when(paymentRepository.findIdsByStatus("REFUND_PENDING")).thenReturn(List.of(PAYMENT_ID));
+		AtomicInteger attempts = new AtomicInteger();
+		doAnswer(invocation -> {
+			if (attempts.incrementAndGet() == 1) {
+				throw new PaymentGatewayException("Error de la pasarela");
+			}
+			return null;
+		}).when(gateway).refund(anyLong(), any(), any());
+
+		service.reconcile();
+		awaitIdle();
+		verify(paymentService, never()).markRefunded(anyLong());
+
+		service.reconcile();
+		verify(paymentService, timeout(2000)).markRefunded(PAYMENT_ID);
+		assertEquals(2, attempts.get());
+	}
+
+	private void awaitIdle() throws InterruptedException {
+		awaitIdle(service);
+	}
+
+	private static void awaitIdle(PaymentProcessingService service) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+		while (service.inFlight() > 0 && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		assertEquals(0, service.inFlight());
+	}
+
+	private static void awaitIgnoringInterrupts(CountDownLatch latch) {
+		while (true) {
+			try {
+				latch.await();
+				return;
+			} catch (InterruptedException ignored) {
+				// una pasarela mal escrita: sigue esperando
+			}
+		}
+	}
+
+	private static Payment payment() {
+		Payment payment = new Payment(new BigDecimal("50.00"), PaymentMethod.CARD, null,
+				"Ana López", "ana@email.com", "123");
+		ReflectionTestUtils.setField(payment, "id", PAYMENT_ID);
+		return payment;
+	}
+}
@@ -0,0 +1,161 @@
+package com.reservas.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.reservas.backend.dto.ReservationDTO;
+import com.reservas.backend.dto.ReservationPageDTO;
+import com.reservas.backend.dto.ReservationSearchCriteria;
+import com.reservas.backend.model.Court;
+import com.reservas.backend.model.Reservation;
+import com.reservas.backend.model.User;
+
+@DataJpaTest(properties = {
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.flyway.enabled=false",
+		"spring.sql.init.mode=always",
+		"spring.jpa.defer-datasource-initialization=true",
+		"spring.sql.init.schema-locations=classpath:db/code-sequences.sql"
+})
+@Import({ CodeGenerator.class, CodeAssignmentListener.class, ReservationSearchService.class })
+class ReservationSearchServiceTest {
+
+	private static final LocalDate DATE = LocalDate.of(2030, 3, 10);
+
+	@Autowired
+	private TestEntityManager em;
+
+	@Autowired
+	private ReservationSearchService searchService;
+
+	private Court first;
+	private Court second;
+
+	@BeforeEach
+	void seed() {
+		first = em.persist(new Court("Cancha 1", "Grass", "Fútbol", new BigDecimal("50.00")));
+		second = em.persist(new Court("Cancha 2", "Grass", "Fútbol", new BigDecimal("50.00")));
+		User user = em.persist(new User("Ana", "López", "ana@email.com", "x", null));
+		// 3 días x 2 horarios x 2 canchas = 12 reservas; cada (fecha, hora) se repite y desempata el id
+		for (int day = 0; day < 3; day++) {
+			for (int slot = 0; slot < 2; slot++) {
+				LocalTime start = LocalTime.of(18, 0).plusMinutes(90L * slot);
+				em.persist(new Reservation(DATE.plusDays(day), start, start.plusMinutes(90), user, first));
+				Reservation other = new Reservation(DATE.plusDays(day), start, start.plusMinutes(90), user, second);
+				if (slot == 1) other.setStatus("CANCELLED");
+				em.persist(other);
+			}
+		}
+		em.flush();
+		em.clear();
+	}
+
+	@Test
+	void keysetPagesCoverEveryRowOnceInOrder() {
+		List<List<ReservationDTO>> pages = walk(criteria("date", "asc", 5));
+
+		assertEquals(List.of(5, 5, 2), pages.stream().map(List::size).toList());
+		List<ReservationDTO> rows = pages.stream().flatMap(List::stream).toList();
+		assertEquals(12, rows.stream().map(ReservationDTO::getId).distinct().count());
+		assertEquals(sorted(rows, byDate()), rows);
+	}
+
+	@Test
+	void exactMultipleOfPageSizeEndsWithoutAnEmptyPage() {
+		List<List<ReservationDTO>> pages = walk(criteria("date", "asc", 4));
+
+		assertEquals(List.of(4, 4, 4), pages.stream().map(List::size).toList());
+	}
+
+	@Test
+	void descendingAndCodeOrdersPageBackwardsAndByCode() {
+		List<ReservationDTO> descending = walk(criteria("date", "desc", 5)).stream().flatMap(List::stream).toList();
+		assertEquals(12, descending.size());
+		assertEquals(sorted(descending, byDate().reversed()), descending);
+
+		List<ReservationDTO> byCode = walk(criteria("code", "asc", 5)).stream().flatMap(List::stream).toList();
+		assertEquals(12, byCode.size());
+		assertEquals(sorted(byCode, Comparator.comparing(ReservationDTO::getCode)), byCode);
+	}
+
+	@Test
+	void filtersApplyAcrossPages() {
+		ReservationSearchCriteria criteria = criteria("date", "asc", 2);
+		criteria.setCourtId(second.getId());
+		criteria.setStatus("pending");
+		criteria.setFrom(DATE.plusDays(1));
+
+		List<ReservationDTO> rows = walk(criteria).stream().flatMap(List::stream).toList();
+
+		assertEquals(List.of(DATE.plusDays(1), DATE.plusDays(2)), rows.stream().map(ReservationDTO::getDate).toList());
+		rows.forEach(r -> assertEquals(second.getId(), r.getCourtId()));
+	}
+
+	@Test
+	void rejectsCursorFromAnotherSearchOrGarbage() {
+		ReservationPageDTO page = searchService.search(criteria("date", "asc", 5));
+		assertNotNull(page.getNextCursor());
+
+		ReservationSearchCriteria otherDirection = criteria("date", "desc", 5);
+		otherDirection.setCursor(page.getNextCursor());
+		assertThrows(IllegalArgumentException.class, () -> searchService.search(otherDirection));
+
+		ReservationSearchCriteria otherSort = criteria("code", "asc", 5);
+		otherSort.setCursor(page.getNextCursor());
+		assertThrows(IllegalArgumentException.class, () -> searchService.search(otherSort));
+
+		ReservationSearchCriteria garbage = criteria("date", "asc", 5);
+		garbage.setCursor("no-es-un-cursor");
+		assertThrows(IllegalArgumentException.class, () -> searchService.search(garbage));
+
+		assertThrows(IllegalArgumentException.class, () -> searchService.search(criteria("price", "asc", 5)));
+	}
+
+	private List<List<ReservationDTO>> walk(ReservationSearchCriteria criteria) {
+		List<List<ReservationDTO>> pages = new ArrayList<>();
+		ReservationPageDTO page;
+		do {
+			page = searchService.search(criteria);
+			pages.add(page.getItems());
+			criteria.setCursor(page.getNextCursor());
+		} while (page.getNextCursor() != null && pages.size() < 20);
+		assertNull(page.getNextCursor());
+		return pages;
+	}
+
+	private static ReservationSearchCriteria criteria(String sort, String direction, int size) {
+		ReservationSearchCriteria criteria = new ReservationSearchCriteria();
+		criteria.setSort(sort);
+		criteria.setDirection(direction);
+		criteria.setSize(size);
+		return criteria;
+	}
+
+	private static Comparator<ReservationDTO> byDate() {
+		return Comparator.comparing(ReservationDTO::getDate)
+				.thenComparing(ReservationDTO::getStartTime)
+				.thenComparing(ReservationDTO::getId, Comparator.comparing(UUID::toString));
+	}
+
+	private static List<ReservationDTO> sorted(List<ReservationDTO> rows, Comparator<ReservationDTO> order) {
+		return rows.stream().sorted(order).toList();
+	}
+}
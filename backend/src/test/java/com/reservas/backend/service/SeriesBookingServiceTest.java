@@ -0,0 +1,206 @@
+package com.reservas.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.reservas.backend.dto.SeriesOccurrenceDTO;
+import com.reservas.backend.dto.SeriesReservationRequest;
+import com.reservas.backend.dto.SeriesReservationResultDTO;
+import com.reservas.backend.dto.TimeIntervalDTO;
+import com.reservas.backend.model.Court;
+import com.reservas.backend.model.Reservation;
+import com.reservas.backend.model.User;
+import com.reservas.backend.repository.ReservationRepository;
+
+class SeriesBookingServiceTest {
+
+	private final SeriesBookingService service = new SeriesBookingService(null, null, null, null, null, "sequencer");
+
+	private final ReservationRepository reservationRepository = mock(ReservationRepository.class);
+	private final AvailabilityIndex availabilityIndex = mock(AvailabilityIndex.class);
+	private final BookingEngine bookingEngine = mock(BookingEngine.class);
+	private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+	private final Court court = court();
+	private final User user = new User("Ana", "López", "ana@email.com", "x", null);
+
+	@Test
+	void biweeklySeriesSkipsExceptions() {
+		LocalDate start = LocalDate.now().plusDays(1);
+		SeriesReservationRequest request = request(start, start.plusWeeks(8), "biweekly");
+		request.setExceptions(List.of(start.plusWeeks(4)));
+
+		assertEquals(List.of(start, start.plusWeeks(2), start.plusWeeks(6), start.plusWeeks(8)), service.expand(request));
+	}
+
+	@Test
+	void rejectsSeriesLongerThanLimit() {
+		LocalDate start = LocalDate.now().plusDays(1);
+		SeriesReservationRequest request = request(start, start.plusWeeks(SeriesBookingService.MAX_OCCURRENCES), "WEEKLY");
+
+		assertThrows(IllegalArgumentException.class, () -> service.expand(request));
+	}
+
+	@Test
+	void sequencerBooksFreeOccurrencesAndReportsConflicts() {
+		LocalDate start = LocalDate.now().plusDays(1);
+		SeriesBookingService series = newService("sequencer");
+		when(bookingEngine.runExclusive(eq(court.getId()), any())).thenAnswer(inv -> inv.<Supplier<?>>getArgument(1).get());
+		// Semana 2 se solapa por media hora; semana 3 solo toca el final de la serie (no es conflicto)
+		when(reservationRepository.findOccupiedIntervals(court.getId(), start, start.plusWeeks(2))).thenReturn(List.of(
+				busy(start.plusWeeks(1), "19:00", "20:00"),
+				busy(start.plusWeeks(2), "19:30", "21:00")));
+		List<Reservation> saved = captureSaves();
+
+		SeriesReservationResultDTO result = series.bookSeries(request(start, start.plusWeeks(2), "weekly"), court, user);
+
+		assertEquals(List.of("BOOKED", "CONFLICT", "BOOKED"), results(result));
+		assertEquals(2, result.getBooked());
+		assertEquals(1, result.getConflicts());
+		assertEquals(List.of(start, start.plusWeeks(2)), saved.stream().map(Reservation::getDate).toList());
+		saved.forEach(r -> assertEquals("PENDING", r.getStatus()));
+		SeriesOccurrenceDTO first = result.getOccurrences().get(0);
+		assertEquals(saved.get(0).getId(), first.getReservationId());
+		assertEquals(saved.get(0).getCode(), first.getCode());
+		assertNull(result.getOccurrences().get(1).getReservationId());
+		verify(availabilityIndex, times(2)).onSaved(any());
+		verify(eventPublisher, times(2)).publishEvent(any(ReservationChangedEvent.class));
+	}
+
+	@Test
+	void fullyConflictingSeriesSavesNothing() {
+		LocalDate start = LocalDate.now().plusDays(1);
+		SeriesBookingService series = newService("sequencer");
+		when(bookingEngine.runExclusive(eq(court.getId()), any())).thenAnswer(inv -> inv.<Supplier<?>>getArgument(1).get());
+		when(reservationRepository.findOccupiedIntervals(court.getId(), start, start.plusWeeks(1))).thenReturn(List.of(
+				busy(start, "17:00", "23:00"),
+				busy(start.plusWeeks(1), "18:30", "19:00")));
+
+		SeriesReservationResultDTO result = series.bookSeries(request(start, start.plusWeeks(1), "weekly"), court, user);
+
+		assertEquals(List.of("CONFLICT", "CONFLICT"), results(result));
+		verify(reservationRepository, never()).saveAll(anyList());
+		verifyNoInteractions(availabilityIndex, eventPublisher);
+	}
+
+	@Test
+	void databaseModeRecomputesTheSeriesAfterAnOverlapViolation() {
+		LocalDate start = LocalDate.now().plusDays(1);
+		SeriesBookingService series = newService("database");
+		// Otra réplica reservó la semana 2 entre la consulta y el INSERT
+		when(reservationRepository.findOccupiedIntervals(court.getId(), start, start.plusWeeks(1)))
+				.thenReturn(List.of())
+				.thenReturn(List.of(busy(start.plusWeeks(1), "18:00", "19:30")));
+		AtomicInteger attempts = new AtomicInteger();
+		List<Reservation> saved = new ArrayList<>();
+		when(reservationRepository.saveAll(anyList())).thenAnswer(inv -> {
+			if (attempts.incrementAndGet() == 1) throw overlap();
+			List<Reservation> rows = inv.getArgument(0);
+			rows.forEach(Reservation::generateIds);
+			saved.addAll(rows);
+			return rows;
+		});
+
+		SeriesReservationResultDTO result = series.bookSeries(request(start, start.plusWeeks(1), "weekly"), court, user);
+
+		assertEquals(List.of("BOOKED", "CONFLICT"), results(result));
+		assertEquals(1, saved.size());
+		verify(availabilityIndex, times(1)).onSaved(any());
+		verifyNoInteractions(bookingEngine);
+	}
+
+	@Test
+	void databaseModeGivesUpAfterRepeatedOverlaps() {
+		LocalDate start = LocalDate.now().plusDays(1);
+		SeriesBookingService series = newService("database");
+		when(reservationRepository.findOccupiedIntervals(any(), any(), any())).thenReturn(List.of());
+		when(reservationRepository.saveAll(anyList())).thenThrow(overlap());
+
+		IllegalStateException conflict = assertThrows(IllegalStateException.class,
+				() -> series.bookSeries(request(start, start.plusWeeks(1), "weekly"), court, user));
+
+		assertEquals("La serie entra en conflicto con otra reserva.", conflict.getMessage());
+		verify(reservationRepository, times(3)).saveAll(anyList());
+		verifyNoInteractions(availabilityIndex, eventPublisher);
+	}
+
+	private SeriesBookingService newService(String mode) {
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+		return new SeriesBookingService(reservationRepository, availabilityIndex, bookingEngine,
+				new TransactionTemplate(transactionManager), eventPublisher, mode);
+	}
+
+	// Simula el INSERT: id y código asignados al persistir
+	private List<Reservation> captureSaves() {
+		List<Reservation> saved = new ArrayList<>();
+		when(reservationRepository.saveAll(anyList())).thenAnswer(inv -> {
+			List<Reservation> rows = inv.getArgument(0);
+			for (Reservation row : rows) {
+				row.generateIds();
+				row.setCode("R-" + (saved.size() + 1));
+				saved.add(row);
+			}
+			return rows;
+		});
+		return saved;
+	}
+
+	private static List<String> results(SeriesReservationResultDTO result) {
+		result.getOccurrences().stream().filter(o -> "BOOKED".equals(o.getResult()))
+				.forEach(o -> assertNotNull(o.getReservationId()));
+		return result.getOccurrences().stream().map(SeriesOccurrenceDTO::getResult).toList();
+	}
+
+	private static TimeIntervalDTO busy(LocalDate date, String start, String end) {
+		return new TimeIntervalDTO(date, LocalTime.parse(start), LocalTime.parse(end));
+	}
+
+	private static DataIntegrityViolationException overlap() {
+		return new DataIntegrityViolationException("violación",
+				new RuntimeException(new SQLException("violación", "23P01")));
+	}
+
+	private static Court court() {
+		Court court = new Court("Cancha 1", "Grass", "Fútbol", new BigDecimal("50.00"));
+		court.setId(UUID.randomUUID());
+		return court;
+	}
+
+	private static SeriesReservationRequest request(LocalDate from, LocalDate to, String frequency) {
+		SeriesReservationRequest request = new SeriesReservationRequest();
+		request.setStartDate(from);
+		request.setEndDate(to);
+		request.setStartTime(LocalTime.of(18, 0));
+		request.setEndTime(LocalTime.of(19, 30));
+		request.setFrequency(frequency);
+		return request;
+	}
+}
@@ -0,0 +1,51 @@
+package com.reservas.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+	@Test
+	void expiresEachKeyWithinOneTickOfItsDeadline() {
+		// 4 casilleros x 3 niveles: 4 ms, 16 ms, 64 ms; los plazos mayores se reubican
+		TimingWheel<Long> wheel = new TimingWheel<>(1, 4, 3, 0);
+		for (long deadline = 0; deadline <= 300; deadline += 7) {
+			wheel.add(deadline, deadline);
+		}
+		int total = wheel.size();
+
+		List<Long> expired = new ArrayList<>();
+		for (long now = 0; now <= 310; now++) {
+			List<Long> due = new ArrayList<>();
+			wheel.advance(now, due);
+			for (long deadline : due) {
+				assertTrue(deadline <= now && now - deadline <= 1, "plazo " + deadline + " entregado en " + now);
+			}
+			expired.addAll(due);
+		}
+		assertEquals(total, expired.size());
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void deliversPastDeadlinesOnNextAdvance() {
+		TimingWheel<String> wheel = new TimingWheel<>(1000, 64, 3, 10_000);
+		wheel.add("vencida", 5_000);
+		wheel.add("futura", 70_000);
+
+		List<String> due = new ArrayList<>();
+		wheel.advance(10_000, due);
+		assertEquals(List.of("vencida"), due);
+
+		due.clear();
+		wheel.advance(69_000, due);
+		assertTrue(due.isEmpty());
+		wheel.advance(70_000, due);
+		assertEquals(List.of("futura"), due);
+	}
+}
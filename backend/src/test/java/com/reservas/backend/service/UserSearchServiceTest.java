@@ -0,0 +1,82 @@
+package com.reservas.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.reservas.backend.dto.UserDTO;
+import com.reservas.backend.dto.UserPageDTO;
+import com.reservas.backend.dto.UserSearchCriteria;
+import com.reservas.backend.model.Role;
+import com.reservas.backend.model.User;
+
+@DataJpaTest(properties = {
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.flyway.enabled=false"
+})
+@Import(UserSearchService.class)
+class UserSearchServiceTest {
+
+	@Autowired
+	private TestEntityManager em;
+
+	@Autowired
+	private UserSearchService userSearchService;
+
+	@Test
+	void pagesThroughFilteredUsersWithRolesInBatch() {
+		Role admin = em.persist(new Role("ADMIN"));
+		Role cliente = em.persist(new Role("CLIENTE"));
+		for (int i = 0; i < 25; i++) {
+			User user = new User("Ana" + i, String.format("López %02d", i), "ana" + i + "@email.com", "x", null);
+			user.addRole(i % 5 == 0 ? admin : cliente);
+			em.persist(user);
+		}
+		em.persist(new User("Pedro", "Ramos", "pedro@email.com", "x", null));
+		em.flush();
+		em.clear();
+
+		UserSearchCriteria criteria = new UserSearchCriteria();
+		criteria.setQuery("an");
+		criteria.setRole("cliente");
+		criteria.setSize(15);
+
+		Statistics statistics = em.getEntityManager().getEntityManagerFactory()
+				.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		UserPageDTO first = userSearchService.search(criteria);
+		// página + roles de todos sus usuarios
+		assertEquals(2, statistics.getPrepareStatementCount());
+		assertEquals(15, first.getItems().size());
+		assertNotNull(first.getNextCursor());
+
+		criteria.setCursor(first.getNextCursor());
+		UserPageDTO second = userSearchService.search(criteria);
+		assertEquals(5, second.getItems().size());
+		assertNull(second.getNextCursor());
+
+		List<String> names = new ArrayList<>();
+		first.getItems().forEach(u -> names.add(u.getLastName()));
+		second.getItems().forEach(u -> names.add(u.getLastName()));
+		assertEquals(names.stream().sorted().toList(), names);
+		for (UserDTO user : second.getItems()) {
+			assertEquals("CLIENTE", user.getRoles().get(0).getName());
+		}
+
+		assertEquals(1, userSearchService.lookup("PED", null).size());
+		assertEquals(26, userSearchService.lookup(null, null).size());
+	}
+}
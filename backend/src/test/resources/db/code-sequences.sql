@@ -0,0 +1,4 @@
+-- Secuencias de códigos R-/C- para los tests con H2 (en PostgreSQL las crea la migración V1).
+-- El incremento debe coincidir con CodeGenerator.BLOCK_SIZE.
+CREATE SEQUENCE IF NOT EXISTS reservation_code_seq START WITH 1 INCREMENT BY 100;
+CREATE SEQUENCE IF NOT EXISTS court_code_seq START WITH 1 INCREMENT BY 100;
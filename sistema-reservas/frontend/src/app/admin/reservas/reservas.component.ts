@@ -254,7 +254,9 @@ export class ReservasComponent implements OnInit {
         status: this.status
       };
 
-      this.http.post<ReservationDTO>('http://localhost:8080/api/reservations', payload)
+      // Con el token de admin la reserva no es un hold del checkout: no vence si no se paga
+      this.http.post<ReservationDTO>('http://localhost:8080/api/reservations', payload,
+        { headers: { Authorization: `Bearer ${this.auth.getToken()}` } })
         .subscribe({
           next: res => {
             const user = this.users.find(u => u.id === res.userId);
@@ -220,7 +220,7 @@ export class UsuariosComponent implements OnInit {
     dialogRef.afterClosed().subscribe(result => {
       if (!result) return;
 
-      this.http.delete(`http://localhost:8080/api/users/${userId}`, { headers: { userRole: this.userRole } })
+      this.http.delete(`http://localhost:8080/api/users/${userId}`, { headers: { Authorization: `Bearer ${this.auth.getToken()}` } })
         .subscribe({
           next: () => {
             this.users = this.users.filter(u => u.id !== userId);
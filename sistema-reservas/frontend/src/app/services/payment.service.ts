@@ -1,7 +1,8 @@
 // frontend/src/app/services/payment.service.ts
 import { Injectable } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
-import { Observable } from 'rxjs';
+import { Observable, of, throwError, timer } from 'rxjs';
+import { filter, switchMap, take, timeout } from 'rxjs/operators';
 
 export interface PaymentRequest {
   method: 'CARD' | 'CASH';
@@ -25,6 +26,15 @@ export interface InvoiceDTO {
   reservationCode: string;
 }
 
+// Estado del cobro: el backend responde 202 y la pasarela confirma en segundo plano
+export interface PaymentStatusDTO {
+  reservationId: string;
+  paymentId: number;
+  status: 'PENDING' | 'CONFIRMED' | 'FAILED' | 'REFUND_PENDING' | 'REFUNDED';
+  message?: string;
+  invoice?: InvoiceDTO;
+}
+
 @Injectable({
   providedIn: 'root'
 })
@@ -33,9 +43,23 @@ export class PaymentService {
 
   constructor(private http: HttpClient) {}
 
-  // Cambiar 'number' a 'string'
+  // Inicia el pago y consulta el estado hasta que se confirma (factura) o falla (error)
   payReservation(reservationId: string, request: PaymentRequest): Observable<InvoiceDTO> {
-    return this.http.post<InvoiceDTO>(`${this.apiUrl}/${reservationId}`, request);
+    return this.http.post<PaymentStatusDTO>(`${this.apiUrl}/${reservationId}`, request).pipe(
+      switchMap(() => timer(0, 1000).pipe(
+        switchMap(() => this.getPaymentStatus(reservationId)),
+        filter(status => status.status !== 'PENDING'),
+        take(1),
+        timeout(60000)
+      )),
+      switchMap(status => status.status === 'CONFIRMED' && status.invoice
+        ? of(status.invoice)
+        : throwError(() => new Error(status.message || 'Pago rechazado')))
+    );
+  }
+
+  getPaymentStatus(reservationId: string): Observable<PaymentStatusDTO> {
+    return this.http.get<PaymentStatusDTO>(`${this.apiUrl}/${reservationId}/status`);
   }
 
   // Cambiar 'number' a 'string'